@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.benchmarks;
+
+import com.powsybl.flow_decomposition.FlowDecompositionComputer;
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.FlowDecompositionResults;
+import com.powsybl.flow_decomposition.XnecProvider;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Network;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end benchmark of a base case flow decomposition, for each flow partition mode, on synthetic networks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlowPartitionerBenchmark {
+    @Param({"1000", "10000", "50000"})
+    private int busCount;
+
+    @Param({"4"})
+    private int countryCount;
+
+    @Param({"20"})
+    private int pstCount;
+
+    @Param({"0.05"})
+    private double xnecDensity;
+
+    // No values given: every flow partition mode is benchmarked
+    @Param
+    private FlowDecompositionParameters.FlowPartitionMode flowPartitionMode;
+
+    private Network network;
+    private XnecProvider xnecProvider;
+    private FlowDecompositionComputer computer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        network = SyntheticNetworkFactory.create(busCount, countryCount, pstCount);
+        xnecProvider = XnecProviderByIds.builder()
+            .addNetworkElementsOnBasecase(new HashSet<>(SyntheticNetworkFactory.getXnecIds(network, xnecDensity)))
+            .build();
+        computer = new FlowDecompositionComputer(new FlowDecompositionParameters()
+            .setFlowPartitioner(flowPartitionMode)
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE));
+    }
+
+    @Benchmark
+    public FlowDecompositionResults decompose() {
+        return computer.run(xnecProvider, network);
+    }
+}
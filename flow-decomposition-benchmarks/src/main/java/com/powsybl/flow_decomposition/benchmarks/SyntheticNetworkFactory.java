@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.benchmarks;
+
+import com.powsybl.iidm.network.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds meshed synthetic networks of a given size for the benchmarks.
+ * <p>
+ * Buses are laid out on a square grid and connected to their right and lower neighbours. The grid is split in vertical
+ * stripes, one country per stripe, so that lines crossing a stripe border are interconnections. Some of the horizontal
+ * lines are replaced by a phase shifting transformer in series with a line. Every bus has a load, and one bus in four a
+ * generator, generations being unbalanced between countries so that loop flows are not all zero. The intermediate bus
+ * between a phase shifting transformer and its line has a load without consumption, as the full line decompositions
+ * need an injection on every bus.
+ */
+public final class SyntheticNetworkFactory {
+    private static final Country[] COUNTRIES = {Country.FR, Country.BE, Country.DE, Country.NL, Country.AT, Country.CH, Country.IT, Country.ES};
+    private static final double NOMINAL_V = 400.;
+    private static final double LOAD_P = 10.;
+    private static final int GENERATOR_SPACING = 4;
+    private static final long SEED = 20260101L;
+
+    private SyntheticNetworkFactory() {
+    }
+
+    /**
+     * @param busCount approximate number of buses, rounded to a square grid.
+     * @param countryCount number of countries, at most 8.
+     * @param pstCount number of phase shifting transformers.
+     */
+    public static Network create(int busCount, int countryCount, int pstCount) {
+        if (countryCount < 1 || countryCount > COUNTRIES.length) {
+            throw new IllegalArgumentException(String.format("Country count should be between 1 and %d", COUNTRIES.length));
+        }
+        int side = Math.max(2, (int) Math.ceil(Math.sqrt(busCount)));
+        Network network = Network.create(String.format("synthetic_%d_%d_%d", busCount, countryCount, pstCount), "benchmark");
+        Random random = new Random(SEED);
+
+        Bus[][] buses = new Bus[side][side];
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                buses[row][column] = createBus(network, row, column, getCountry(column, side, countryCount));
+            }
+        }
+        addInjections(buses, side, countryCount);
+
+        int pstSpacing = pstCount == 0 ? Integer.MAX_VALUE : Math.max(1, side * (side - 1) / pstCount);
+        int horizontalLinkCount = 0;
+        int createdPstCount = 0;
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                if (column + 1 < side) {
+                    boolean isPst = createdPstCount < pstCount && horizontalLinkCount % pstSpacing == 0;
+                    if (isPst) {
+                        createPst(network, buses[row][column], buses[row][column + 1], random);
+                        createdPstCount++;
+                    } else {
+                        createLine(network, buses[row][column], buses[row][column + 1], random);
+                    }
+                    horizontalLinkCount++;
+                }
+                if (row + 1 < side) {
+                    createLine(network, buses[row][column], buses[row + 1][column], random);
+                }
+            }
+        }
+        return network;
+    }
+
+    /**
+     * @return ids of a fraction of the lines of the network, interconnections first, to be used as XNECs.
+     */
+    public static List<String> getXnecIds(Network network, double xnecDensity) {
+        List<String> interconnections = new ArrayList<>();
+        List<String> internalLines = new ArrayList<>();
+        network.getLineStream().forEach(line -> {
+            Country country1 = line.getTerminal1().getVoltageLevel().getSubstation().flatMap(Substation::getCountry).orElseThrow();
+            Country country2 = line.getTerminal2().getVoltageLevel().getSubstation().flatMap(Substation::getCountry).orElseThrow();
+            (country1 == country2 ? internalLines : interconnections).add(line.getId());
+        });
+        List<String> lineIds = new ArrayList<>(interconnections);
+        lineIds.addAll(internalLines);
+        int xnecCount = Math.max(1, (int) Math.round(lineIds.size() * xnecDensity));
+        return lineIds.subList(0, Math.min(xnecCount, lineIds.size()));
+    }
+
+    private static Country getCountry(int column, int side, int countryCount) {
+        return COUNTRIES[Math.min(countryCount - 1, column * countryCount / side)];
+    }
+
+    private static Bus createBus(Network network, int row, int column, Country country) {
+        String id = String.format("N_%d_%d", row, column);
+        Substation substation = network.newSubstation()
+            .setId("S_" + id)
+            .setCountry(country)
+            .add();
+        VoltageLevel voltageLevel = substation.newVoltageLevel()
+            .setId("VL_" + id)
+            .setNominalV(NOMINAL_V)
+            .setTopologyKind(TopologyKind.BUS_BREAKER)
+            .add();
+        return voltageLevel.getBusBreakerView().newBus()
+            .setId("B_" + id)
+            .add();
+    }
+
+    private static void addInjections(Bus[][] buses, int side, int countryCount) {
+        int busCount = side * side;
+        int generatorCount = (busCount + GENERATOR_SPACING - 1) / GENERATOR_SPACING;
+        double totalLoad = busCount * LOAD_P;
+        int index = 0;
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                Bus bus = buses[row][column];
+                VoltageLevel voltageLevel = bus.getVoltageLevel();
+                voltageLevel.newLoad()
+                    .setId("L_" + bus.getId())
+                    .setBus(bus.getId())
+                    .setConnectableBus(bus.getId())
+                    .setP0(LOAD_P)
+                    .setQ0(0.)
+                    .add();
+                if (index % GENERATOR_SPACING == 0) {
+                    // Western countries export, eastern countries import, for the whole grid to stay balanced
+                    double imbalance = countryCount == 1 ? 1. : 1.5 - (double) column / (side - 1);
+                    double targetP = totalLoad / generatorCount * imbalance;
+                    voltageLevel.newGenerator()
+                        .setId("G_" + bus.getId())
+                        .setBus(bus.getId())
+                        .setConnectableBus(bus.getId())
+                        .setMinP(0.)
+                        .setMaxP(4 * targetP + 100.)
+                        .setTargetP(targetP)
+                        .setTargetV(NOMINAL_V)
+                        .setVoltageRegulatorOn(true)
+                        .add();
+                }
+                index++;
+            }
+        }
+    }
+
+    private static void createLine(Network network, Bus bus1, Bus bus2, Random random) {
+        network.newLine()
+            .setId(String.format("%s %s", bus1.getId(), bus2.getId()))
+            .setVoltageLevel1(bus1.getVoltageLevel().getId())
+            .setBus1(bus1.getId())
+            .setConnectableBus1(bus1.getId())
+            .setVoltageLevel2(bus2.getVoltageLevel().getId())
+            .setBus2(bus2.getId())
+            .setConnectableBus2(bus2.getId())
+            .setR(0.5 + random.nextDouble())
+            .setX(8. + 4. * random.nextDouble())
+            .add();
+    }
+
+    private static void createPst(Network network, Bus bus1, Bus bus2, Random random) {
+        Substation substation = bus1.getVoltageLevel().getSubstation().orElseThrow();
+        VoltageLevel pstVoltageLevel = substation.newVoltageLevel()
+            .setId(bus1.getVoltageLevel().getId() + "_PST")
+            .setNominalV(NOMINAL_V)
+            .setTopologyKind(TopologyKind.BUS_BREAKER)
+            .add();
+        Bus pstBus = pstVoltageLevel.getBusBreakerView().newBus()
+            .setId(bus1.getId() + "_PST")
+            .add();
+        pstVoltageLevel.newLoad()
+            .setId("L_" + pstBus.getId())
+            .setBus(pstBus.getId())
+            .setConnectableBus(pstBus.getId())
+            .setP0(0.)
+            .setQ0(0.)
+            .add();
+        TwoWindingsTransformer pst = substation.newTwoWindingsTransformer()
+            .setId(String.format("PST %s %s", bus1.getId(), bus2.getId()))
+            .setVoltageLevel1(bus1.getVoltageLevel().getId())
+            .setBus1(bus1.getId())
+            .setConnectableBus1(bus1.getId())
+            .setVoltageLevel2(pstVoltageLevel.getId())
+            .setBus2(pstBus.getId())
+            .setConnectableBus2(pstBus.getId())
+            .setRatedU1(NOMINAL_V)
+            .setRatedU2(NOMINAL_V)
+            .setR(0.1)
+            .setX(4.)
+            .add();
+        PhaseTapChangerAdder phaseTapChangerAdder = pst.newPhaseTapChanger()
+            .setLowTapPosition(-8)
+            .setTapPosition(random.nextInt(17) - 8)
+            .setRegulationMode(PhaseTapChanger.RegulationMode.ACTIVE_POWER_CONTROL)
+            .setRegulationValue(0.)
+            .setRegulationTerminal(pst.getTerminal1())
+            .setTargetDeadband(1.)
+            .setRegulating(false);
+        for (int tap = -8; tap <= 8; tap++) {
+            phaseTapChangerAdder.beginStep()
+                .setRho(1.)
+                .setAlpha(tap * 1.5)
+                .setR(0.)
+                .setX(0.)
+                .setG(0.)
+                .setB(0.)
+                .endStep();
+        }
+        phaseTapChangerAdder.add();
+        createLine(network, pstBus, bus2, random);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.FlowPartition;
+import com.powsybl.flow_decomposition.NetPositionComputer;
+import com.powsybl.flow_decomposition.NetworkUtil;
+import com.powsybl.flow_decomposition.benchmarks.SyntheticNetworkFactory;
+import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
+import com.powsybl.iidm.network.*;
+import com.powsybl.loadflow.LoadFlow;
+import com.powsybl.loadflow.LoadFlowParameters;
+import com.powsybl.sensitivity.SensitivityAnalysis;
+import org.ejml.data.DMatrixSparseCSC;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the matrix kernels of the flow partitioners, taken apart from the sensitivity analyses and load flows
+ * that feed them. Input matrices are computed once per trial on a synthetic network in DC.
+ * <p>
+ * The benchmark lives in the partitioners package to reach the package private kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlowDecompositionKernelBenchmark {
+    @Param({"1000", "10000", "50000"})
+    private int busCount;
+
+    @Param({"4"})
+    private int countryCount;
+
+    @Param({"20"})
+    private int pstCount;
+
+    @Param({"0.05"})
+    private double xnecDensity;
+
+    private List<Bus> buses;
+    private List<Branch<?>> branches;
+    private Set<Branch<?>> xnecs;
+    private CompactPexGraph compactPexGraph;
+    private DMatrixSparseCSC pexMatrix;
+    private Map<String, Integer> vertexIdMapping;
+    private SparseMatrixWithIndexesCSC ptdfMatrix;
+    private SparseMatrixWithIndexesCSC nodalInjectionsMatrix;
+    private SparseMatrixWithIndexesCSC nodalPtdfMatrix;
+    private SparseMatrixWithIndexesCSC pstFlowMatrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Network network = SyntheticNetworkFactory.create(busCount, countryCount, pstCount);
+        LoadFlowParameters loadFlowParameters = new LoadFlowParameters().setDc(true);
+        LoadFlow.run(network, loadFlowParameters);
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters();
+        SensitivityAnalysis.Runner sensitivityAnalysisRunner = SensitivityAnalysis.find();
+
+        buses = NetworkUtil.getBusesInMainSynchronousComponent(network);
+        branches = NetworkUtil.getAllValidBranches(network);
+        xnecs = new LinkedHashSet<>();
+        SyntheticNetworkFactory.getXnecIds(network, xnecDensity).forEach(id -> xnecs.add(network.getBranch(id)));
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, new ArrayList<>(xnecs));
+        SensitivityAnalyser sensitivityAnalyser = new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes);
+
+        // Matrix based kernels
+        Map<Country, Map<String, Double>> glsks = new AutoGlskProvider().getGlsk(network);
+        nodalInjectionsMatrix = new NodalInjectionComputer(networkMatrixIndexes).run(network, glsks, NetPositionComputer.computeNetPositions(network)).toCSCMatrix();
+        ptdfMatrix = sensitivityAnalyser.getPtdfMatrix(networkMatrixIndexes).toCSCMatrix();
+
+        // Full line decomposition kernels
+        compactPexGraph = CompactPexGraph.build(buses, branches);
+        PexMatrixCalculator pexMatrixCalculator = new PexMatrixCalculator(compactPexGraph);
+        vertexIdMapping = pexMatrixCalculator.getVertexIdMapper();
+        pexMatrix = pexMatrixCalculator.computePexMatrix();
+        nodalPtdfMatrix = sensitivityAnalyser.getNodalPtdfMatrix(NetworkUtil.chooseAnInjectionPerVertexAndKeepSameIndex(vertexIdMapping, network));
+        pstFlowMatrix = new PstFlowComputer().run(network, networkMatrixIndexes, sensitivityAnalyser.getPsdfMatrix(networkMatrixIndexes));
+    }
+
+    @Benchmark
+    public void ptdfTimesNodalInjections(Blackhole blackhole) {
+        // Matrices are package private, they are given to the black hole rather than returned to the generated code
+        blackhole.consume(SparseMatrixWithIndexesCSC.mult(ptdfMatrix, nodalInjectionsMatrix));
+    }
+
+    @Benchmark
+    public PexGraph pexGraph() {
+        return new PexGraph(buses, branches);
+    }
+
+    @Benchmark
+    public void compactPexGraph(Blackhole blackhole) {
+        blackhole.consume(CompactPexGraph.build(buses, branches));
+    }
+
+    @Benchmark
+    public DMatrixSparseCSC pexMatrix() {
+        return new PexMatrixCalculator(compactPexGraph).computePexMatrix();
+    }
+
+    @Benchmark
+    public Map<String, FlowPartition> fullLineDecomposition() {
+        return new FlowDecompositionCalculator(xnecs, pexMatrix, nodalPtdfMatrix, pstFlowMatrix, buses, vertexIdMapping).computeDecomposition();
+    }
+}
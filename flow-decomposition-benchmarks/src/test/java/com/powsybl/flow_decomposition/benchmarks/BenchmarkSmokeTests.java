@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.benchmarks;
+
+import com.powsybl.flow_decomposition.DecomposedFlow;
+import com.powsybl.flow_decomposition.FlowDecompositionComputer;
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.FlowDecompositionResults;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Network;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the benchmarks run on the smallest synthetic network, so that they do not break unnoticed between two
+ * benchmark campaigns.
+ */
+class BenchmarkSmokeTests {
+    private static final int BUS_COUNT = 1000;
+    private static final int KERNEL_BENCHMARK_COUNT = 5;
+
+    @ParameterizedTest
+    @EnumSource(FlowDecompositionParameters.FlowPartitionMode.class)
+    void testEveryFlowPartitionModeDecomposesTheSyntheticNetwork(FlowDecompositionParameters.FlowPartitionMode flowPartitionMode) {
+        Network network = SyntheticNetworkFactory.create(BUS_COUNT, 4, 20);
+        List<String> xnecIds = SyntheticNetworkFactory.getXnecIds(network, 0.05);
+        FlowDecompositionComputer computer = new FlowDecompositionComputer(new FlowDecompositionParameters()
+            .setFlowPartitioner(flowPartitionMode)
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE));
+        FlowDecompositionResults results = computer.run(XnecProviderByIds.builder()
+            .addNetworkElementsOnBasecase(new HashSet<>(xnecIds))
+            .build(), network);
+
+        assertEquals(new HashSet<>(xnecIds), results.getDecomposedFlowMap().keySet());
+        for (DecomposedFlow decomposedFlow : results.getDecomposedFlowMap().values()) {
+            assertTrue(Double.isFinite(decomposedFlow.getTotalFlow()), decomposedFlow.getId());
+        }
+    }
+
+    @Test
+    void testBenchmarksRunOnTheSmallestNetwork() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include("com\\.powsybl\\.flow_decomposition\\..*Benchmark")
+            .param("busCount", String.valueOf(BUS_COUNT))
+            .forks(0)
+            .warmupIterations(0)
+            .measurementIterations(1)
+            .measurementTime(TimeValue.milliseconds(1))
+            .shouldFailOnError(true)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+        assertEquals(FlowDecompositionParameters.FlowPartitionMode.values().length + KERNEL_BENCHMARK_COUNT, results.size());
+    }
+}
@@ -64,12 +64,23 @@ public abstract class AbstractSensitivityAnalyser {
     }
 
     protected void runSensitivityAnalysis(Network network, SensitivityFactorReader factorReader, SensitivityResultWriter valueWriter, List<SensitivityVariableSet> sensitivityVariableSets) {
+        runSensitivityAnalysis(network, factorReader, valueWriter, sensitivityVariableSets, CONTINGENCIES);
+    }
+
+    protected void runSensitivityAnalysis(Network network, SensitivityFactorReader factorReader, SensitivityResultWriter valueWriter, List<SensitivityVariableSet> sensitivityVariableSets, List<Contingency> contingencies) {
+        runSensitivityAnalysis(network, network.getVariantManager().getWorkingVariantId(), factorReader, valueWriter, sensitivityVariableSets, contingencies);
+    }
+
+    /**
+     * Runs the sensitivity analysis on the given variant, which does not need to be the working variant of the calling thread.
+     */
+    protected void runSensitivityAnalysis(Network network, String variantId, SensitivityFactorReader factorReader, SensitivityResultWriter valueWriter, List<SensitivityVariableSet> sensitivityVariableSets, List<Contingency> contingencies) {
         runner.run(network,
-            network.getVariantManager().getWorkingVariantId(),
+            variantId,
             factorReader,
             valueWriter,
             new SensitivityAnalysisRunParameters()
-                .setContingencies(CONTINGENCIES)
+                .setContingencies(contingencies)
                 .setVariableSets(sensitivityVariableSets)
                 .setParameters(sensitivityAnalysisParameters)
         );
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.Country;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams decomposed flows to a compact binary file, state by state. The file can be read back with
+ * {@link #read(Path, DecomposedFlowSink)}, which pushes the states to another sink in the order they were written.
+ * <p>
+ * The file starts with a magic number and a format version, followed by one block per state: the number of decomposed
+ * flows of the state, then for each of them its XNEC, branch and contingency ids, its countries, its reference flows
+ * and currents, its flow partition and its loop flows.
+ */
+public class BinaryDecomposedFlowSink implements DecomposedFlowSink {
+    private static final int MAGIC_NUMBER = 0x46444446;
+    private static final int FORMAT_VERSION = 1;
+    private final DataOutputStream outputStream;
+
+    public BinaryDecomposedFlowSink(Path path) {
+        try {
+            this.outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+            outputStream.writeInt(MAGIC_NUMBER);
+            outputStream.writeInt(FORMAT_VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(Map<String, DecomposedFlow> stateDecomposedFlows) {
+        try {
+            outputStream.writeInt(stateDecomposedFlows.size());
+            for (Map.Entry<String, DecomposedFlow> entry : stateDecomposedFlows.entrySet()) {
+                outputStream.writeUTF(entry.getKey());
+                write(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(DecomposedFlow decomposedFlow) throws IOException {
+        outputStream.writeUTF(decomposedFlow.getBranchId());
+        outputStream.writeUTF(decomposedFlow.getContingencyId());
+        outputStream.writeUTF(decomposedFlow.getCountry1().name());
+        outputStream.writeUTF(decomposedFlow.getCountry2().name());
+        outputStream.writeDouble(decomposedFlow.getAcTerminal1ReferenceFlow());
+        outputStream.writeDouble(decomposedFlow.getAcTerminal2ReferenceFlow());
+        outputStream.writeDouble(decomposedFlow.getDcReferenceFlow());
+        outputStream.writeDouble(decomposedFlow.getAcTerminal1Current());
+        outputStream.writeDouble(decomposedFlow.getAcTerminal2Current());
+        outputStream.writeDouble(decomposedFlow.getInternalFlow());
+        outputStream.writeDouble(decomposedFlow.getAllocatedFlow());
+        outputStream.writeDouble(decomposedFlow.getPstFlow());
+        outputStream.writeDouble(decomposedFlow.getXNodeFlow());
+        Map<Country, Double> loopFlows = decomposedFlow.getLoopFlows();
+        outputStream.writeInt(loopFlows.size());
+        for (Map.Entry<Country, Double> loopFlow : loopFlows.entrySet()) {
+            outputStream.writeUTF(loopFlow.getKey().name());
+            outputStream.writeDouble(loopFlow.getValue());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a file written by this sink and pushes its states one by one to the given sink.
+     */
+    public static void read(Path path, DecomposedFlowSink sink) {
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (inputStream.readInt() != MAGIC_NUMBER) {
+                throw new PowsyblException(String.format("File %s is not a decomposed flow binary file", path));
+            }
+            int version = inputStream.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new PowsyblException(String.format("Unsupported decomposed flow binary file version %d", version));
+            }
+            int stateSize;
+            while ((stateSize = readStateSize(inputStream)) >= 0) {
+                Map<String, DecomposedFlow> stateDecomposedFlows = new LinkedHashMap<>();
+                for (int i = 0; i < stateSize; i++) {
+                    String xnecId = inputStream.readUTF();
+                    stateDecomposedFlows.put(xnecId, readDecomposedFlow(inputStream));
+                }
+                sink.accept(stateDecomposedFlows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int readStateSize(DataInputStream inputStream) throws IOException {
+        try {
+            return inputStream.readInt();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    private static DecomposedFlow readDecomposedFlow(DataInputStream inputStream) throws IOException {
+        DecomposedFlowBuilder builder = new DecomposedFlowBuilder()
+            .withBranchId(inputStream.readUTF())
+            .withContingencyId(inputStream.readUTF())
+            .withCountry1(Country.valueOf(inputStream.readUTF()))
+            .withCountry2(Country.valueOf(inputStream.readUTF()))
+            .withAcTerminal1ReferenceFlow(inputStream.readDouble())
+            .withAcTerminal2ReferenceFlow(inputStream.readDouble())
+            .withDcReferenceFlow(inputStream.readDouble())
+            .withAcCurrentTerminal1(inputStream.readDouble())
+            .withAcCurrentTerminal2(inputStream.readDouble());
+        double internalFlow = inputStream.readDouble();
+        double allocatedFlow = inputStream.readDouble();
+        double pstFlow = inputStream.readDouble();
+        double xNodeFlow = inputStream.readDouble();
+        int loopFlowCount = inputStream.readInt();
+        Map<Country, Double> loopFlows = new EnumMap<>(Country.class);
+        for (int i = 0; i < loopFlowCount; i++) {
+            loopFlows.put(Country.valueOf(inputStream.readUTF()), inputStream.readDouble());
+        }
+        return builder.withFlowPartition(new FlowPartition(internalFlow, allocatedFlow, loopFlows, pstFlow, xNodeFlow)).build();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.iidm.network.Country;
+
+import java.util.*;
+
+/**
+ * Column oriented storage of decomposed flows, one row per XNEC and state. Values are kept in dense primitive columns,
+ * loop flows having one column per country ordinal allocated on first use, and branch and contingency ids are interned
+ * in id tables. Rows are read through a reusable {@link Row} cursor, so that iterations and aggregations do not allocate.
+ * <p>
+ * The store is a {@link DecomposedFlowSink}, to be given to
+ * {@link FlowDecompositionComputer#run(XnecProvider, GlskProvider, com.powsybl.iidm.network.Network, DecomposedFlowSink)}.
+ */
+public class ColumnarDecomposedFlowStore implements DecomposedFlowSink {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Country[] COUNTRIES = Country.values();
+
+    private final List<String> branchIds = new ArrayList<>();
+    private final Map<String, Integer> branchIndex = new HashMap<>();
+    private final List<String> contingencyIds = new ArrayList<>();
+    private final Map<String, Integer> contingencyIndex = new HashMap<>();
+
+    private int size = 0;
+    private int[] branches = new int[INITIAL_CAPACITY];
+    private int[] contingencies = new int[INITIAL_CAPACITY];
+    private short[] countries1 = new short[INITIAL_CAPACITY];
+    private short[] countries2 = new short[INITIAL_CAPACITY];
+    private double[] acTerminal1ReferenceFlows = new double[INITIAL_CAPACITY];
+    private double[] acTerminal2ReferenceFlows = new double[INITIAL_CAPACITY];
+    private double[] dcReferenceFlows = new double[INITIAL_CAPACITY];
+    private double[] acTerminal1Currents = new double[INITIAL_CAPACITY];
+    private double[] acTerminal2Currents = new double[INITIAL_CAPACITY];
+    private double[] allocatedFlows = new double[INITIAL_CAPACITY];
+    private double[] xNodeFlows = new double[INITIAL_CAPACITY];
+    private double[] pstFlows = new double[INITIAL_CAPACITY];
+    private double[] internalFlows = new double[INITIAL_CAPACITY];
+    private final double[][] loopFlows = new double[COUNTRIES.length][];
+
+    @Override
+    public synchronized void accept(Map<String, DecomposedFlow> stateDecomposedFlows) {
+        stateDecomposedFlows.values().forEach(this::add);
+    }
+
+    private void add(DecomposedFlow decomposedFlow) {
+        ensureCapacity(size + 1);
+        int row = size;
+        branches[row] = intern(decomposedFlow.getBranchId(), branchIds, branchIndex);
+        contingencies[row] = intern(decomposedFlow.getContingencyId(), contingencyIds, contingencyIndex);
+        countries1[row] = (short) decomposedFlow.getCountry1().ordinal();
+        countries2[row] = (short) decomposedFlow.getCountry2().ordinal();
+        acTerminal1ReferenceFlows[row] = decomposedFlow.getAcTerminal1ReferenceFlow();
+        acTerminal2ReferenceFlows[row] = decomposedFlow.getAcTerminal2ReferenceFlow();
+        dcReferenceFlows[row] = decomposedFlow.getDcReferenceFlow();
+        acTerminal1Currents[row] = decomposedFlow.getAcTerminal1Current();
+        acTerminal2Currents[row] = decomposedFlow.getAcTerminal2Current();
+        allocatedFlows[row] = decomposedFlow.getAllocatedFlow();
+        xNodeFlows[row] = decomposedFlow.getXNodeFlow();
+        pstFlows[row] = decomposedFlow.getPstFlow();
+        internalFlows[row] = decomposedFlow.getInternalFlow();
+        decomposedFlow.getFlowPartition().loopFlowPerCountry().forEach((country, loopFlow) -> {
+            double[] column = loopFlows[country.ordinal()];
+            if (column == null) {
+                column = new double[branches.length];
+                loopFlows[country.ordinal()] = column;
+            }
+            column[row] = loopFlow;
+        });
+        size++;
+    }
+
+    private static int intern(String id, List<String> ids, Map<String, Integer> index) {
+        return index.computeIfAbsent(id, key -> {
+            ids.add(key);
+            return ids.size() - 1;
+        });
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= branches.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, 2 * branches.length);
+        branches = Arrays.copyOf(branches, newCapacity);
+        contingencies = Arrays.copyOf(contingencies, newCapacity);
+        countries1 = Arrays.copyOf(countries1, newCapacity);
+        countries2 = Arrays.copyOf(countries2, newCapacity);
+        acTerminal1ReferenceFlows = Arrays.copyOf(acTerminal1ReferenceFlows, newCapacity);
+        acTerminal2ReferenceFlows = Arrays.copyOf(acTerminal2ReferenceFlows, newCapacity);
+        dcReferenceFlows = Arrays.copyOf(dcReferenceFlows, newCapacity);
+        acTerminal1Currents = Arrays.copyOf(acTerminal1Currents, newCapacity);
+        acTerminal2Currents = Arrays.copyOf(acTerminal2Currents, newCapacity);
+        allocatedFlows = Arrays.copyOf(allocatedFlows, newCapacity);
+        xNodeFlows = Arrays.copyOf(xNodeFlows, newCapacity);
+        pstFlows = Arrays.copyOf(pstFlows, newCapacity);
+        internalFlows = Arrays.copyOf(internalFlows, newCapacity);
+        for (int i = 0; i < loopFlows.length; i++) {
+            if (loopFlows[i] != null) {
+                loopFlows[i] = Arrays.copyOf(loopFlows[i], newCapacity);
+            }
+        }
+    }
+
+    /**
+     * @return number of rows, that is of XNEC and state pairs.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized List<String> getBranchIds() {
+        return Collections.unmodifiableList(branchIds);
+    }
+
+    public synchronized List<String> getContingencyIds() {
+        return Collections.unmodifiableList(contingencyIds);
+    }
+
+    /**
+     * @return a cursor positioned on the first row, to be moved with {@link Row#moveTo(int)}.
+     */
+    public Row row() {
+        return new Row();
+    }
+
+    /**
+     * @return sum of the loop flows from the given country over all rows.
+     */
+    public synchronized double getLoopFlowSum(Country country) {
+        double[] column = loopFlows[country.ordinal()];
+        double sum = 0.;
+        if (column != null) {
+            for (int row = 0; row < size; row++) {
+                sum += column[row];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Fills the given array with the rows of largest absolute loop flow from the given country, by decreasing absolute
+     * value. At most {@code rows.length} rows are returned, the array being the only storage used.
+     *
+     * @return number of rows written in the array.
+     */
+    public synchronized int getTopLoopFlowRows(Country country, int[] rows) {
+        double[] column = loopFlows[country.ordinal()];
+        if (column == null || rows.length == 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            double value = Math.abs(column[row]);
+            if (count < rows.length) {
+                count++;
+            } else if (value <= Math.abs(column[rows[count - 1]])) {
+                continue;
+            }
+            int position = count - 1;
+            while (position > 0 && Math.abs(column[rows[position - 1]]) < value) {
+                rows[position] = rows[position - 1];
+                position--;
+            }
+            rows[position] = row;
+        }
+        return count;
+    }
+
+    /**
+     * @return decomposed flows of all rows, keyed by XNEC id, as they would have been returned by the results.
+     */
+    public synchronized Map<String, DecomposedFlow> toDecomposedFlowMap() {
+        Map<String, DecomposedFlow> decomposedFlowMap = new LinkedHashMap<>();
+        Row row = row();
+        for (int i = 0; i < size; i++) {
+            row.moveTo(i);
+            decomposedFlowMap.put(row.getId(), row.toDecomposedFlow());
+        }
+        return decomposedFlowMap;
+    }
+
+    /**
+     * Lightweight view over one row of the store, with the getters of {@link DecomposedFlow}.
+     */
+    public final class Row {
+        private int index = 0;
+
+        private Row() {
+        }
+
+        public Row moveTo(int row) {
+            Objects.checkIndex(row, size());
+            this.index = row;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getBranchId() {
+            return branchIds.get(branches[index]);
+        }
+
+        public String getContingencyId() {
+            return contingencyIds.get(contingencies[index]);
+        }
+
+        public String getId() {
+            return DecomposedFlow.getXnecId(getContingencyId(), getBranchId());
+        }
+
+        public Country getCountry1() {
+            return COUNTRIES[countries1[index]];
+        }
+
+        public Country getCountry2() {
+            return COUNTRIES[countries2[index]];
+        }
+
+        public double getAcTerminal1ReferenceFlow() {
+            return acTerminal1ReferenceFlows[index];
+        }
+
+        public double getAcTerminal2ReferenceFlow() {
+            return acTerminal2ReferenceFlows[index];
+        }
+
+        public double getDcReferenceFlow() {
+            return dcReferenceFlows[index];
+        }
+
+        public double getAcTerminal1Current() {
+            return acTerminal1Currents[index];
+        }
+
+        public double getAcTerminal2Current() {
+            return acTerminal2Currents[index];
+        }
+
+        public double getAllocatedFlow() {
+            return allocatedFlows[index];
+        }
+
+        public double getXNodeFlow() {
+            return xNodeFlows[index];
+        }
+
+        public double getPstFlow() {
+            return pstFlows[index];
+        }
+
+        public double getInternalFlow() {
+            return internalFlows[index];
+        }
+
+        public double getLoopFlow(Country country) {
+            double[] column = loopFlows[country.ordinal()];
+            return column == null ? DecomposedFlow.NO_FLOW : column[index];
+        }
+
+        public double getTotalFlow() {
+            double totalFlow = getAllocatedFlow() + getXNodeFlow() + getPstFlow() + getInternalFlow();
+            for (double[] column : loopFlows) {
+                if (column != null) {
+                    totalFlow += column[index];
+                }
+            }
+            return totalFlow;
+        }
+
+        /**
+         * @return a standalone decomposed flow holding the values of this row. Loop flows of countries having a column in
+         * the store are all present, zero values included.
+         */
+        public DecomposedFlow toDecomposedFlow() {
+            Map<Country, Double> loopFlowPerCountry = new EnumMap<>(Country.class);
+            for (int country = 0; country < loopFlows.length; country++) {
+                if (loopFlows[country] != null) {
+                    loopFlowPerCountry.put(COUNTRIES[country], loopFlows[country][index]);
+                }
+            }
+            return new DecomposedFlowBuilder()
+                .withBranchId(getBranchId())
+                .withContingencyId(getContingencyId())
+                .withCountry1(getCountry1())
+                .withCountry2(getCountry2())
+                .withAcTerminal1ReferenceFlow(getAcTerminal1ReferenceFlow())
+                .withAcTerminal2ReferenceFlow(getAcTerminal2ReferenceFlow())
+                .withDcReferenceFlow(getDcReferenceFlow())
+                .withAcCurrentTerminal1(getAcTerminal1Current())
+                .withAcCurrentTerminal2(getAcTerminal2Current())
+                .withFlowPartition(new FlowPartition(getInternalFlow(), getAllocatedFlow(), loopFlowPerCountry, getPstFlow(), getXNodeFlow()))
+                .build();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.iidm.network.Country;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams decomposed flows to a CSV file with the columns of {@link CsvExporter}. As states are not known in advance,
+ * loop flow columns are given by the zones of the network instead of the loop flows of the results.
+ */
+public class CsvDecomposedFlowSink implements DecomposedFlowSink {
+    private static final CSVFormat FORMAT = CSVFormat.RFC4180;
+    private static final String EMPTY_CELL_VALUE = "";
+    private final List<Country> loopFlowCountries;
+    private final CSVPrinter printer;
+
+    /**
+     * @param path  CSV file to create.
+     * @param zones zones of the network, giving the loop flow columns.
+     */
+    public CsvDecomposedFlowSink(Path path, Set<Country> zones) {
+        this.loopFlowCountries = zones.stream().sorted().toList();
+        try {
+            this.printer = new CSVPrinter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), FORMAT);
+            printHeaderRow();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void printHeaderRow() throws IOException {
+        printer.print(EMPTY_CELL_VALUE);
+        printer.print(DecomposedFlow.ALLOCATED_COLUMN_NAME);
+        printer.print(DecomposedFlow.INTERNAL_COLUMN_NAME);
+        printer.print(DecomposedFlow.PST_COLUMN_NAME);
+        for (Country country : loopFlowCountries) {
+            printer.print(NetworkUtil.getLoopFlowIdFromCountry(country));
+        }
+        printer.print(DecomposedFlow.AC_REFERENCE_FLOW_1_COLUMN_NAME);
+        printer.print(DecomposedFlow.AC_REFERENCE_FLOW_2_COLUMN_NAME);
+        printer.print(DecomposedFlow.DC_REFERENCE_FLOW_COLUMN_NAME);
+        printer.println();
+    }
+
+    @Override
+    public void accept(Map<String, DecomposedFlow> stateDecomposedFlows) {
+        try {
+            for (Map.Entry<String, DecomposedFlow> entry : stateDecomposedFlows.entrySet()) {
+                printContentRow(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void printContentRow(String xnecId, DecomposedFlow decomposedFlow) throws IOException {
+        printer.print(xnecId);
+        printer.print(decomposedFlow.getAllocatedFlow());
+        printer.print(decomposedFlow.getInternalFlow());
+        printer.print(decomposedFlow.getPstFlow());
+        for (Country country : loopFlowCountries) {
+            printer.print(decomposedFlow.getLoopFlow(country));
+        }
+        printer.print(decomposedFlow.getAcTerminal1ReferenceFlow());
+        printer.print(decomposedFlow.getAcTerminal2ReferenceFlow());
+        printer.print(decomposedFlow.getDcReferenceFlow());
+        printer.println();
+    }
+
+    @Override
+    public void close() {
+        try {
+            printer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import java.util.Map;
+
+/**
+ * Receives the rescaled decomposed flows of a flow decomposition run, state by state, as soon as each state is decomposed.
+ * States are pushed one at a time and in a deterministic order, the base case first, even when contingency states are
+ * computed concurrently. The sink is owned by the caller, which closes it once the run is over.
+ *
+ * @see FlowDecompositionComputer#run(XnecProvider, GlskProvider, com.powsybl.iidm.network.Network, DecomposedFlowSink)
+ * @see CsvDecomposedFlowSink
+ * @see BinaryDecomposedFlowSink
+ */
+@FunctionalInterface
+public interface DecomposedFlowSink extends AutoCloseable {
+
+    /**
+     * @param stateDecomposedFlows decomposed flows of one state, keyed by XNEC id.
+     */
+    void accept(Map<String, DecomposedFlow> stateDecomposedFlows);
+
+    @Override
+    default void close() {
+        // Nothing to release by default
+    }
+}
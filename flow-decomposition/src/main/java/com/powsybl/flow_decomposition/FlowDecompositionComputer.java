@@ -8,10 +8,15 @@ package com.powsybl.flow_decomposition;
 
 import com.powsybl.commons.PowsyblException;
 import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionMetrics;
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionPhase;
+import com.powsybl.flow_decomposition.partitioners.ContingencySensitivities;
+import com.powsybl.flow_decomposition.partitioners.ContingencySensitivityAnalyser;
 import com.powsybl.flow_decomposition.partitioners.DirectSensitivityPartitioner;
 import com.powsybl.flow_decomposition.partitioners.FastFullLineDecompositionPartitioner;
 import com.powsybl.flow_decomposition.partitioners.FullLineDecompositionPartitioner;
 import com.powsybl.flow_decomposition.partitioners.MatrixBasedPartitioner;
+import com.powsybl.flow_decomposition.partitioners.SensitivityMatrixCache;
 import com.powsybl.flow_decomposition.rescaler.*;
 import com.powsybl.flow_decomposition.utils.LogUtils;
 import com.powsybl.iidm.network.Branch;
@@ -24,8 +29,9 @@ import com.powsybl.sensitivity.SensitivityAnalysis;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-import java.util.Set;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey at rte-france.com>}
@@ -38,6 +44,10 @@ public class FlowDecompositionComputer {
     static final String DEFAULT_LOAD_FLOW_PROVIDER = "OpenLoadFlow";
     static final String DEFAULT_SENSITIVITY_ANALYSIS_PROVIDER = "OpenLoadFlow";
     private static final Logger LOGGER = LoggerFactory.getLogger(FlowDecompositionComputer.class);
+    /**
+     * Contingency states submitted per worker ahead of the oldest state whose results are not saved yet.
+     */
+    private static final int IN_FLIGHT_STATES_PER_WORKER = 2;
     private final LoadFlowParameters loadFlowParameters;
     private final FlowDecompositionParameters parameters;
     private final LoadFlowRunningService loadFlowRunningService;
@@ -45,6 +55,7 @@ public class FlowDecompositionComputer {
     private final LossesCompensator lossesCompensator;
     private final DecomposedFlowRescaler decomposedFlowRescaler;
     private final FlowDecompositionObserverList observers;
+    private final SensitivityMatrixCache sensitivityMatrixCache;
 
     public FlowDecompositionComputer() {
         this(new FlowDecompositionParameters());
@@ -65,6 +76,7 @@ public class FlowDecompositionComputer {
         this.lossesCompensator = parameters.isLossesCompensationEnabled() ? new LossesCompensator(parameters) : null;
         this.decomposedFlowRescaler = getDecomposedFlowRescaler();
         this.observers = new FlowDecompositionObserverList();
+        this.sensitivityMatrixCache = new SensitivityMatrixCache(parameters.getSensitivityCacheSize());
     }
 
     public FlowDecompositionComputer(FlowDecompositionParameters flowDecompositionParameters,
@@ -77,58 +89,223 @@ public class FlowDecompositionComputer {
         this(flowDecompositionParameters, LoadFlowParameters.load());
     }
 
+    /**
+     * Copy sharing everything with the given computer except the losses compensator, which keeps a per network state,
+     * and the observer list, so that the copy records its own metrics.
+     */
+    private FlowDecompositionComputer(FlowDecompositionComputer other, FlowDecompositionObserverList observers) {
+        this.parameters = other.parameters;
+        this.loadFlowParameters = other.loadFlowParameters;
+        this.loadFlowRunningService = other.loadFlowRunningService;
+        this.sensitivityAnalysisRunner = other.sensitivityAnalysisRunner;
+        this.lossesCompensator = parameters.isLossesCompensationEnabled() ? new LossesCompensator(parameters) : null;
+        this.decomposedFlowRescaler = other.decomposedFlowRescaler;
+        this.observers = observers;
+        this.sensitivityMatrixCache = other.sensitivityMatrixCache;
+    }
+
     public FlowDecompositionResults run(XnecProvider xnecProvider, Network network) {
         return run(xnecProvider, new AutoGlskProvider(), network);
     }
 
     public FlowDecompositionResults run(XnecProvider xnecProvider, GlskProvider glskProvider, Network network) {
+        return run(xnecProvider, glskProvider, network, null);
+    }
+
+    /**
+     * Runs the flow decomposition and pushes the decomposed flows of each state to the given sink instead of keeping them
+     * in the returned results, so that memory stays bounded by one state whatever the number of contingencies.
+     *
+     * @param decomposedFlowSink sink receiving the decomposed flows state by state. When null, they are kept in the results.
+     */
+    public FlowDecompositionResults run(XnecProvider xnecProvider, GlskProvider glskProvider, Network network, DecomposedFlowSink decomposedFlowSink) {
+        return run(xnecProvider, glskProvider, network, decomposedFlowSink, new FlowDecompositionRunContext());
+    }
+
+    /**
+     * Runs the flow decomposition on the given executor.
+     * Completing the returned future before the end of the computation, by cancelling it or with a timeout such as
+     * {@link CompletableFuture#orTimeout}, stops the computation at the next state or phase boundary. Contingency variants
+     * are then removed from the network. Progress is reported to the observers after each state.
+     */
+    public CompletableFuture<FlowDecompositionResults> runAsync(XnecProvider xnecProvider, GlskProvider glskProvider, Network network, Executor executor) {
+        CompletableFuture<FlowDecompositionResults> future = new CompletableFuture<>();
+        FlowDecompositionRunContext context = new FlowDecompositionRunContext(future::isDone);
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(run(xnecProvider, glskProvider, network, null, context));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                    if (t instanceof Error error) {
+                        throw error;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private FlowDecompositionResults run(XnecProvider xnecProvider, GlskProvider glskProvider, Network network, DecomposedFlowSink decomposedFlowSink,
+                                         FlowDecompositionRunContext context) {
         LOGGER.info("Starting flow decomposition for network {}", network.getId());
         observers.runStart();
         try {
+            context.checkNotCancelled();
             NetworkStateManager networkStateManager = new NetworkStateManager(network, xnecProvider);
+            try {
+                LoadFlowRunningService.Result loadFlowServiceAcResult = runAcLoadFlow(network);
+                context.checkNotCancelled();
 
-            LoadFlowRunningService.Result loadFlowServiceAcResult = runAcLoadFlow(network);
+                Map<Country, Map<String, Double>> glsks = glskProvider.getGlsk(network);
+                observers.computedGlsk(glsks);
 
-            Map<Country, Map<String, Double>> glsks = glskProvider.getGlsk(network);
-            observers.computedGlsk(glsks);
+                Map<Country, Double> netPositions = getZonesNetPosition(network);
+                observers.computedNetPositions(netPositions);
 
-            Map<Country, Double> netPositions = getZonesNetPosition(network);
-            observers.computedNetPositions(netPositions);
+                Set<Branch<?>> baseCaseXnecs = xnecProvider.getNetworkElements(network);
+                Map<String, Set<Branch<?>>> xnecsPerContingency = xnecProvider.getNetworkElementsPerContingency(network);
+                context.setStateCount(getStateCount(baseCaseXnecs, xnecsPerContingency));
+                ContingencySensitivities contingencySensitivities = computeContingencySensitivities(network, xnecProvider, baseCaseXnecs, xnecsPerContingency);
+                context.checkNotCancelled();
 
-            FlowDecompositionResults flowDecompositionResults = new FlowDecompositionResults(network);
-            decomposeFlowForNState(network,
-                flowDecompositionResults,
-                xnecProvider.getNetworkElements(network),
-                netPositions,
-                glsks,
-                loadFlowServiceAcResult);
-            xnecProvider.getNetworkElementsPerContingency(network)
-                .forEach((contingencyId, xnecs) -> decomposeFlowForContingencyState(network,
+                FlowDecompositionResults flowDecompositionResults = new FlowDecompositionResults(network, decomposedFlowSink);
+                decomposeFlowForNState(network,
                     flowDecompositionResults,
-                    networkStateManager,
-                    contingencyId,
-                    xnecs,
+                    baseCaseXnecs,
                     netPositions,
-                    glsks));
-            networkStateManager.deleteAllContingencyVariants();
-            return flowDecompositionResults;
+                    glsks,
+                    loadFlowServiceAcResult,
+                    contingencySensitivities,
+                    context);
+                if (isContingencyParallelismEnabled(xnecsPerContingency)) {
+                    decomposeFlowForContingencyStatesInParallel(network,
+                        flowDecompositionResults,
+                        networkStateManager,
+                        xnecsPerContingency,
+                        netPositions,
+                        glsks,
+                        contingencySensitivities,
+                        context);
+                } else {
+                    xnecsPerContingency.forEach((contingencyId, xnecs) -> decomposeFlowForContingencyState(network,
+                        flowDecompositionResults,
+                        networkStateManager,
+                        contingencyId,
+                        xnecs,
+                        netPositions,
+                        glsks,
+                        contingencySensitivities,
+                        context));
+                }
+                return flowDecompositionResults;
+            } finally {
+                networkStateManager.deleteAllContingencyVariants();
+            }
         } finally {
             LOGGER.info("End flow decomposition for network {}", network.getId());
             observers.runDone();
         }
     }
 
+    public Map<ZonedDateTime, FlowDecompositionResults> runBatch(XnecProvider xnecProvider, List<Network> networks) {
+        return runBatch(xnecProvider, new AutoGlskProvider(), networks);
+    }
+
+    /**
+     * Runs the flow decomposition on several snapshots, for example the hourly networks of a business day.
+     * XNECs are resolved once per topology and replayed on all snapshots sharing it when the xnec provider depends on
+     * topology only, and once per snapshot otherwise. Snapshots are decomposed
+     * concurrently according to the batch parallelism parameter, unless observers are registered: snapshots are then
+     * decomposed one after the other, so that the events of a run are not interleaved with the ones of another run.
+     * Each snapshot records its own metrics, added to the metrics of this computer once the snapshot is done.
+     *
+     * @return flow decomposition results per snapshot, sorted by network case date.
+     */
+    public Map<ZonedDateTime, FlowDecompositionResults> runBatch(XnecProvider xnecProvider, GlskProvider glskProvider, List<Network> networks) {
+        Map<ZonedDateTime, Network> networkPerTimestamp = new TreeMap<>();
+        networks.forEach(network -> {
+            if (networkPerTimestamp.put(network.getCaseDate(), network) != null) {
+                throw new PowsyblException(String.format("Several networks of the batch have the same case date %s", network.getCaseDate()));
+            }
+        });
+        Map<Network, XnecProvider> xnecProviderPerNetwork = getResolvedXnecProviders(xnecProvider, networkPerTimestamp.values());
+        int parallelism = Math.max(1, Math.min(parameters.getBatchParallelism(), networkPerTimestamp.size()));
+        if (parallelism > 1 && !observers.getObservers().isEmpty()) {
+            LOGGER.info("Observers are registered, snapshots are decomposed one after the other");
+            parallelism = 1;
+        }
+        LOGGER.info("Starting flow decomposition for {} snapshots using {} workers", networkPerTimestamp.size(), parallelism);
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+        try {
+            Map<ZonedDateTime, Future<FlowDecompositionResults>> futures = new LinkedHashMap<>();
+            networkPerTimestamp.forEach((timestamp, network) -> futures.put(timestamp, executorService.submit(() ->
+                runSnapshot(xnecProviderPerNetwork.get(network), glskProvider, network))));
+            Map<ZonedDateTime, FlowDecompositionResults> resultsPerTimestamp = new TreeMap<>();
+            for (Map.Entry<ZonedDateTime, Future<FlowDecompositionResults>> future : futures.entrySet()) {
+                resultsPerTimestamp.put(future.getKey(), getFutureResult(future.getValue()));
+            }
+            return resultsPerTimestamp;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private FlowDecompositionResults runSnapshot(XnecProvider xnecProvider, GlskProvider glskProvider, Network network) {
+        FlowDecompositionObserverList snapshotObservers = new FlowDecompositionObserverList();
+        snapshotObservers.addObserversFrom(observers);
+        try {
+            return new FlowDecompositionComputer(this, snapshotObservers).run(xnecProvider, glskProvider, network);
+        } finally {
+            observers.getMetrics().add(snapshotObservers.getMetrics());
+        }
+    }
+
+    /**
+     * Xnec providers are evaluated sequentially, as they are not required to be thread safe. They are evaluated once per
+     * topology if they depend on topology only, and once per network otherwise, for instance when XNECs are selected
+     * from PTDFs computed with injection based GLSKs.
+     */
+    private static Map<Network, XnecProvider> getResolvedXnecProviders(XnecProvider xnecProvider, Collection<Network> networks) {
+        Map<String, ResolvedXnecProvider> xnecProviderPerTopology = new HashMap<>();
+        Map<Network, XnecProvider> xnecProviderPerNetwork = new IdentityHashMap<>();
+        if (!xnecProvider.dependsOnTopologyOnly()) {
+            networks.forEach(network -> xnecProviderPerNetwork.put(network, new ResolvedXnecProvider(xnecProvider, network)));
+            return xnecProviderPerNetwork;
+        }
+        networks.forEach(network -> xnecProviderPerNetwork.put(network, xnecProviderPerTopology.computeIfAbsent(NetworkFingerprint.topology(network),
+            fingerprint -> new ResolvedXnecProvider(xnecProvider, network))));
+        LOGGER.debug("Found {} distinct topologies in {} snapshots", xnecProviderPerTopology.size(), networks.size());
+        return xnecProviderPerNetwork;
+    }
+
+    private static int getStateCount(Set<Branch<?>> baseCaseXnecs, Map<String, Set<Branch<?>>> xnecsPerContingency) {
+        int stateCount = baseCaseXnecs.isEmpty() ? 0 : 1;
+        for (Set<Branch<?>> xnecs : xnecsPerContingency.values()) {
+            if (!xnecs.isEmpty()) {
+                stateCount++;
+            }
+        }
+        return stateCount;
+    }
+
     private void decomposeFlowForNState(Network network,
                                         FlowDecompositionResults flowDecompositionResults,
                                         Set<Branch<?>> xnecs,
                                         Map<Country, Double> netPositions,
                                         Map<Country, Map<String, Double>> glsks,
-                                        LoadFlowRunningService.Result loadFlowServiceAcResult) {
+                                        LoadFlowRunningService.Result loadFlowServiceAcResult,
+                                        ContingencySensitivities contingencySensitivities,
+                                        FlowDecompositionRunContext context) {
         if (!xnecs.isEmpty()) {
             LOGGER.info("Computing flow decomposition results for N state");
             observers.computingBaseCase();
             FlowDecompositionResults.PerStateBuilder flowDecompositionResultsBuilder = flowDecompositionResults.getBuilder(xnecs);
-            decomposeFlowForState(network, xnecs, flowDecompositionResultsBuilder, netPositions, glsks, loadFlowServiceAcResult);
+            ContingencySensitivities.StateSensitivities stateSensitivities = takeStateSensitivities(contingencySensitivities, ContingencySensitivities.BASE_CASE_ID);
+            saveStateDecomposedFlows(flowDecompositionResults, observers.getMetrics().recordState(ContingencySensitivities.BASE_CASE_ID, () ->
+                decomposeFlowForState(network, xnecs, flowDecompositionResultsBuilder, netPositions, glsks, loadFlowServiceAcResult, stateSensitivities, context)), context);
         }
     }
 
@@ -138,53 +315,220 @@ public class FlowDecompositionComputer {
                                                   String contingencyId,
                                                   Set<Branch<?>> xnecList,
                                                   Map<Country, Double> netPositions,
-                                                  Map<Country, Map<String, Double>> glsks) {
+                                                  Map<Country, Map<String, Double>> glsks,
+                                                  ContingencySensitivities contingencySensitivities,
+                                                  FlowDecompositionRunContext context) {
         if (!xnecList.isEmpty()) {
-            LOGGER.info("Computing flow decomposition results for N-1 state '{}'.", contingencyId);
-            observers.computingContingency(contingencyId);
+            saveStateDecomposedFlows(flowDecompositionResults, computeContingencyStateDecomposedFlows(network,
+                flowDecompositionResults,
+                networkStateManager,
+                contingencyId,
+                xnecList,
+                netPositions,
+                glsks,
+                contingencySensitivities,
+                context), context);
+        }
+    }
+
+    private void saveStateDecomposedFlows(FlowDecompositionResults flowDecompositionResults, Map<String, DecomposedFlow> decomposedFlows, FlowDecompositionRunContext context) {
+        flowDecompositionResults.saveDecomposedFlows(decomposedFlows);
+        observers.computedState(context.stateComputed(), context.getStateCount());
+    }
+
+    /**
+     * Contingency states are decomposed one after the other when observers are registered, so that observers receive
+     * the events of each state in sequence, as in the sequential decomposition.
+     */
+    private boolean isContingencyParallelismEnabled(Map<String, Set<Branch<?>>> xnecsPerContingency) {
+        if (parameters.getContingencyParallelism() <= 1 || xnecsPerContingency.size() <= 1) {
+            return false;
+        }
+        if (!observers.getObservers().isEmpty()) {
+            LOGGER.info("Observers are registered, contingency states are decomposed one after the other");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decomposes the contingency states on a pool of workers. Each worker sets the variant of its contingency as
+     * its own working variant, which requires multi-thread variant access on the network.
+     * Results are saved in the iteration order of the xnec provider, so that they are identical to the sequential ones.
+     * At most {@link #IN_FLIGHT_STATES_PER_WORKER} states per worker are submitted ahead of the oldest state not saved
+     * yet, so that the decomposed flows waiting to be saved stay bounded whatever the number of contingencies.
+     */
+    private void decomposeFlowForContingencyStatesInParallel(Network network,
+                                                             FlowDecompositionResults flowDecompositionResults,
+                                                             NetworkStateManager networkStateManager,
+                                                             Map<String, Set<Branch<?>>> xnecsPerContingency,
+                                                             Map<Country, Double> netPositions,
+                                                             Map<Country, Map<String, Double>> glsks,
+                                                             ContingencySensitivities contingencySensitivities,
+                                                             FlowDecompositionRunContext context) {
+        if (parameters.isLossesCompensationEnabled()) {
+            // Losses loads are new network elements, they cannot be created while variants are accessed concurrently
+            lossesCompensator.addLossesLoadsIfNeeded(network);
+        }
+        int parallelism = Math.min(parameters.getContingencyParallelism(), xnecsPerContingency.size());
+        LOGGER.info("Computing flow decomposition results for {} N-1 states using {} workers", xnecsPerContingency.size(), parallelism);
+        boolean variantMultiThreadAccessAllowed = network.getVariantManager().isVariantMultiThreadAccessAllowed();
+        network.getVariantManager().allowVariantMultiThreadAccess(true);
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
+        try {
+            int maxInFlightStates = IN_FLIGHT_STATES_PER_WORKER * parallelism;
+            Deque<Future<Map<String, DecomposedFlow>>> futures = new ArrayDeque<>(maxInFlightStates);
+            for (Map.Entry<String, Set<Branch<?>>> xnecsOfContingency : xnecsPerContingency.entrySet()) {
+                String contingencyId = xnecsOfContingency.getKey();
+                Set<Branch<?>> xnecList = xnecsOfContingency.getValue();
+                if (xnecList.isEmpty()) {
+                    continue;
+                }
+                if (futures.size() >= maxInFlightStates) {
+                    saveStateDecomposedFlows(flowDecompositionResults, getFutureResult(futures.poll()), context);
+                }
+                futures.add(executorService.submit(() -> computeContingencyStateDecomposedFlows(network,
+                    flowDecompositionResults,
+                    networkStateManager,
+                    contingencyId,
+                    xnecList,
+                    netPositions,
+                    glsks,
+                    contingencySensitivities,
+                    context)));
+            }
+            while (!futures.isEmpty()) {
+                saveStateDecomposedFlows(flowDecompositionResults, getFutureResult(futures.poll()), context);
+            }
+        } finally {
+            // Workers still running after a failure or a cancellation must be done with their variant before it is removed
+            shutdownAndAwaitTermination(executorService);
+            network.getVariantManager().allowVariantMultiThreadAccess(variantMultiThreadAccessAllowed);
+        }
+    }
+
+    private static void shutdownAndAwaitTermination(ExecutorService executorService) {
+        executorService.shutdownNow();
+        try {
+            while (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for flow decomposition workers to terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> T getFutureResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PowsyblException("Flow decomposition has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new PowsyblException("Flow decomposition failed", e.getCause());
+        }
+    }
+
+    private Map<String, DecomposedFlow> computeContingencyStateDecomposedFlows(Network network,
+                                                                               FlowDecompositionResults flowDecompositionResults,
+                                                                               NetworkStateManager networkStateManager,
+                                                                               String contingencyId,
+                                                                               Set<Branch<?>> xnecList,
+                                                                               Map<Country, Double> netPositions,
+                                                                               Map<Country, Map<String, Double>> glsks,
+                                                                               ContingencySensitivities contingencySensitivities,
+                                                                               FlowDecompositionRunContext context) {
+        context.checkNotCancelled();
+        LOGGER.info("Computing flow decomposition results for N-1 state '{}'.", contingencyId);
+        observers.computingContingency(contingencyId);
+        return observers.getMetrics().recordState(contingencyId, () -> {
             networkStateManager.setNetworkVariant(contingencyId);
             LoadFlowRunningService.Result loadFlowServiceAcResult = runAcLoadFlow(network);
             FlowDecompositionResults.PerStateBuilder flowDecompositionResultsBuilder = flowDecompositionResults.getBuilder(contingencyId, xnecList);
-            decomposeFlowForState(network, xnecList, flowDecompositionResultsBuilder, netPositions, glsks, loadFlowServiceAcResult);
+            ContingencySensitivities.StateSensitivities stateSensitivities = takeStateSensitivities(contingencySensitivities, contingencyId);
+            return decomposeFlowForState(network, xnecList, flowDecompositionResultsBuilder, netPositions, glsks, loadFlowServiceAcResult, stateSensitivities, context);
+        });
+    }
+
+    /**
+     * Computes the PTDF and PSDF of all states with a single sensitivity analysis over the contingencies.
+     * Network variants are still used for the AC and DC load flows of each state.
+     */
+    private ContingencySensitivities computeContingencySensitivities(Network network,
+                                                                     XnecProvider xnecProvider,
+                                                                     Set<Branch<?>> baseCaseXnecs,
+                                                                     Map<String, Set<Branch<?>>> xnecsPerContingency) {
+        if (!parameters.isContingencySensitivityAnalysisEnabled()) {
+            return null;
         }
+        if (parameters.getFlowPartitioner() != FlowDecompositionParameters.FlowPartitionMode.MATRIX_BASED) {
+            LOGGER.warn("Contingency sensitivity analysis is only available with the {} flow partitioner. It is ignored with {}.",
+                FlowDecompositionParameters.FlowPartitionMode.MATRIX_BASED, parameters.getFlowPartitioner());
+            return null;
+        }
+        if (parameters.isLossesCompensationEnabled()) {
+            // Losses loads are sensitivity variables, they must exist before the computation
+            lossesCompensator.addLossesLoadsIfNeeded(network);
+        }
+        return LogUtils.info("Computation of PTDF and PSDF of all states", () ->
+            new ContingencySensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network)
+                .run(baseCaseXnecs, xnecsPerContingency, xnecProvider.getContingencies(network)));
+    }
+
+    private static ContingencySensitivities.StateSensitivities takeStateSensitivities(ContingencySensitivities contingencySensitivities, String stateId) {
+        if (contingencySensitivities == null) {
+            return null;
+        }
+        return contingencySensitivities.take(stateId).orElse(null);
     }
 
-    private void decomposeFlowForState(Network network,
-                                       Set<Branch<?>> xnecs,
-                                       FlowDecompositionResults.PerStateBuilder flowDecompositionResultsBuilder,
-                                       Map<Country, Double> netPositions,
-                                       Map<Country, Map<String, Double>> glsks,
-                                       LoadFlowRunningService.Result loadFlowServiceAcResult) {
+    private Map<String, DecomposedFlow> decomposeFlowForState(Network network,
+                                                              Set<Branch<?>> xnecs,
+                                                              FlowDecompositionResults.PerStateBuilder flowDecompositionResultsBuilder,
+                                                              Map<Country, Double> netPositions,
+                                                              Map<Country, Map<String, Double>> glsks,
+                                                              LoadFlowRunningService.Result loadFlowServiceAcResult,
+                                                              ContingencySensitivities.StateSensitivities stateSensitivities,
+                                                              FlowDecompositionRunContext context) {
         // AC load flow
         LOGGER.info("Computing AC load flow");
+        context.checkNotCancelled();
         saveAcLoadFlowResults(flowDecompositionResultsBuilder, network, xnecs, loadFlowServiceAcResult);
 
         // Losses compensation
         LOGGER.info("Computing losses compensation");
+        context.checkNotCancelled();
         compensateLosses(network);
 
         // DC load flow
         LOGGER.info("Computing DC load flow");
+        context.checkNotCancelled();
         LoadFlowRunningService.Result loadFlowServiceDcResult = runDcLoadFlow(network);
         saveDcLoadFlowResults(flowDecompositionResultsBuilder, network, xnecs, loadFlowServiceDcResult);
 
         LOGGER.info("Computing flow partitions");
-        Map<String, FlowPartition> flowPartitions = getFlowPartitioner().computeFlowPartitions(network, xnecs, netPositions, glsks);
+        context.checkNotCancelled();
+        Map<String, FlowPartition> flowPartitions = getFlowPartitioner(stateSensitivities).computeFlowPartitions(network, xnecs, netPositions, glsks);
         flowDecompositionResultsBuilder.saveFlowPartitions(flowPartitions);
+        context.checkNotCancelled();
 
         // Add the observers to keep the decomposed flows before rescaling
         flowDecompositionResultsBuilder.addObserversList(observers);
-        flowDecompositionResultsBuilder.build(decomposedFlowRescaler, network);
+        return observers.getMetrics().record(FlowDecompositionPhase.RESCALING, () ->
+            flowDecompositionResultsBuilder.computeDecomposedFlows(decomposedFlowRescaler, network));
     }
 
-    private FlowPartitioner getFlowPartitioner() {
+    private FlowPartitioner getFlowPartitioner(ContingencySensitivities.StateSensitivities stateSensitivities) {
         return switch (parameters.getFlowPartitioner()) {
             case MATRIX_BASED ->
-                new MatrixBasedPartitioner(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers);
+                new MatrixBasedPartitioner(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers, stateSensitivities, sensitivityMatrixCache);
             case DIRECT_SENSITIVITY_BASED ->
                 new DirectSensitivityPartitioner(loadFlowParameters, sensitivityAnalysisRunner, observers);
             case FULL_LINE_DECOMPOSITION ->
-                new FullLineDecompositionPartitioner(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers);
+                new FullLineDecompositionPartitioner(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers, sensitivityMatrixCache);
             case FAST_FULL_LINE_DECOMPOSITION ->
                 new FastFullLineDecompositionPartitioner(loadFlowParameters, sensitivityAnalysisRunner);
         };
@@ -198,8 +542,23 @@ public class FlowDecompositionComputer {
         this.observers.removeObserver(observer);
     }
 
+    /**
+     * Wall time of each phase of the runs of this computer.
+     */
+    public FlowDecompositionMetrics getMetrics() {
+        return observers.getMetrics();
+    }
+
+    /**
+     * Cache of the PTDF and PSDF matrices shared by the runs of this computer, with its hit and miss statistics.
+     */
+    public SensitivityMatrixCache getSensitivityMatrixCache() {
+        return sensitivityMatrixCache;
+    }
+
     private LoadFlowRunningService.Result runAcLoadFlow(Network network) {
-        return loadFlowRunningService.runAcLoadflow(network, loadFlowParameters, parameters.isDcFallbackEnabledAfterAcDivergence());
+        return observers.getMetrics().record(FlowDecompositionPhase.AC_LOAD_FLOW, () ->
+            loadFlowRunningService.runAcLoadflow(network, loadFlowParameters, parameters.isDcFallbackEnabledAfterAcDivergence()));
     }
 
     private void saveAcLoadFlowResults(FlowDecompositionResults.PerStateBuilder flowDecompositionResultsBuilder, Network network, Set<Branch<?>> xnecList, LoadFlowRunningService.Result loadFlowServiceAcResult) {
@@ -231,7 +590,7 @@ public class FlowDecompositionComputer {
 
     private void compensateLosses(Network network) {
         if (parameters.isLossesCompensationEnabled()) {
-            lossesCompensator.run(network);
+            observers.getMetrics().record(FlowDecompositionPhase.LOSSES_COMPENSATION, () -> lossesCompensator.run(network));
         }
     }
 
@@ -249,7 +608,8 @@ public class FlowDecompositionComputer {
     }
 
     private LoadFlowRunningService.Result runDcLoadFlow(Network network) {
-        return loadFlowRunningService.runDcLoadflow(network, loadFlowParameters);
+        return observers.getMetrics().record(FlowDecompositionPhase.DC_LOAD_FLOW, () ->
+            loadFlowRunningService.runDcLoadflow(network, loadFlowParameters));
     }
 
     private void saveDcLoadFlowResults(FlowDecompositionResults.PerStateBuilder flowDecompositionResultBuilder, Network network, Set<Branch<?>> xnecList, LoadFlowRunningService.Result loadFlowServiceDcResult) {
@@ -41,6 +41,15 @@ public interface FlowDecompositionObserver {
      */
     void computingContingency(String contingencyId);
 
+    /**
+     * Called each time the decomposed flows of a state are computed, base case included
+     *
+     * @param computedStateCount the number of states computed so far
+     * @param stateCount the number of states to compute in the run
+     */
+    default void computedState(int computedStateCount, int stateCount) {
+    }
+
     /**
      * Called when Glsk are computed thanks to the GlskProvider (during base case computation)
      *
@@ -62,6 +71,17 @@ public interface FlowDecompositionObserver {
      */
     void computedNodalInjectionsMatrix(Map<String, Map<String, Double>> nodalInjections);
 
+    /**
+     * Called when the nodal injection matrix is computed, with a view over the computed data. By default, the view is
+     * converted to nested maps and given to {@link #computedNodalInjectionsMatrix(Map)}. Observers that do not need every value
+     * should override this method to avoid that conversion.
+     *
+     * @param nodalInjections the matrix of nodal injections indexed by (node, flow)
+     */
+    default void computedNodalInjectionsMatrix(SparseMatrixView nodalInjections) {
+        computedNodalInjectionsMatrix(nodalInjections.toMap());
+    }
+
     /**
      * Called when the PTDF matrix is computed (for base case or contingency)
      *
@@ -69,6 +89,17 @@ public interface FlowDecompositionObserver {
      */
     void computedPtdfMatrix(Map<String, Map<String, Double>> ptdfMatrix);
 
+    /**
+     * Called when the PTDF matrix is computed, with a view over the computed data. By default, the view is
+     * converted to nested maps and given to {@link #computedPtdfMatrix(Map)}. Observers that do not need every value
+     * should override this method to avoid that conversion.
+     *
+     * @param ptdfMatrix the matrix of ptdf indexed by (line, node)
+     */
+    default void computedPtdfMatrix(SparseMatrixView ptdfMatrix) {
+        computedPtdfMatrix(ptdfMatrix.toMap());
+    }
+
     /**
      * Called when the PSDF matrix is computed (for base case or contingency)
      *
@@ -76,6 +107,25 @@ public interface FlowDecompositionObserver {
      */
     void computedPsdfMatrix(Map<String, Map<String, Double>> psdfMatrix);
 
+    /**
+     * Called when the PSDF matrix is computed, with a view over the computed data. By default, the view is
+     * converted to nested maps and given to {@link #computedPsdfMatrix(Map)}. Observers that do not need every value
+     * should override this method to avoid that conversion.
+     *
+     * @param psdfMatrix the matrix of psdf indexed by (line, node)
+     */
+    default void computedPsdfMatrix(SparseMatrixView psdfMatrix) {
+        computedPsdfMatrix(psdfMatrix.toMap());
+    }
+
+    /**
+     * Called before the sensitivity analyses of a state to a type of variable, with the variable batches chosen for them
+     *
+     * @param plan the batch sizes, parallelism and estimated memory of the sensitivity analyses
+     */
+    default void computedSensitivityBatchPlan(SensitivityBatchPlan plan) {
+    }
+
     /**
      * Called after an AC loadflow has been computed
      *
@@ -7,6 +7,7 @@
  */
 package com.powsybl.flow_decomposition;
 
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionMetrics;
 import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Network;
 
@@ -15,102 +16,143 @@ import java.util.List;
 import java.util.Map;
 
 /**
+ * Dispatches flow decomposition events to the registered observers.
+ * Dispatch is synchronized so that observers are never called concurrently. Contingency states are decomposed one
+ * after the other when observers are registered, so that the events of different states are never interleaved.
+ * The list also carries the phase metrics of the computation, recorded by the computer and the flow partitioners.
+ *
  * @author Guillaume Verger {@literal <guillaume.verger at artelys.com>}
  * @author Caio Luke {@literal <caio.luke at artelys.com>}
  */
 public class FlowDecompositionObserverList {
 
     private final List<FlowDecompositionObserver> observers;
+    private final FlowDecompositionMetrics metrics;
 
     public FlowDecompositionObserverList() {
         this.observers = new ArrayList<>();
+        this.metrics = new FlowDecompositionMetrics();
     }
 
-    public void addObserver(FlowDecompositionObserver o) {
+    public FlowDecompositionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public synchronized void addObserver(FlowDecompositionObserver o) {
         this.observers.add(o);
     }
 
-    public void removeObserver(FlowDecompositionObserver o) {
+    public synchronized void removeObserver(FlowDecompositionObserver o) {
         this.observers.remove(o);
     }
 
-    public void addObserversFrom(FlowDecompositionObserverList otherList) {
+    public synchronized void addObserversFrom(FlowDecompositionObserverList otherList) {
         for (FlowDecompositionObserver o : otherList.getObservers()) {
             this.addObserver(o);
         }
     }
 
-    public List<FlowDecompositionObserver> getObservers() {
+    public synchronized List<FlowDecompositionObserver> getObservers() {
         return this.observers;
     }
 
-    public void runStart() {
+    public synchronized void runStart() {
         for (FlowDecompositionObserver o : observers) {
             o.runStart();
         }
     }
 
-    public void runDone() {
+    public synchronized void runDone() {
         for (FlowDecompositionObserver o : observers) {
             o.runDone();
         }
     }
 
-    public void computingBaseCase() {
+    public synchronized void computingBaseCase() {
         for (FlowDecompositionObserver o : observers) {
             o.computingBaseCase();
         }
     }
 
-    public void computingContingency(String contingencyId) {
+    public synchronized void computingContingency(String contingencyId) {
         for (FlowDecompositionObserver o : observers) {
             o.computingContingency(contingencyId);
         }
     }
 
-    public void computedGlsk(Map<Country, Map<String, Double>> glsks) {
+    public synchronized void computedState(int computedStateCount, int stateCount) {
+        for (FlowDecompositionObserver o : observers) {
+            o.computedState(computedStateCount, stateCount);
+        }
+    }
+
+    public synchronized void computedGlsk(Map<Country, Map<String, Double>> glsks) {
         for (FlowDecompositionObserver o : observers) {
             o.computedGlsk(glsks);
         }
     }
 
-    public void computedNetPositions(Map<Country, Double> netPositions) {
+    public synchronized void computedNetPositions(Map<Country, Double> netPositions) {
         for (FlowDecompositionObserver o : observers) {
             o.computedNetPositions(netPositions);
         }
     }
 
-    public void computedNodalInjectionsMatrix(Map<String, Map<String, Double>> matrix) {
+    public synchronized void computedNodalInjectionsMatrix(Map<String, Map<String, Double>> matrix) {
         for (FlowDecompositionObserver o : observers) {
             o.computedNodalInjectionsMatrix(matrix);
         }
     }
 
-    public void computedPtdfMatrix(Map<String, Map<String, Double>> matrix) {
+    public synchronized void computedNodalInjectionsMatrix(SparseMatrixView matrix) {
+        for (FlowDecompositionObserver o : observers) {
+            o.computedNodalInjectionsMatrix(matrix);
+        }
+    }
+
+    public synchronized void computedPtdfMatrix(Map<String, Map<String, Double>> matrix) {
         for (FlowDecompositionObserver o : observers) {
             o.computedPtdfMatrix(matrix);
         }
     }
 
-    public void computedPsdfMatrix(Map<String, Map<String, Double>> matrix) {
+    public synchronized void computedPtdfMatrix(SparseMatrixView matrix) {
+        for (FlowDecompositionObserver o : observers) {
+            o.computedPtdfMatrix(matrix);
+        }
+    }
+
+    public synchronized void computedPsdfMatrix(Map<String, Map<String, Double>> matrix) {
+        for (FlowDecompositionObserver o : observers) {
+            o.computedPsdfMatrix(matrix);
+        }
+    }
+
+    public synchronized void computedPsdfMatrix(SparseMatrixView matrix) {
         for (FlowDecompositionObserver o : observers) {
             o.computedPsdfMatrix(matrix);
         }
     }
 
-    public void computedAcLoadFlowResults(Network network, LoadFlowRunningService.Result loadFlowServiceAcResult) {
+    public synchronized void computedSensitivityBatchPlan(SensitivityBatchPlan plan) {
+        for (FlowDecompositionObserver o : observers) {
+            o.computedSensitivityBatchPlan(plan);
+        }
+    }
+
+    public synchronized void computedAcLoadFlowResults(Network network, LoadFlowRunningService.Result loadFlowServiceAcResult) {
         for (FlowDecompositionObserver o : observers) {
             o.computedAcLoadFlowResults(network, loadFlowServiceAcResult.getLoadFlowResult(), loadFlowServiceAcResult.fallbackHasBeenActivated());
         }
     }
 
-    public void computedDcLoadFlowResults(Network network, LoadFlowRunningService.Result loadFlowServiceDcResult) {
+    public synchronized void computedDcLoadFlowResults(Network network, LoadFlowRunningService.Result loadFlowServiceDcResult) {
         for (FlowDecompositionObserver o : observers) {
             o.computedDcLoadFlowResults(network, loadFlowServiceDcResult.getLoadFlowResult());
         }
     }
 
-    public void computedPreRescalingDecomposedFlows(DecomposedFlow decomposedFlow) {
+    public synchronized void computedPreRescalingDecomposedFlows(DecomposedFlow decomposedFlow) {
         for (FlowDecompositionObserver o : observers) {
             o.computedPreRescalingDecomposedFlows(decomposedFlow);
         }
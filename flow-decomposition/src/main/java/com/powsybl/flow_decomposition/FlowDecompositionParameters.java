@@ -27,6 +27,21 @@ public class FlowDecompositionParameters {
     public static final boolean DEFAULT_DC_FALLBACK_ENABLED_AFTER_AC_DIVERGENCE = ENABLE_DC_FALLBACK_AFTER_AC_DIVERGENCE;
     private static final int DEFAULT_SENSITIVITY_VARIABLE_BATCH_SIZE = 15000;
     public static final double DEFAULT_PROPORTIONAL_RESCALER_MIN_FLOW_TOLERANCE = 1E-6;
+    public static final int DEFAULT_CONTINGENCY_PARALLELISM = 1;
+    public static final boolean DISABLE_CONTINGENCY_SENSITIVITY_ANALYSIS = false;
+    public static final boolean ENABLE_CONTINGENCY_SENSITIVITY_ANALYSIS = true;
+    public static final boolean DEFAULT_ENABLE_CONTINGENCY_SENSITIVITY_ANALYSIS = DISABLE_CONTINGENCY_SENSITIVITY_ANALYSIS;
+    public static final int DEFAULT_BATCH_PARALLELISM = 1;
+    public static final int DEFAULT_SENSITIVITY_CACHE_SIZE = 0;
+    public static final int DEFAULT_SENSITIVITY_PARALLELISM = 1;
+    public static final int DISABLE_SENSITIVITY_MEMORY_BUDGET = 0;
+    public static final int DEFAULT_SENSITIVITY_MEMORY_BUDGET = DISABLE_SENSITIVITY_MEMORY_BUDGET;
+    public static final double DEFAULT_SENSITIVITY_EXPECTED_DENSITY = 1.;
+    public static final double DISABLE_DENSE_PTDF_MULTIPLICATION = Double.POSITIVE_INFINITY;
+    public static final double DEFAULT_DENSE_PTDF_DENSITY_THRESHOLD = 0.5;
+    public static final boolean DISABLE_BUS_AGGREGATION = false;
+    public static final boolean ENABLE_BUS_AGGREGATION = true;
+    public static final boolean DEFAULT_ENABLE_BUS_AGGREGATION = DISABLE_BUS_AGGREGATION;
 
     public enum RescaleMode {
         NONE,
@@ -52,6 +67,15 @@ public class FlowDecompositionParameters {
     private boolean dcFallbackEnabledAfterAcDivergence;
     private int sensitivityVariableBatchSize;
     private FlowPartitionMode flowPartitionMode;
+    private int contingencyParallelism;
+    private boolean enableContingencySensitivityAnalysis;
+    private int batchParallelism;
+    private int sensitivityCacheSize;
+    private int sensitivityParallelism;
+    private int sensitivityMemoryBudget;
+    private double sensitivityExpectedDensity;
+    private double densePtdfDensityThreshold;
+    private boolean enableBusAggregation;
 
     public static FlowDecompositionParameters load() {
         return load(PlatformConfig.defaultConfig());
@@ -75,6 +99,15 @@ public class FlowDecompositionParameters {
             parameters.setDcFallbackEnabledAfterAcDivergence(moduleConfig.getBooleanProperty("dc-fallback-enabled-after-ac-divergence", DEFAULT_DC_FALLBACK_ENABLED_AFTER_AC_DIVERGENCE));
             parameters.setSensitivityVariableBatchSize(moduleConfig.getIntProperty("sensitivity-variable-batch-size", DEFAULT_SENSITIVITY_VARIABLE_BATCH_SIZE));
             parameters.setFlowPartitioner(moduleConfig.getEnumProperty("flow-partitioner", FlowPartitionMode.class, DEFAULT_FLOW_PARTITIONER));
+            parameters.setContingencyParallelism(moduleConfig.getIntProperty("contingency-parallelism", DEFAULT_CONTINGENCY_PARALLELISM));
+            parameters.setEnableContingencySensitivityAnalysis(moduleConfig.getBooleanProperty("enable-contingency-sensitivity-analysis", DEFAULT_ENABLE_CONTINGENCY_SENSITIVITY_ANALYSIS));
+            parameters.setBatchParallelism(moduleConfig.getIntProperty("batch-parallelism", DEFAULT_BATCH_PARALLELISM));
+            parameters.setSensitivityCacheSize(moduleConfig.getIntProperty("sensitivity-cache-size", DEFAULT_SENSITIVITY_CACHE_SIZE));
+            parameters.setSensitivityParallelism(moduleConfig.getIntProperty("sensitivity-parallelism", DEFAULT_SENSITIVITY_PARALLELISM));
+            parameters.setSensitivityMemoryBudget(moduleConfig.getIntProperty("sensitivity-memory-budget", DEFAULT_SENSITIVITY_MEMORY_BUDGET));
+            parameters.setSensitivityExpectedDensity(moduleConfig.getDoubleProperty("sensitivity-expected-density", DEFAULT_SENSITIVITY_EXPECTED_DENSITY));
+            parameters.setDensePtdfDensityThreshold(moduleConfig.getDoubleProperty("dense-ptdf-density-threshold", DEFAULT_DENSE_PTDF_DENSITY_THRESHOLD));
+            parameters.setEnableBusAggregation(moduleConfig.getBooleanProperty("enable-bus-aggregation", DEFAULT_ENABLE_BUS_AGGREGATION));
         });
     }
 
@@ -87,6 +120,37 @@ public class FlowDecompositionParameters {
         this.dcFallbackEnabledAfterAcDivergence = DEFAULT_DC_FALLBACK_ENABLED_AFTER_AC_DIVERGENCE;
         this.sensitivityVariableBatchSize = DEFAULT_SENSITIVITY_VARIABLE_BATCH_SIZE;
         this.flowPartitionMode = DEFAULT_FLOW_PARTITIONER;
+        this.contingencyParallelism = DEFAULT_CONTINGENCY_PARALLELISM;
+        this.enableContingencySensitivityAnalysis = DEFAULT_ENABLE_CONTINGENCY_SENSITIVITY_ANALYSIS;
+        this.batchParallelism = DEFAULT_BATCH_PARALLELISM;
+        this.sensitivityCacheSize = DEFAULT_SENSITIVITY_CACHE_SIZE;
+        this.sensitivityParallelism = DEFAULT_SENSITIVITY_PARALLELISM;
+        this.sensitivityMemoryBudget = DEFAULT_SENSITIVITY_MEMORY_BUDGET;
+        this.sensitivityExpectedDensity = DEFAULT_SENSITIVITY_EXPECTED_DENSITY;
+        this.densePtdfDensityThreshold = DEFAULT_DENSE_PTDF_DENSITY_THRESHOLD;
+        this.enableBusAggregation = DEFAULT_ENABLE_BUS_AGGREGATION;
+    }
+
+    private static int checkParallelism(String name, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(String.format("%s parallelism must be strictly positive, got %d", name, parallelism));
+        }
+        return parallelism;
+    }
+
+    private static int checkSensitivityMemoryBudget(int sensitivityMemoryBudget) {
+        if (sensitivityMemoryBudget < 0) {
+            throw new IllegalArgumentException(String.format("Sensitivity memory budget must be positive, or %d to disable it, got %d",
+                DISABLE_SENSITIVITY_MEMORY_BUDGET, sensitivityMemoryBudget));
+        }
+        return sensitivityMemoryBudget;
+    }
+
+    private static double checkSensitivityExpectedDensity(double sensitivityExpectedDensity) {
+        if (!(sensitivityExpectedDensity > 0 && sensitivityExpectedDensity <= 1)) {
+            throw new IllegalArgumentException(String.format("Sensitivity expected density must be in ]0, 1], got %s", sensitivityExpectedDensity));
+        }
+        return sensitivityExpectedDensity;
     }
 
     public FlowDecompositionParameters setEnableLossesCompensation(boolean enableLossesCompensation) {
@@ -159,4 +223,85 @@ public class FlowDecompositionParameters {
         this.flowPartitionMode = flowPartitionMode;
         return this;
     }
+
+    public int getContingencyParallelism() {
+        return contingencyParallelism;
+    }
+
+    public FlowDecompositionParameters setContingencyParallelism(int contingencyParallelism) {
+        this.contingencyParallelism = checkParallelism("Contingency", contingencyParallelism);
+        return this;
+    }
+
+    public boolean isContingencySensitivityAnalysisEnabled() {
+        return enableContingencySensitivityAnalysis;
+    }
+
+    public FlowDecompositionParameters setEnableContingencySensitivityAnalysis(boolean enableContingencySensitivityAnalysis) {
+        this.enableContingencySensitivityAnalysis = enableContingencySensitivityAnalysis;
+        return this;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    public FlowDecompositionParameters setBatchParallelism(int batchParallelism) {
+        this.batchParallelism = batchParallelism;
+        return this;
+    }
+
+    public int getSensitivityCacheSize() {
+        return sensitivityCacheSize;
+    }
+
+    public FlowDecompositionParameters setSensitivityCacheSize(int sensitivityCacheSize) {
+        this.sensitivityCacheSize = sensitivityCacheSize;
+        return this;
+    }
+
+    public int getSensitivityParallelism() {
+        return sensitivityParallelism;
+    }
+
+    public FlowDecompositionParameters setSensitivityParallelism(int sensitivityParallelism) {
+        this.sensitivityParallelism = checkParallelism("Sensitivity", sensitivityParallelism);
+        return this;
+    }
+
+    public int getSensitivityMemoryBudget() {
+        return sensitivityMemoryBudget;
+    }
+
+    public FlowDecompositionParameters setSensitivityMemoryBudget(int sensitivityMemoryBudget) {
+        this.sensitivityMemoryBudget = checkSensitivityMemoryBudget(sensitivityMemoryBudget);
+        return this;
+    }
+
+    public double getSensitivityExpectedDensity() {
+        return sensitivityExpectedDensity;
+    }
+
+    public FlowDecompositionParameters setSensitivityExpectedDensity(double sensitivityExpectedDensity) {
+        this.sensitivityExpectedDensity = checkSensitivityExpectedDensity(sensitivityExpectedDensity);
+        return this;
+    }
+
+    public double getDensePtdfDensityThreshold() {
+        return densePtdfDensityThreshold;
+    }
+
+    public FlowDecompositionParameters setDensePtdfDensityThreshold(double densePtdfDensityThreshold) {
+        this.densePtdfDensityThreshold = densePtdfDensityThreshold;
+        return this;
+    }
+
+    public boolean isBusAggregationEnabled() {
+        return enableBusAggregation;
+    }
+
+    public FlowDecompositionParameters setEnableBusAggregation(boolean enableBusAggregation) {
+        this.enableBusAggregation = enableBusAggregation;
+        return this;
+    }
 }
@@ -16,6 +16,7 @@ import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -36,6 +37,7 @@ public class FlowDecompositionResults {
     private final String id;
     private final Set<Country> zoneSet;
     private final Map<String, DecomposedFlow> decomposedFlowMap = new HashMap<>();
+    private final DecomposedFlowSink decomposedFlowSink;
 
     public class PerStateBuilder {
         private final Map<String, Branch<?>> xnecMap;
@@ -82,11 +84,21 @@ public class FlowDecompositionResults {
         }
 
         void build(DecomposedFlowRescaler decomposedFlowRescaler, Network network) {
+            saveDecomposedFlows(computeDecomposedFlows(decomposedFlowRescaler, network));
+        }
+
+        /**
+         * Computes the rescaled decomposed flows of this state without storing them in the results.
+         * The network must be on the variant of this state.
+         */
+        Map<String, DecomposedFlow> computeDecomposedFlows(DecomposedFlowRescaler decomposedFlowRescaler, Network network) {
+            Map<String, DecomposedFlow> decomposedFlows = new LinkedHashMap<>();
             flowPartitions
                 .forEach((branchId, flowPartition) -> {
                     String xnecId = DecomposedFlow.getXnecId(contingencyId, branchId);
-                    decomposedFlowMap.put(xnecId, createDecomposedFlow(branchId, flowPartition, decomposedFlowRescaler, network));
+                    decomposedFlows.put(xnecId, createDecomposedFlow(branchId, flowPartition, decomposedFlowRescaler, network));
                 });
+            return decomposedFlows;
         }
 
         private DecomposedFlow createDecomposedFlow(String branchId, FlowPartition flowPartition, DecomposedFlowRescaler decomposedFlowRescaler, Network network) {
@@ -110,6 +122,15 @@ public class FlowDecompositionResults {
     }
 
     FlowDecompositionResults(Network network) {
+        this(network, null);
+    }
+
+    /**
+     * @param decomposedFlowSink sink receiving the decomposed flows of each state. When null, decomposed flows are kept
+     *                           in the decomposed flow map of these results.
+     */
+    FlowDecompositionResults(Network network, DecomposedFlowSink decomposedFlowSink) {
+        this.decomposedFlowSink = decomposedFlowSink != null ? decomposedFlowSink : decomposedFlowMap::putAll;
         Date date = Date.from(Instant.now());
         String dateString = new SimpleDateFormat("yyyyMMdd-HHmmss").format(date);
         this.networkId = network.getNameOrId();
@@ -140,11 +161,20 @@ public class FlowDecompositionResults {
 
     /**
      * @return A rescaled flow decomposition map. The keys are the XNEC and the values are {@code DecomposedFlow} objects.
+     * The map is empty when decomposed flows were streamed to a {@link DecomposedFlowSink}.
      */
-    public Map<String, DecomposedFlow> getDecomposedFlowMap() {
+    public synchronized Map<String, DecomposedFlow> getDecomposedFlowMap() {
         return decomposedFlowMap;
     }
 
+    /**
+     * Pushes the decomposed flows of a state to the sink of these results. States may be computed concurrently, hence
+     * the synchronization.
+     */
+    synchronized void saveDecomposedFlows(Map<String, DecomposedFlow> decomposedFlows) {
+        decomposedFlowSink.accept(decomposedFlows);
+    }
+
     PerStateBuilder getBuilder(String contingencyId, Set<Branch<?>> xnecList) {
         return new PerStateBuilder(contingencyId, xnecList);
     }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * State of a single flow decomposition run: its cancellation request and the progress of its states.
+ * Cancellation is cooperative, the computer checking it between states and between the phases of a state.
+ */
+final class FlowDecompositionRunContext {
+    private final BooleanSupplier cancellationRequested;
+    private final AtomicInteger computedStateCount = new AtomicInteger();
+    private int stateCount;
+
+    FlowDecompositionRunContext() {
+        this(() -> false);
+    }
+
+    FlowDecompositionRunContext(BooleanSupplier cancellationRequested) {
+        this.cancellationRequested = Objects.requireNonNull(cancellationRequested);
+    }
+
+    void checkNotCancelled() {
+        if (cancellationRequested.getAsBoolean()) {
+            throw new CancellationException("Flow decomposition has been cancelled");
+        }
+    }
+
+    void setStateCount(int stateCount) {
+        this.stateCount = stateCount;
+    }
+
+    int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @return number of states computed so far, the new one included.
+     */
+    int stateComputed() {
+        return computedStateCount.incrementAndGet();
+    }
+}
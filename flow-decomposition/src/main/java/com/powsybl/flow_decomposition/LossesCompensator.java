@@ -9,7 +9,10 @@ package com.powsybl.flow_decomposition;
 import com.powsybl.commons.PowsyblException;
 import com.powsybl.iidm.network.*;
 
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class can
@@ -21,13 +24,14 @@ import java.util.stream.Stream;
  * @author Caio Luke {@literal <caio.luke at artelys.com>}
  */
 class LossesCompensator {
+    private static final int NO_LOSSES_LOAD = -1;
     private final double epsilon;
-    private Integer networkHash;
+    private LossesLoadIndex lossesLoadIndex;
     public static final String LOSSES_ID_PREFIX = "LOSSES ";
 
     LossesCompensator(double epsilon) {
         this.epsilon = epsilon;
-        networkHash = null;
+        lossesLoadIndex = null;
     }
 
     LossesCompensator(FlowDecompositionParameters parameters) {
@@ -39,43 +43,153 @@ class LossesCompensator {
     }
 
     public void run(Network network) {
-        if (networkHash == null || networkHash != network.hashCode()) {
-            addZeroMWLossesLoadsOnBuses(network);
-            networkHash = network.hashCode();
+        compensateLossesOnBranches(addLossesLoadsIfNeeded(network));
+    }
+
+    /**
+     * Adds the zero MW losses loads if it has not been done yet on this network, and indexes them by branch side.
+     * Adding loads modifies the network structure, so this must be called before states are decomposed concurrently.
+     * Compensating the losses of a state afterwards only updates the loads, whatever the variant of the state.
+     */
+    synchronized LossesLoadIndex addLossesLoadsIfNeeded(Network network) {
+        if (lossesLoadIndex == null || lossesLoadIndex.network != network) {
+            lossesLoadIndex = new LossesLoadIndex(network);
+        }
+        return lossesLoadIndex;
+    }
+
+    /**
+     * Losses loads of a network, with for each branch side the losses load of its connectable bus.
+     * We want a single null load per bus, added on the connectable bus of each branch side of the working variant when
+     * the index is built. Mapping by bus Id is important as buses are generated on-fly.
+     * This matters for node breaker topology, where the buses of another variant may differ: losses of a side are then
+     * put on the losses load of the bus it is connected to in that variant if there is one, and on the losses load of
+     * its connectable bus otherwise.
+     */
+    static final class LossesLoadIndex {
+        private final Network network;
+        private final Branch<?>[] branches;
+        private final boolean[] tieLines;
+        private final String[] side1BusIds;
+        private final String[] side2BusIds;
+        private final int[] side1LossesLoads;
+        private final int[] side2LossesLoads;
+        private final Map<String, Integer> lossesLoadByBusId = new HashMap<>();
+        private final Load[] lossesLoads;
+
+        private LossesLoadIndex(Network network) {
+            this.network = network;
+            List<Load> lossesLoadList = new ArrayList<>();
+            this.branches = network.getBranchStream().toArray(Branch<?>[]::new);
+            this.tieLines = new boolean[branches.length];
+            this.side1BusIds = new String[branches.length];
+            this.side2BusIds = new String[branches.length];
+            this.side1LossesLoads = new int[branches.length];
+            this.side2LossesLoads = new int[branches.length];
+            for (int i = 0; i < branches.length; i++) {
+                tieLines[i] = branches[i] instanceof TieLine;
+                side1BusIds[i] = branches[i].getTerminal1().getBusBreakerView().getConnectableBus().getId();
+                side2BusIds[i] = branches[i].getTerminal2().getBusBreakerView().getConnectableBus().getId();
+                side1LossesLoads[i] = getLossesLoad(side1BusIds[i], lossesLoadList);
+                side2LossesLoads[i] = getLossesLoad(side2BusIds[i], lossesLoadList);
+            }
+            this.lossesLoads = lossesLoadList.toArray(new Load[0]);
+        }
+
+        private int getLossesLoad(String busId, List<Load> lossesLoadList) {
+            return lossesLoadByBusId.computeIfAbsent(busId, id -> {
+                Load lossesLoad = network.getLoad(getLossesId(id));
+                lossesLoadList.add(lossesLoad != null ? lossesLoad : addZeroMWLossesLoad(network, id));
+                return lossesLoadList.size() - 1;
+            });
+        }
+
+        /**
+         * @return the losses load of the bus the terminal is connected to in the working variant.
+         */
+        private int getLossesLoad(Terminal terminal, String connectableBusId, int connectableBusLossesLoad) {
+            Bus bus = terminal.getBusBreakerView().getBus();
+            if (bus == null) {
+                return NO_LOSSES_LOAD;
+            }
+            return bus.getId().equals(connectableBusId) ? connectableBusLossesLoad : lossesLoadByBusId.getOrDefault(bus.getId(), connectableBusLossesLoad);
+        }
+
+        private int getSide1LossesLoad(int branch) {
+            return getLossesLoad(branches[branch].getTerminal1(), side1BusIds[branch], side1LossesLoads[branch]);
+        }
+
+        private int getSide2LossesLoad(int branch) {
+            return getLossesLoad(branches[branch].getTerminal2(), side2BusIds[branch], side2LossesLoads[branch]);
+        }
+    }
+
+    /**
+     * Sums the losses of all branches by losses load, then updates each load once on the working variant.
+     */
+    private void compensateLossesOnBranches(LossesLoadIndex index) {
+        double[] lossesByLoad = new double[index.lossesLoads.length];
+        for (int i = 0; i < index.branches.length; i++) {
+            Branch<?> branch = index.branches[i];
+            Terminal terminal1 = branch.getTerminal1();
+            Terminal terminal2 = branch.getTerminal2();
+            boolean connected1 = terminal1.isConnected();
+            boolean connected2 = terminal2.isConnected();
+            if (!connected1 && !connected2) {
+                continue;
+            }
+            if (index.tieLines[i]) {
+                TieLine tieLine = (TieLine) branch;
+                addLosses(lossesByLoad, index, i, true, terminal1.getP() + tieLine.getBoundaryLine1().getBoundary().getP());
+                addLosses(lossesByLoad, index, i, false, terminal2.getP() + tieLine.getBoundaryLine2().getBoundary().getP());
+            } else {
+                double p1 = terminal1.getP();
+                double p2 = terminal2.getP();
+                addLosses(lossesByLoad, index, i, isSendingSide1(connected1, connected2, p1, p2), p1 + p2);
+            }
+        }
+        for (int load = 0; load < lossesByLoad.length; load++) {
+            if (lossesByLoad[load] != 0) {
+                Load lossesLoad = index.lossesLoads[load];
+                lossesLoad.setP0(lossesLoad.getP0() + lossesByLoad[load]);
+            }
         }
-        compensateLossesOnBranches(network);
     }
 
-    private void addZeroMWLossesLoadsOnBuses(Network network) {
-        // We want to add a single null load per bus
-        // Mapping by bus Id is important as buses are generated on-fly
-        // This matters for node breaker topology
-        network.getBranchStream()
-            .flatMap(branch -> Stream.of(branch.getTerminal1(), branch.getTerminal2()))
-            .map(terminal -> terminal.getBusBreakerView().getConnectableBus())
-            .map(Identifiable::getId)
-            .distinct()
-            .forEach(busId -> addZeroMWLossesLoad(network, busId));
+    private void addLosses(double[] lossesByLoad, LossesLoadIndex index, int branch, boolean side1, double losses) {
+        if (losses > epsilon) {
+            addLosses(lossesByLoad, side1 ? index.getSide1LossesLoad(branch) : index.getSide2LossesLoad(branch), losses);
+        }
+    }
+
+    private void addLosses(double[] lossesByLoad, int lossesLoad, double losses) {
+        if (losses > epsilon && lossesLoad != NO_LOSSES_LOAD) {
+            lossesByLoad[lossesLoad] += losses;
+        }
     }
 
-    private void compensateLossesOnBranches(Network network) {
-        network.getBranchStream()
-            .filter(branch -> branch.getTerminal1().isConnected() || branch.getTerminal2().isConnected())
-            .forEach(branch -> compensateLossesOnBranch(network, branch));
+    private static boolean isSendingSide1(boolean connected1, boolean connected2, double p1, double p2) {
+        // if only one terminal is connected, that is the sending terminal
+        if (!(connected1 && connected2)) {
+            return connected1;
+        }
+
+        // terminal with greater P is the sending terminal
+        return p1 >= p2;
     }
 
-    private static void addZeroMWLossesLoad(Network network, String busId) {
+    private static Load addZeroMWLossesLoad(Network network, String busId) {
         String lossesId = getLossesId(busId);
         Bus bus = network.getBusBreakerView().getBus(busId);
-        switch (bus.getVoltageLevel().getTopologyKind()) {
+        return switch (bus.getVoltageLevel().getTopologyKind()) {
             case BUS_BREAKER -> addZeroMWLossesLoadForBusBreakerTopology(bus, lossesId);
             case NODE_BREAKER -> addZeroMWLossesLoadForNodeBreakerTopology(bus, lossesId);
             default -> throw new PowsyblException("Topology not supported by loss compensation.");
-        }
+        };
     }
 
-    private static void addZeroMWLossesLoadForBusBreakerTopology(Bus bus, String lossesId) {
-        bus.getVoltageLevel().newLoad()
+    private static Load addZeroMWLossesLoadForBusBreakerTopology(Bus bus, String lossesId) {
+        return bus.getVoltageLevel().newLoad()
             .setId(lossesId)
             .setBus(bus.getId())
             .setP0(0)
@@ -84,7 +198,7 @@ class LossesCompensator {
             .add();
     }
 
-    private static void addZeroMWLossesLoadForNodeBreakerTopology(Bus bus, String lossesId) {
+    private static Load addZeroMWLossesLoadForNodeBreakerTopology(Bus bus, String lossesId) {
         VoltageLevel voltageLevel = bus.getVoltageLevel();
         VoltageLevel.NodeBreakerView nodeBreakerView = voltageLevel.getNodeBreakerView();
         int nodeNum = nodeBreakerView.getMaximumNodeIndex() + 1;
@@ -92,7 +206,7 @@ class LossesCompensator {
             .setNode1(nodeNum)
             .setNode2(nodeBreakerView.getNodes()[0])
             .add();
-        voltageLevel.newLoad()
+        return voltageLevel.newLoad()
             .setId(lossesId)
             .setNode(nodeNum)
             .setP0(0)
@@ -100,49 +214,4 @@ class LossesCompensator {
             .setFictitious(true)
             .add();
     }
-
-    private void compensateLossesOnBranch(Network network, Branch<?> branch) {
-        if (branch instanceof TieLine tieLine) {
-            compensateLossesOnTieLine(network, tieLine);
-        } else {
-            Terminal sendingTerminal = getSendingTerminal(branch);
-            double losses = branch.getTerminal1().getP() + branch.getTerminal2().getP();
-            updateLoadForLossesOnTerminal(network, sendingTerminal, losses);
-        }
-    }
-
-    private void compensateLossesOnTieLine(Network network, TieLine tieLine) {
-        BoundaryLine boundaryLine1 = tieLine.getBoundaryLine1();
-        BoundaryLine boundaryLine2 = tieLine.getBoundaryLine2();
-        Terminal terminal1 = boundaryLine1.getTerminal();
-        Terminal terminal2 = boundaryLine2.getTerminal();
-        double lossesSide1 = terminal1.getP() + boundaryLine1.getBoundary().getP();
-        double lossesSide2 = terminal2.getP() + boundaryLine2.getBoundary().getP();
-        updateLoadForLossesOnTerminal(network, terminal1, lossesSide1);
-        updateLoadForLossesOnTerminal(network, terminal2, lossesSide2);
-    }
-
-    private void updateLoadForLossesOnTerminal(Network network, Terminal terminal, double losses) {
-        if (losses > epsilon) {
-            Load load = network.getLoad(getLossesId(terminal.getBusBreakerView().getBus().getId()));
-            load.setP0(load.getP0() + losses);
-        }
-    }
-
-    private Terminal getSendingTerminal(Branch<?> branch) {
-        Terminal terminal1 = branch.getTerminal1();
-        Terminal terminal2 = branch.getTerminal2();
-
-        // if only one terminal is connected, that is the sending terminal
-        if (!(terminal1.isConnected() && terminal2.isConnected())) {
-            return terminal1.isConnected() ? terminal1 : terminal2;
-        }
-
-        // terminal with greater P is the sending terminal
-        if (terminal1.getP() >= terminal2.getP()) {
-            return terminal1;
-        } else {
-            return terminal2;
-        }
-    }
 }
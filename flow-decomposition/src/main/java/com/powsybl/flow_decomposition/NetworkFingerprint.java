@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.iidm.network.*;
+import com.powsybl.iidm.network.extensions.ActivePowerControl;
+import com.powsybl.loadflow.LoadFlowParameters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Digests of the network state used to detect when work done on a network can be reused on another network or variant.
+ * Digests only depend on identifiers and values, so they can be compared across network instances of the same model.
+ */
+public final class NetworkFingerprint {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String DISCONNECTED = "-";
+
+    private NetworkFingerprint() {
+        // Utility class
+    }
+
+    /**
+     * Fingerprint of the topology of the working variant: the bus of each terminal of each connectable in the bus view.
+     * Networks with the same topology fingerprint share the same XNECs, sensitivity variables and matrix indexes.
+     */
+    public static String topology(Network network) {
+        return digest(getTopologyEntries(network));
+    }
+
+    /**
+     * Fingerprint of everything the DC sensitivities of the working variant depend on: the topology of the main synchronous
+     * component, the impedances and tap positions of the branches, and the slack distribution keys when the slack is
+     * distributed. Networks with the same sensitivity fingerprint share the same PTDF and PSDF matrices, before the flow
+     * sign convention that depends on the reference flows.
+     */
+    public static String sensitivities(Network network, LoadFlowParameters loadFlowParameters) {
+        return digest(Stream.of(
+                getMainSynchronousComponentTopologyEntries(network),
+                getImpedanceEntries(network),
+                getSlackDistributionEntries(network, loadFlowParameters))
+            .flatMap(entries -> entries));
+    }
+
+    static Stream<String> getTopologyEntries(Network network) {
+        return network.getConnectableStream()
+            .flatMap(connectable -> getTerminalEntries(connectable, NetworkFingerprint::getBusId))
+            .sorted();
+    }
+
+    private static Stream<String> getTerminalEntries(Connectable<?> connectable, Function<Terminal, String> busIdGetter) {
+        List<? extends Terminal> terminals = connectable.getTerminals();
+        return IntStream.range(0, terminals.size())
+            .mapToObj(i -> connectable.getId() + "/" + i + "=" + busIdGetter.apply(terminals.get(i)));
+    }
+
+    private static String getBusId(Terminal terminal) {
+        Bus bus = terminal.getBusView().getBus();
+        return Objects.isNull(bus) ? DISCONNECTED : bus.getId();
+    }
+
+    private static Stream<String> getMainSynchronousComponentTopologyEntries(Network network) {
+        return network.getConnectableStream()
+            .flatMap(connectable -> getTerminalEntries(connectable, NetworkFingerprint::getMainSynchronousComponentBusId))
+            .sorted();
+    }
+
+    private static String getMainSynchronousComponentBusId(Terminal terminal) {
+        Bus bus = terminal.getBusView().getBus();
+        return Objects.isNull(bus) || !bus.isInMainSynchronousComponent() ? DISCONNECTED : bus.getId();
+    }
+
+    private static Stream<String> getImpedanceEntries(Network network) {
+        return Stream.concat(
+                network.getBranchStream().map(NetworkFingerprint::getBranchImpedanceEntry),
+                network.getThreeWindingsTransformerStream().map(NetworkFingerprint::getThreeWindingsTransformerImpedanceEntry))
+            .sorted();
+    }
+
+    private static String getBranchImpedanceEntry(Branch<?> branch) {
+        if (branch instanceof Line line) {
+            return line.getId() + ":" + line.getR() + "," + line.getX();
+        } else if (branch instanceof TieLine tieLine) {
+            return tieLine.getId() + ":" + tieLine.getR() + "," + tieLine.getX();
+        } else if (branch instanceof TwoWindingsTransformer transformer) {
+            return transformer.getId() + ":" + transformer.getR() + "," + transformer.getX() + "," + transformer.getRatedU1() + "," + transformer.getRatedU2()
+                + getTapPositionEntry(transformer.getPhaseTapChanger()) + getTapPositionEntry(transformer.getRatioTapChanger());
+        }
+        return branch.getId();
+    }
+
+    private static String getThreeWindingsTransformerImpedanceEntry(ThreeWindingsTransformer transformer) {
+        return transformer.getId() + ":" + transformer.getLegStream()
+            .map(leg -> leg.getR() + "," + leg.getX() + "," + leg.getRatedU()
+                + getTapPositionEntry(leg.getPhaseTapChanger()) + getTapPositionEntry(leg.getRatioTapChanger()))
+            .collect(Collectors.joining(";"));
+    }
+
+    private static String getTapPositionEntry(TapChanger<?, ?, ?, ?> tapChanger) {
+        return Objects.isNull(tapChanger) ? "," + DISCONNECTED : "," + tapChanger.getTapPosition();
+    }
+
+    /**
+     * Only the values actually used by the slack distribution of the balance type are part of the fingerprint, so that
+     * a dispatch change does not invalidate the sensitivities when the distribution keys do not depend on it.
+     */
+    private static Stream<String> getSlackDistributionEntries(Network network, LoadFlowParameters loadFlowParameters) {
+        if (!loadFlowParameters.isDistributedSlack()) {
+            return Stream.empty();
+        }
+        return switch (loadFlowParameters.getBalanceType()) {
+            case PROPORTIONAL_TO_GENERATION_P, PROPORTIONAL_TO_GENERATION_REMAINING_MARGIN -> network.getGeneratorStream()
+                .map(generator -> generator.getId() + ":" + generator.getTargetP() + "," + generator.getMinP() + "," + generator.getMaxP() + getActivePowerControlEntry(generator))
+                .sorted();
+            case PROPORTIONAL_TO_GENERATION_P_MAX, PROPORTIONAL_TO_GENERATION_PARTICIPATION_FACTOR -> network.getGeneratorStream()
+                .map(generator -> generator.getId() + ":" + Math.signum(generator.getTargetP()) + "," + generator.getMinP() + "," + generator.getMaxP() + getActivePowerControlEntry(generator))
+                .sorted();
+            case PROPORTIONAL_TO_LOAD, PROPORTIONAL_TO_CONFORM_LOAD -> getLoadEntries(network);
+            default -> Stream.concat(network.getGeneratorStream().map(generator -> generator.getId() + ":" + generator.getTargetP()), getLoadEntries(network))
+                .sorted();
+        };
+    }
+
+    private static Stream<String> getLoadEntries(Network network) {
+        return network.getLoadStream()
+            .map(load -> load.getId() + ":" + load.getP0())
+            .sorted();
+    }
+
+    private static String getActivePowerControlEntry(Generator generator) {
+        ActivePowerControl<Generator> activePowerControl = generator.getExtension(ActivePowerControl.class);
+        return Objects.isNull(activePowerControl) ? "" : "," + activePowerControl.isParticipate() + "," + activePowerControl.getDroop() + "," + activePowerControl.getParticipationFactor();
+    }
+
+    /**
+     * SHA-256 digest of the given entries, in the given order.
+     */
+    public static String digest(Stream<String> entries) {
+        MessageDigest messageDigest = getMessageDigest();
+        entries.forEach(entry -> {
+            messageDigest.update(entry.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) '\n');
+        });
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    private static MessageDigest getMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new PowsyblException("Digest algorithm " + DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.contingency.Contingency;
+import com.powsybl.iidm.network.Branch;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Network;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * XNECs and contingencies of a xnec provider resolved once on a reference network, then replayed by id on any network
+ * sharing its topology. Used by batch runs so that xnec providers depending on topology only are not evaluated again
+ * for each snapshot.
+ */
+class ResolvedXnecProvider implements XnecProvider {
+    private final Set<String> baseCaseXnecIds;
+    private final Map<String, Set<String>> xnecIdsPerContingency;
+    private final List<Contingency> contingencies;
+
+    ResolvedXnecProvider(XnecProvider xnecProvider, Network network) {
+        this.baseCaseXnecIds = getIds(xnecProvider.getNetworkElements(network));
+        this.xnecIdsPerContingency = new LinkedHashMap<>();
+        xnecProvider.getNetworkElementsPerContingency(network)
+            .forEach((contingencyId, xnecs) -> xnecIdsPerContingency.put(contingencyId, getIds(xnecs)));
+        this.contingencies = List.copyOf(xnecProvider.getContingencies(network));
+    }
+
+    private static Set<String> getIds(Set<Branch<?>> branches) {
+        return branches.stream().map(Identifiable::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static Set<Branch<?>> getBranches(Set<String> branchIds, Network network) {
+        Set<Branch<?>> branches = new LinkedHashSet<>();
+        branchIds.forEach(branchId -> branches.add(network.getBranch(branchId)));
+        return branches;
+    }
+
+    @Override
+    public Set<Branch<?>> getNetworkElements(Network network) {
+        return getBranches(baseCaseXnecIds, network);
+    }
+
+    @Override
+    public Set<Branch<?>> getNetworkElements(String contingencyId, Network network) {
+        Objects.requireNonNull(contingencyId, "Contingency Id must be specified");
+        return getBranches(xnecIdsPerContingency.getOrDefault(contingencyId, Collections.emptySet()), network);
+    }
+
+    @Override
+    public Map<String, Set<Branch<?>>> getNetworkElementsPerContingency(Network network) {
+        Map<String, Set<Branch<?>>> xnecsPerContingency = new LinkedHashMap<>();
+        xnecIdsPerContingency.forEach((contingencyId, xnecIds) -> xnecsPerContingency.put(contingencyId, getBranches(xnecIds, network)));
+        return xnecsPerContingency;
+    }
+
+    @Override
+    public List<Contingency> getContingencies(Network network) {
+        return contingencies;
+    }
+
+    @Override
+    public boolean dependsOnTopologyOnly() {
+        return true;
+    }
+}
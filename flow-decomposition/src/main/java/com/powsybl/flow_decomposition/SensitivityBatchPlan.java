@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.sensitivity.SensitivityVariableType;
+
+/**
+ * Batches used to compute the sensitivities of a state to its variables, which may be of several types.
+ *
+ * @param variableType    heavier type of the sensitivity variables, whose estimated memory is used for all the variables of the batches
+ * @param functionCount   number of XNECs
+ * @param variableCount   number of variables
+ * @param batchSize       number of variables computed by a single sensitivity analysis
+ * @param parallelism     number of batches computed concurrently
+ * @param estimatedMemory estimated memory in bytes of the result and of the batches computed concurrently
+ * @param memoryBudget    memory budget in bytes the plan has been chosen for, 0 when batches have a fixed size
+ */
+public record SensitivityBatchPlan(SensitivityVariableType variableType, int functionCount, int variableCount,
+                                   int batchSize, int parallelism, long estimatedMemory, long memoryBudget) {
+
+    public int batchCount() {
+        return variableCount == 0 ? 0 : Math.ceilDiv(variableCount, batchSize);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view over a sparse matrix computed by the flow decomposition, indexed by row and column ids.
+ * The view reads the underlying compressed data directly: nothing is copied until {@link #toMap()} is called.
+ * A view is only valid during the observer callback it is given to.
+ */
+public interface SparseMatrixView {
+
+    @FunctionalInterface
+    interface CellConsumer {
+        void accept(String rowId, String columnId, double value);
+    }
+
+    Set<String> getRowIds();
+
+    Set<String> getColumnIds();
+
+    /**
+     * @return the value at the given row and column, zero when no value is stored.
+     */
+    double get(String rowId, String columnId);
+
+    /**
+     * Calls the consumer on each stored value, column by column.
+     */
+    void forEach(CellConsumer consumer);
+
+    /**
+     * @return stored values of the given column, by row id.
+     */
+    Map<String, Double> getColumn(String columnId);
+
+    /**
+     * @return stored values of the given row, by column id. The first call builds a row index of the stored values,
+     * reused by the next calls on the same view.
+     */
+    Map<String, Double> getRow(String rowId);
+
+    /**
+     * @return stored values by row id and column id, as given to the map based observer callbacks.
+     */
+    Map<String, Map<String, Double>> toMap();
+}
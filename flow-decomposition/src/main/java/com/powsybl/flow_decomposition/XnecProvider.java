@@ -42,4 +42,14 @@ public interface XnecProvider extends ContingenciesProvider {
      * @return a map of contingency name to set of branches to monitor.
      */
     Map<String, Set<Branch<?>>> getNetworkElementsPerContingency(Network network);
+
+    /**
+     * Tell whether XNECs and contingencies only depend on the topology of the network, and not on its injections.
+     * Batch runs then resolve them once per topology and reuse them for all networks sharing it.
+     *
+     * @return false by default, so that XNECs are resolved on each network.
+     */
+    default boolean dependsOnTopologyOnly() {
+        return false;
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Records the wall time of each phase of the flow decomposition, for each state. Each phase is recorded once per state.
+ * Measures are aggregated per phase in {@link PhaseStatistics} and emitted as {@code com.powsybl.flow_decomposition.Phase}
+ * JFR events, so that per state measures can be inspected in a flight recording.
+ * <p>
+ * Phases may run on several threads, such as sensitivity analysis batches or load flow solvers, so their CPU time and
+ * allocations are not measured here. They can be found per thread in the execution samples and allocation events of
+ * the same flight recording.
+ * <p>
+ * The state of a measure is the one of the enclosing {@link #recordState} call on the same thread, the base case by default.
+ * Recording is thread safe, phases of states decomposed in parallel being measured on their own thread.
+ */
+public class FlowDecompositionMetrics {
+    private static final String BASE_CASE_STATE_ID = "";
+    private final Map<FlowDecompositionPhase, PhaseStatistics> statisticsPerPhase = new EnumMap<>(FlowDecompositionPhase.class);
+    private final ThreadLocal<String> currentStateId = ThreadLocal.withInitial(() -> BASE_CASE_STATE_ID);
+
+    /**
+     * Runs the given computation as part of the given state.
+     *
+     * @param stateId contingency id of the state, empty for the base case.
+     */
+    public <T> T recordState(String stateId, Supplier<T> supplier) {
+        String previousStateId = currentStateId.get();
+        currentStateId.set(stateId);
+        try {
+            return supplier.get();
+        } finally {
+            currentStateId.set(previousStateId);
+        }
+    }
+
+    public <T> T record(FlowDecompositionPhase phase, Supplier<T> supplier) {
+        FlowDecompositionPhaseEvent event = new FlowDecompositionPhaseEvent();
+        event.begin();
+        long wallTimeStart = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            long wallTime = System.nanoTime() - wallTimeStart;
+            synchronized (this) {
+                statisticsPerPhase.computeIfAbsent(phase, p -> new PhaseStatistics()).add(wallTime);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.name();
+                event.stateId = currentStateId.get();
+                event.commit();
+            }
+        }
+    }
+
+    public void record(FlowDecompositionPhase phase, Runnable runnable) {
+        record(phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return a snapshot of the statistics of each measured phase.
+     */
+    public synchronized Map<FlowDecompositionPhase, PhaseStatistics> getStatistics() {
+        Map<FlowDecompositionPhase, PhaseStatistics> statistics = new EnumMap<>(FlowDecompositionPhase.class);
+        statisticsPerPhase.forEach((phase, phaseStatistics) -> statistics.put(phase, phaseStatistics.copy()));
+        return statistics;
+    }
+
+    /**
+     * Adds the statistics of the given metrics, for example the ones of another run, to these metrics.
+     */
+    public void add(FlowDecompositionMetrics other) {
+        Map<FlowDecompositionPhase, PhaseStatistics> otherStatistics = other.getStatistics();
+        synchronized (this) {
+            otherStatistics.forEach((phase, phaseStatistics) -> statisticsPerPhase.computeIfAbsent(phase, p -> new PhaseStatistics()).add(phaseStatistics));
+        }
+    }
+
+    public synchronized void reset() {
+        statisticsPerPhase.clear();
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.metrics;
+
+/**
+ * Phases of a flow decomposition run measured by {@link FlowDecompositionMetrics}.
+ */
+public enum FlowDecompositionPhase {
+    AC_LOAD_FLOW,
+    LOSSES_COMPENSATION,
+    DC_LOAD_FLOW,
+    NODAL_INJECTIONS,
+    PTDF,
+    PSDF,
+    MATRIX_MULTIPLICATION,
+    PEX_GRAPH,
+    PEX_MATRIX,
+    RESCALING
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event emitted for each measured phase of each state, its duration being the wall time of the phase.
+ */
+@Name("com.powsybl.flow_decomposition.Phase")
+@Label("Flow Decomposition Phase")
+@Category({"PowSyBl", "Flow Decomposition"})
+@StackTrace(false)
+class FlowDecompositionPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("State")
+    @Description("Contingency id of the state, empty for the base case")
+    String stateId;
+}
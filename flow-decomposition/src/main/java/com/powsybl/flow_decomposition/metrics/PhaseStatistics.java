@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of one phase over all the states in which it was measured. Wall times are also counted in a histogram
+ * whose bucket {@code i} holds the measures between 2^i and 2^(i+1) microseconds, the first bucket holding all measures
+ * below 2 microseconds.
+ */
+public final class PhaseStatistics {
+    public static final int HISTOGRAM_BUCKET_COUNT = 32;
+    private static final long NANOS_PER_MICRO = 1000L;
+    private long count = 0;
+    private long totalWallTimeNanos = 0;
+    private long maxWallTimeNanos = 0;
+    private final long[] wallTimeHistogram = new long[HISTOGRAM_BUCKET_COUNT];
+
+    PhaseStatistics() {
+    }
+
+    private PhaseStatistics(PhaseStatistics other) {
+        this.count = other.count;
+        this.totalWallTimeNanos = other.totalWallTimeNanos;
+        this.maxWallTimeNanos = other.maxWallTimeNanos;
+        System.arraycopy(other.wallTimeHistogram, 0, this.wallTimeHistogram, 0, HISTOGRAM_BUCKET_COUNT);
+    }
+
+    PhaseStatistics copy() {
+        return new PhaseStatistics(this);
+    }
+
+    void add(long wallTimeNanos) {
+        count++;
+        totalWallTimeNanos += wallTimeNanos;
+        maxWallTimeNanos = Math.max(maxWallTimeNanos, wallTimeNanos);
+        wallTimeHistogram[getBucket(wallTimeNanos)]++;
+    }
+
+    void add(PhaseStatistics other) {
+        count += other.count;
+        totalWallTimeNanos += other.totalWallTimeNanos;
+        maxWallTimeNanos = Math.max(maxWallTimeNanos, other.maxWallTimeNanos);
+        for (int bucket = 0; bucket < HISTOGRAM_BUCKET_COUNT; bucket++) {
+            wallTimeHistogram[bucket] += other.wallTimeHistogram[bucket];
+        }
+    }
+
+    static int getBucket(long wallTimeNanos) {
+        long micros = wallTimeNanos / NANOS_PER_MICRO;
+        int bucket = micros <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, HISTOGRAM_BUCKET_COUNT - 1);
+    }
+
+    /**
+     * @return number of measures, that is of states in which the phase ran.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalWallTimeNanos() {
+        return totalWallTimeNanos;
+    }
+
+    public long getMaxWallTimeNanos() {
+        return maxWallTimeNanos;
+    }
+
+    public double getMeanWallTimeNanos() {
+        return count == 0 ? 0. : (double) totalWallTimeNanos / count;
+    }
+
+    public long[] getWallTimeHistogram() {
+        return Arrays.copyOf(wallTimeHistogram, HISTOGRAM_BUCKET_COUNT);
+    }
+}
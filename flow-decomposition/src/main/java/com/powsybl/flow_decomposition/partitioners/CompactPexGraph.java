@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.flow_decomposition.NetworkUtil;
+import com.powsybl.iidm.network.BoundaryLine;
+import com.powsybl.iidm.network.Branch;
+import com.powsybl.iidm.network.Bus;
+import com.powsybl.iidm.network.Injection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.powsybl.flow_decomposition.partitioners.PexGraph.EPSILON_EDGE_POWER;
+import static com.powsybl.flow_decomposition.partitioners.PexGraph.EPSILON_VERTEX_POWER;
+
+/**
+ * PEX graph stored in primitive arrays, built from the network in a single pass.
+ * <p>
+ * Vertices and edges are numbered in the order {@link PexGraph} adds them: buses, then unpaired boundary lines, bus
+ * by bus. Edges are also indexed by source and by target in compressed sparse row form, so that the outgoing and
+ * incoming edges of a vertex are read without any lookup.
+ */
+final class CompactPexGraph {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactPexGraph.class);
+
+    private final String[] vertexIds;
+    private final double[] generations;
+    private final double[] loads;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final double[] edgeFlows;
+    private final int[] outgoingEdgeStarts;
+    private final int[] outgoingEdges;
+    private final int[] incomingEdgeStarts;
+    private final int[] incomingEdges;
+
+    private CompactPexGraph(String[] vertexIds, double[] generations, double[] loads, int[] edgeSources, int[] edgeTargets, double[] edgeFlows) {
+        this.vertexIds = vertexIds;
+        this.generations = generations;
+        this.loads = loads;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.edgeFlows = edgeFlows;
+        this.outgoingEdgeStarts = new int[vertexIds.length + 1];
+        this.outgoingEdges = new int[edgeSources.length];
+        this.incomingEdgeStarts = new int[vertexIds.length + 1];
+        this.incomingEdges = new int[edgeSources.length];
+        indexEdges(edgeSources, outgoingEdgeStarts, outgoingEdges);
+        indexEdges(edgeTargets, incomingEdgeStarts, incomingEdges);
+        checkGraph();
+    }
+
+    static CompactPexGraph build(List<Bus> buses, List<Branch<?>> branches) {
+        return build(buses, branches, PexGraph.InjectionStrategy.SUM_INJECTIONS);
+    }
+
+    static CompactPexGraph build(List<Bus> buses, List<Branch<?>> branches, PexGraph.InjectionStrategy injectionStrategy) {
+        Builder builder = new Builder(buses.size(), branches.size());
+        Map<String, Integer> vertexPerBusId = new HashMap<>();
+        for (Bus bus : buses) {
+            vertexPerBusId.put(bus.getId(), builder.addBusVertex(bus, injectionStrategy));
+        }
+        for (Branch<?> branch : branches) {
+            double flow = branch.getTerminal1().getP();
+            if (Double.isNaN(flow)) {
+                LOGGER.debug("Branch {} filtered because of a flow NA", branch.getId());
+            } else if (Math.abs(flow) < EPSILON_EDGE_POWER) {
+                LOGGER.debug("Branch {} filtered because of a flow too low : {} MW", branch.getId(), flow);
+            } else {
+                int vertex1 = getBusVertex(vertexPerBusId, branch.getTerminal1().getBusView().getBus());
+                int vertex2 = getBusVertex(vertexPerBusId, branch.getTerminal2().getBusView().getBus());
+                builder.addEdge(flow > 0 ? vertex1 : vertex2, flow > 0 ? vertex2 : vertex1, Math.abs(flow));
+            }
+        }
+        for (Bus bus : buses) {
+            int busVertex = vertexPerBusId.get(bus.getId());
+            NetworkUtil.getUnpairedXNodeStream(bus).forEach(boundaryLine -> {
+                double flow = boundaryLine.getTerminal().getP();
+                if (Double.isNaN(flow)) {
+                    LOGGER.debug("Unpaired boundary line {} filtered because of a flow NA", boundaryLine.getId());
+                } else if (Math.abs(flow) < EPSILON_EDGE_POWER) {
+                    LOGGER.debug("Unpaired boundary line {} filtered because of a flow too low : {} MW", boundaryLine.getId(), flow);
+                } else {
+                    int boundaryVertex = builder.addBoundaryVertex(boundaryLine);
+                    builder.addEdge(flow > 0 ? busVertex : boundaryVertex, flow > 0 ? boundaryVertex : busVertex, Math.abs(flow));
+                }
+            });
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copies a graph built with JGraphT, keeping the iteration order of its vertices and edges.
+     */
+    static CompactPexGraph of(PexGraph pexGraph) {
+        Builder builder = new Builder(pexGraph.vertexSet().size(), pexGraph.edgeSet().size());
+        Map<PexGraphVertex, Integer> vertexIndex = new HashMap<>();
+        for (PexGraphVertex vertex : pexGraph.vertexSet()) {
+            vertexIndex.put(vertex, builder.addVertex(vertex.getId(), vertex.getAssociatedGeneration(), vertex.getAssociatedLoad()));
+        }
+        for (PexGraphEdge edge : pexGraph.edgeSet()) {
+            builder.addEdge(vertexIndex.get(pexGraph.getEdgeSource(edge)), vertexIndex.get(pexGraph.getEdgeTarget(edge)), edge.getAssociatedFlow());
+        }
+        return builder.build();
+    }
+
+    private static int getBusVertex(Map<String, Integer> vertexPerBusId, Bus bus) {
+        Integer vertex = vertexPerBusId.get(bus.getId());
+        if (vertex == null) {
+            throw new PowsyblException("Bus " + bus.getId() + " is not a vertex of the PEX graph");
+        }
+        return vertex;
+    }
+
+    private static void indexEdges(int[] edgeVertices, int[] starts, int[] edges) {
+        for (int vertex : edgeVertices) {
+            starts[vertex + 1]++;
+        }
+        for (int vertex = 0; vertex < starts.length - 1; vertex++) {
+            starts[vertex + 1] += starts[vertex];
+        }
+        int[] positions = Arrays.copyOf(starts, starts.length - 1);
+        for (int edge = 0; edge < edgeVertices.length; edge++) {
+            edges[positions[edgeVertices[edge]]++] = edge;
+        }
+    }
+
+    private void checkGraph() {
+        double[] nodalGenerations = Arrays.copyOf(generations, generations.length);
+        double[] nodalLoads = Arrays.copyOf(loads, loads.length);
+        for (int edge = 0; edge < edgeFlows.length; edge++) {
+            nodalGenerations[edgeTargets[edge]] += edgeFlows[edge];
+            nodalLoads[edgeSources[edge]] += edgeFlows[edge];
+        }
+        for (int vertex = 0; vertex < vertexIds.length; vertex++) {
+            if (Math.abs(nodalGenerations[vertex] - nodalLoads[vertex]) > EPSILON_VERTEX_POWER) {
+                throw new PowsyblException("Nodal generation and load do not match for vertex associated with bus: " + vertexIds[vertex]);
+            }
+        }
+    }
+
+    /**
+     * @return vertices in a topological order of the graph, or null if the graph has a directed cycle.
+     */
+    int[] computeTopologicalOrder() {
+        int vertexCount = vertexIds.length;
+        int[] inDegrees = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            inDegrees[vertex] = incomingEdgeStarts[vertex + 1] - incomingEdgeStarts[vertex];
+        }
+        int[] order = new int[vertexCount];
+        int orderLength = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (inDegrees[vertex] == 0) {
+                order[orderLength++] = vertex;
+            }
+        }
+        for (int k = 0; k < orderLength; k++) {
+            int vertex = order[k];
+            for (int p = outgoingEdgeStarts[vertex]; p < outgoingEdgeStarts[vertex + 1]; p++) {
+                int target = edgeTargets[outgoingEdges[p]];
+                if (--inDegrees[target] == 0) {
+                    order[orderLength++] = target;
+                }
+            }
+        }
+        return orderLength == vertexCount ? order : null;
+    }
+
+    int getVertexCount() {
+        return vertexIds.length;
+    }
+
+    int getEdgeCount() {
+        return edgeSources.length;
+    }
+
+    List<String> getVertexIds() {
+        return Arrays.asList(vertexIds);
+    }
+
+    double getGeneration(int vertex) {
+        return generations[vertex];
+    }
+
+    double getLoad(int vertex) {
+        return loads[vertex];
+    }
+
+    int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    double getEdgeFlow(int edge) {
+        return edgeFlows[edge];
+    }
+
+    /**
+     * Incoming edges of vertex v are incomingEdges[incomingEdgeStarts[v]] to incomingEdges[incomingEdgeStarts[v + 1] - 1].
+     */
+    int[] getIncomingEdgeStarts() {
+        return incomingEdgeStarts;
+    }
+
+    int[] getIncomingEdges() {
+        return incomingEdges;
+    }
+
+    private static final class Builder {
+        private String[] vertexIds;
+        private double[] generations;
+        private double[] loads;
+        private int vertexCount;
+        private int[] edgeSources;
+        private int[] edgeTargets;
+        private double[] edgeFlows;
+        private int edgeCount;
+
+        private Builder(int vertexCapacity, int edgeCapacity) {
+            this.vertexIds = new String[Math.max(1, vertexCapacity)];
+            this.generations = new double[vertexIds.length];
+            this.loads = new double[vertexIds.length];
+            this.edgeSources = new int[Math.max(1, edgeCapacity)];
+            this.edgeTargets = new int[edgeSources.length];
+            this.edgeFlows = new double[edgeSources.length];
+        }
+
+        private int addBusVertex(Bus bus, PexGraph.InjectionStrategy injectionStrategy) {
+            double totalGeneration = 0;
+            double totalLoad = 0;
+            for (Injection<?> injection : NetworkUtil.getInjectionStream(bus).toList()) {
+                double power = injection.getTerminal().getP();
+                if (power < 0) {
+                    totalGeneration -= power;
+                } else if (power > 0) {
+                    totalLoad += power;
+                }
+            }
+            return switch (injectionStrategy) {
+                case SUM_INJECTIONS -> addVertex(bus.getId(), Math.max(0, totalGeneration - totalLoad), Math.max(0, totalLoad - totalGeneration));
+                case DECOMPOSE_INJECTIONS -> addVertex(bus.getId(), totalGeneration, totalLoad);
+            };
+        }
+
+        private int addBoundaryVertex(BoundaryLine boundaryLine) {
+            double power = boundaryLine.getTerminal().getP();
+            return addVertex(boundaryLine.getId(), Math.max(0, -power), Math.max(0, power));
+        }
+
+        private int addVertex(String id, double generation, double load) {
+            if (vertexCount == vertexIds.length) {
+                vertexIds = Arrays.copyOf(vertexIds, 2 * vertexCount);
+                generations = Arrays.copyOf(generations, 2 * vertexCount);
+                loads = Arrays.copyOf(loads, 2 * vertexCount);
+            }
+            vertexIds[vertexCount] = id;
+            generations[vertexCount] = generation;
+            loads[vertexCount] = load;
+            return vertexCount++;
+        }
+
+        private void addEdge(int source, int target, double flow) {
+            if (edgeCount == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, 2 * edgeCount);
+                edgeTargets = Arrays.copyOf(edgeTargets, 2 * edgeCount);
+                edgeFlows = Arrays.copyOf(edgeFlows, 2 * edgeCount);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeFlows[edgeCount] = flow;
+            edgeCount++;
+        }
+
+        private CompactPexGraph build() {
+            return new CompactPexGraph(Arrays.copyOf(vertexIds, vertexCount), Arrays.copyOf(generations, vertexCount), Arrays.copyOf(loads, vertexCount),
+                Arrays.copyOf(edgeSources, edgeCount), Arrays.copyOf(edgeTargets, edgeCount), Arrays.copyOf(edgeFlows, edgeCount));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PTDF and PSDF values of several network states, computed by a single sensitivity analysis over a list of contingencies.
+ * Values are stored as primitive triplets per state and are turned into state matrices on demand.
+ *
+ * @see ContingencySensitivityAnalyser
+ */
+public final class ContingencySensitivities {
+    public static final String BASE_CASE_ID = "";
+    private final Map<String, StateSensitivities> sensitivitiesPerState = new ConcurrentHashMap<>();
+
+    ContingencySensitivities(List<String> stateIds, List<String> functionIds, List<String> nodeIds, List<String> pstIds) {
+        stateIds.forEach(stateId -> sensitivitiesPerState.put(stateId,
+            new StateSensitivities(new SensitivityValues(functionIds, nodeIds), new SensitivityValues(functionIds, pstIds))));
+    }
+
+    StateSensitivities get(String stateId) {
+        return sensitivitiesPerState.get(stateId);
+    }
+
+    /**
+     * Removes the sensitivities of a state from this container, so that they can be released once the state is decomposed.
+     *
+     * @param stateId contingency id of the state, empty for the base case.
+     * @return the sensitivities of the state, empty if the state was not computed or if its computation failed.
+     */
+    public Optional<StateSensitivities> take(String stateId) {
+        return Optional.ofNullable(sensitivitiesPerState.remove(stateId))
+            .filter(stateSensitivities -> !stateSensitivities.failed);
+    }
+
+    public static final class StateSensitivities {
+        private final SensitivityValues ptdfValues;
+        private final SensitivityValues psdfValues;
+        private boolean failed = false;
+
+        private StateSensitivities(SensitivityValues ptdfValues, SensitivityValues psdfValues) {
+            this.ptdfValues = ptdfValues;
+            this.psdfValues = psdfValues;
+        }
+
+        SensitivityValues getPtdfValues() {
+            return ptdfValues;
+        }
+
+        SensitivityValues getPsdfValues() {
+            return psdfValues;
+        }
+
+        void setFailed() {
+            this.failed = true;
+        }
+
+        SparseMatrixWithIndexesTriplet getPtdfMatrix(NetworkMatrixIndexes networkMatrixIndexes, double epsilon) {
+            return ptdfValues.toTriplet(networkMatrixIndexes.getXnecIndex(), networkMatrixIndexes.getNodeIndex(), epsilon);
+        }
+
+        SparseMatrixWithIndexesTriplet getPsdfMatrix(NetworkMatrixIndexes networkMatrixIndexes, double epsilon) {
+            return psdfValues.toTriplet(networkMatrixIndexes.getXnecIndex(), networkMatrixIndexes.getPstIndex(), epsilon);
+        }
+    }
+
+    /**
+     * Growable list of (function, variable, value) triplets, functions and variables being indexes in shared id lists.
+     */
+    static final class SensitivityValues {
+        private static final int INITIAL_CAPACITY = 16;
+        private final List<String> functionIds;
+        private final List<String> variableIds;
+        private int[] functions = new int[INITIAL_CAPACITY];
+        private int[] variables = new int[INITIAL_CAPACITY];
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size = 0;
+
+        SensitivityValues(List<String> functionIds, List<String> variableIds) {
+            this.functionIds = functionIds;
+            this.variableIds = variableIds;
+        }
+
+        void add(int function, int variable, double value) {
+            if (size == values.length) {
+                int capacity = 2 * size;
+                functions = Arrays.copyOf(functions, capacity);
+                variables = Arrays.copyOf(variables, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            functions[size] = function;
+            variables[size] = variable;
+            values[size] = value;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Variables that are not part of the state, such as injections disconnected by the contingency, are ignored.
+         */
+        SparseMatrixWithIndexesTriplet toTriplet(Map<String, Integer> rowIndex, Map<String, Integer> colIndex, double epsilon) {
+            SparseMatrixWithIndexesTriplet triplet = new SparseMatrixWithIndexesTriplet(rowIndex, colIndex, size, epsilon);
+            for (int i = 0; i < size; i++) {
+                String functionId = functionIds.get(functions[i]);
+                String variableId = variableIds.get(variables[i]);
+                if (rowIndex.containsKey(functionId) && colIndex.containsKey(variableId)) {
+                    triplet.addItem(functionId, variableId, values[i]);
+                }
+            }
+            return triplet;
+        }
+    }
+}
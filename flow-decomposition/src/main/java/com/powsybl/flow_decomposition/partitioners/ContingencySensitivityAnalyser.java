@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.contingency.Contingency;
+import com.powsybl.contingency.ContingencyContext;
+import com.powsybl.flow_decomposition.AbstractSensitivityAnalyser;
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.NetworkUtil;
+import com.powsybl.iidm.network.Branch;
+import com.powsybl.iidm.network.Identifiable;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowParameters;
+import com.powsybl.sensitivity.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the PTDF and PSDF of the base case and of all contingency states with one sensitivity analysis per
+ * variable batch, injections and PSTs being requested together, using the contingency support of the sensitivity
+ * analysis instead of a network variant per state.
+ * The contingency index given by the sensitivity analysis routes each value to the matrices of its state.
+ *
+ * @see ContingencySensitivities
+ */
+public class ContingencySensitivityAnalyser extends AbstractSensitivityAnalyser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContingencySensitivityAnalyser.class);
+    private static final boolean SENSITIVITY_VARIABLE_SET = false;
+    private static final int BASE_CASE_CONTINGENCY_INDEX = -1;
+    private final FlowDecompositionParameters parameters;
+    private final Network network;
+
+    public ContingencySensitivityAnalyser(LoadFlowParameters loadFlowParameters,
+                                          FlowDecompositionParameters parameters,
+                                          SensitivityAnalysis.Runner runner,
+                                          Network network) {
+        super(loadFlowParameters, runner);
+        this.parameters = parameters;
+        this.network = network;
+    }
+
+    /**
+     * @param baseCaseXnecs        XNECs of the base case, may be empty.
+     * @param xnecsPerContingency  XNECs of each contingency state.
+     * @param contingencies        contingencies of the states.
+     * @return PTDF and PSDF values of every state holding at least one XNEC, the base case being identified by an empty id.
+     */
+    public ContingencySensitivities run(Set<Branch<?>> baseCaseXnecs,
+                                        Map<String, Set<Branch<?>>> xnecsPerContingency,
+                                        List<Contingency> contingencies) {
+        Map<String, Contingency> contingencyById = contingencies.stream()
+            .collect(Collectors.toMap(Contingency::getId, Function.identity()));
+        Map<String, Set<Branch<?>>> xnecsPerState = new LinkedHashMap<>();
+        if (!baseCaseXnecs.isEmpty()) {
+            xnecsPerState.put(ContingencySensitivities.BASE_CASE_ID, baseCaseXnecs);
+        }
+        xnecsPerContingency.forEach((contingencyId, xnecs) -> {
+            if (!xnecs.isEmpty() && contingencyById.containsKey(contingencyId)) {
+                xnecsPerState.put(contingencyId, xnecs);
+            }
+        });
+        ContingencyStates states = new ContingencyStates(xnecsPerState, contingencyById);
+        List<String> nodeIds = NetworkUtil.getNodeList(network).stream().map(Identifiable::getId).toList();
+        List<String> pstIds = NetworkUtil.getPstIdList(network);
+        ContingencySensitivities sensitivities = new ContingencySensitivities(states.stateIds, states.functionIds, nodeIds, pstIds);
+        if (states.stateIds.isEmpty()) {
+            return sensitivities;
+        }
+        LOGGER.info("Computing PTDF and PSDF of {} states with {} contingencies", states.stateIds.size(), states.contingencies.size());
+        fill(states, sensitivities, nodeIds, pstIds);
+        return sensitivities;
+    }
+
+    /**
+     * Runs the sensitivity analyses of all variables, the injections being followed by the PSTs so that a batch may
+     * hold both variable types and each batch is a single sensitivity analysis.
+     */
+    private void fill(ContingencyStates states,
+                      ContingencySensitivities sensitivities,
+                      List<String> nodeIds,
+                      List<String> pstIds) {
+        List<String> variableIds = new ArrayList<>(nodeIds.size() + pstIds.size());
+        variableIds.addAll(nodeIds);
+        variableIds.addAll(pstIds);
+        int injectionCount = nodeIds.size();
+        List<ContingencySensitivities.StateSensitivities> sensitivitiesPerState = states.stateIds.stream()
+            .map(sensitivities::get)
+            .toList();
+        int batchSize = parameters.getSensitivityVariableBatchSize();
+        for (int i = 0; i < variableIds.size(); i += batchSize) {
+            VariableBatch batch = new VariableBatch(states, i, Math.min(variableIds.size(), i + batchSize));
+            runSensitivityAnalysis(network,
+                getSensitivityFactorReader(states, variableIds, injectionCount, batch),
+                getSensitivityResultWriter(states, sensitivities, sensitivitiesPerState, injectionCount, batch),
+                SensitivityAnalyser.EMPTY_SENSITIVITY_VARIABLE_SETS,
+                states.contingencies);
+        }
+    }
+
+    private static SensitivityFactorReader getSensitivityFactorReader(ContingencyStates states,
+                                                                      List<String> variableIds,
+                                                                      int injectionCount,
+                                                                      VariableBatch batch) {
+        return handler -> {
+            for (int state = 0; state < states.stateIds.size(); state++) {
+                ContingencyContext contingencyContext = states.getContingencyContext(state);
+                int[] functions = states.functionsPerState.get(state);
+                for (int variable = batch.start; variable < batch.end; variable++) {
+                    SensitivityVariableType sensitivityVariableType = variable < injectionCount
+                        ? SensitivityVariableType.INJECTION_ACTIVE_POWER
+                        : SensitivityVariableType.TRANSFORMER_PHASE;
+                    for (int function : functions) {
+                        handler.onFactor(SENSITIVITY_FUNCTION_TYPE,
+                            states.functionIds.get(function),
+                            sensitivityVariableType,
+                            variableIds.get(variable),
+                            SENSITIVITY_VARIABLE_SET,
+                            contingencyContext);
+                    }
+                }
+            }
+        };
+    }
+
+    private SensitivityResultWriter getSensitivityResultWriter(ContingencyStates states,
+                                                               ContingencySensitivities sensitivities,
+                                                               List<ContingencySensitivities.StateSensitivities> sensitivitiesPerState,
+                                                               int injectionCount,
+                                                               VariableBatch batch) {
+        double epsilon = parameters.getSensitivityEpsilon();
+        return new SensitivityResultWriter() {
+            @Override
+            public void writeSensitivityValue(int factorIndex, int contingencyIndex, int operatorStrategyIndex, double value, double functionReference) {
+                int state = states.getState(contingencyIndex);
+                double sensitivity = SensitivityAnalyser.respectFlowSignConvention(value, functionReference);
+                if (!Double.isNaN(sensitivity) && Math.abs(sensitivity) > epsilon) {
+                    // Factors of a state are ordered variable first, then function
+                    int[] functions = states.functionsPerState.get(state);
+                    int localIndex = factorIndex - batch.stateOffsets[state];
+                    int function = functions[localIndex % functions.length];
+                    int variable = batch.start + localIndex / functions.length;
+                    ContingencySensitivities.StateSensitivities stateSensitivities = sensitivitiesPerState.get(state);
+                    if (variable < injectionCount) {
+                        stateSensitivities.getPtdfValues().add(function, variable, sensitivity);
+                    } else {
+                        stateSensitivities.getPsdfValues().add(function, variable - injectionCount, sensitivity);
+                    }
+                }
+            }
+
+            @Override
+            public void writeStateStatus(int contingencyIndex, int operatorStrategyIndex, SensitivityAnalysisResult.Status status) {
+                if (status == SensitivityAnalysisResult.Status.FAILURE) {
+                    String stateId = states.stateIds.get(states.getState(contingencyIndex));
+                    LOGGER.warn("Sensitivity analysis failed for state '{}', its PTDF and PSDF will be computed on its own variant", stateId);
+                    sensitivities.get(stateId).setFailed();
+                }
+            }
+        };
+    }
+
+    private static final class ContingencyStates {
+        private final List<String> stateIds;
+        private final List<Contingency> contingencies;
+        private final List<String> functionIds;
+        private final List<int[]> functionsPerState;
+        private final boolean hasBaseCase;
+
+        private ContingencyStates(Map<String, Set<Branch<?>>> xnecsPerState, Map<String, Contingency> contingencyById) {
+            this.stateIds = List.copyOf(xnecsPerState.keySet());
+            this.hasBaseCase = xnecsPerState.containsKey(ContingencySensitivities.BASE_CASE_ID);
+            this.contingencies = stateIds.stream()
+                .filter(stateId -> !ContingencySensitivities.BASE_CASE_ID.equals(stateId))
+                .map(contingencyById::get)
+                .toList();
+            this.functionIds = xnecsPerState.values().stream()
+                .flatMap(Set::stream)
+                .map(Identifiable::getId)
+                .distinct()
+                .toList();
+            Map<String, Integer> functionIndex = NetworkUtil.getIndex(functionIds);
+            this.functionsPerState = xnecsPerState.values().stream()
+                .map(xnecs -> xnecs.stream().map(Identifiable::getId).mapToInt(functionIndex::get).toArray())
+                .toList();
+        }
+
+        private int getState(int contingencyIndex) {
+            if (contingencyIndex == BASE_CASE_CONTINGENCY_INDEX) {
+                return 0;
+            }
+            return hasBaseCase ? contingencyIndex + 1 : contingencyIndex;
+        }
+
+        private ContingencyContext getContingencyContext(int state) {
+            String stateId = stateIds.get(state);
+            return ContingencySensitivities.BASE_CASE_ID.equals(stateId) ? ContingencyContext.none() : ContingencyContext.specificContingency(stateId);
+        }
+    }
+
+    /**
+     * Range of variables of one sensitivity analysis, with the index of the first factor of each state.
+     */
+    private static final class VariableBatch {
+        private final int start;
+        private final int end;
+        private final int[] stateOffsets;
+
+        private VariableBatch(ContingencyStates states, int start, int end) {
+            this.start = start;
+            this.end = end;
+            this.stateOffsets = new int[states.stateIds.size()];
+            int offset = 0;
+            for (int state = 0; state < stateOffsets.length; state++) {
+                stateOffsets[state] = offset;
+                offset += (end - start) * states.functionsPerState.get(state).length;
+            }
+        }
+    }
+}
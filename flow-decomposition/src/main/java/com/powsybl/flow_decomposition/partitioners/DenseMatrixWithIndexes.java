@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.commons.PowsyblException;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Dense matrix indexed by row and column ids, stored row by row. Used for sensitivity matrices in which most values
+ * are stored anyway, where it takes a double per value instead of the coordinates and the value of the sparse formats.
+ * Values of distinct columns may be added concurrently, as they are written in distinct cells.
+ */
+class DenseMatrixWithIndexes implements IndexedMatrixWriter {
+    private static final double NO_FILTERING_EPSILON = -1;
+    /**
+     * Rows of the left matrix multiplied by a single task.
+     */
+    static final int ROW_BLOCK_SIZE = 64;
+    /**
+     * Stored values of a right column multiplied by all rows of a block before moving to the next values, so that
+     * they stay in cache. 4096 values and their rows take 48 kB.
+     */
+    static final int NON_ZERO_BLOCK_SIZE = 4096;
+
+    private final Map<String, Integer> rowIndex;
+    private final Map<String, Integer> colIndex;
+    private final double[][] rows;
+    private final double epsilon;
+
+    DenseMatrixWithIndexes(Map<String, Integer> rowIndex, Map<String, Integer> colIndex, double epsilon) {
+        this.rowIndex = rowIndex;
+        this.colIndex = colIndex;
+        this.rows = new double[rowIndex.size()][colIndex.size()];
+        this.epsilon = epsilon;
+    }
+
+    DenseMatrixWithIndexes(Map<String, Integer> rowIndex, Map<String, Integer> colIndex) {
+        this(rowIndex, colIndex, NO_FILTERING_EPSILON);
+    }
+
+    @Override
+    public void addItem(int row, int col, double value) {
+        if (!Double.isNaN(value) && Math.abs(value) > epsilon) {
+            rows[row][col] += value;
+        }
+    }
+
+    double get(int row, int col) {
+        return rows[row][col];
+    }
+
+    /**
+     * @return a sparse copy of this matrix, storing its non-zero values.
+     */
+    SparseMatrixWithIndexesCSC toCSCMatrix() {
+        int colCount = colIndex.size();
+        boolean[][] stored = new boolean[rows.length][colCount];
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < colCount; col++) {
+                stored[row][col] = rows[row][col] != 0;
+            }
+        }
+        return new SparseMatrixWithIndexesCSC(rowIndex, colIndex, toCscMatrix(rows, stored, colCount));
+    }
+
+    /**
+     * Multiplies a dense matrix by a sparse one. Blocks of rows are multiplied concurrently, each block visiting the
+     * stored values of the right matrix column by column.
+     *
+     * @return the product, as a sparse matrix keeping values to which at least one non-zero left value contributed.
+     */
+    static SparseMatrixWithIndexesCSC mult(DenseMatrixWithIndexes left, SparseMatrixWithIndexesCSC right) {
+        DMatrixSparseCSC rightMatrix = right.getCscMatrix();
+        if (left.colIndex.size() != rightMatrix.numRows) {
+            throw new PowsyblException(String.format("Cannot multiply a %d columns matrix by a %d rows matrix", left.colIndex.size(), rightMatrix.numRows));
+        }
+        int rowCount = left.rows.length;
+        double[][] values = new double[rowCount][rightMatrix.numCols];
+        boolean[][] stored = new boolean[rowCount][rightMatrix.numCols];
+        IntStream.range(0, Math.ceilDiv(rowCount, ROW_BLOCK_SIZE))
+            .parallel()
+            .forEach(block -> multRowBlock(left.rows, rightMatrix, values, stored, block * ROW_BLOCK_SIZE, Math.min(rowCount, (block + 1) * ROW_BLOCK_SIZE)));
+        return new SparseMatrixWithIndexesCSC(left.rowIndex, right.colIndex, toCscMatrix(values, stored, rightMatrix.numCols));
+    }
+
+    private static void multRowBlock(double[][] leftRows, DMatrixSparseCSC rightMatrix, double[][] values, boolean[][] stored, int rowStart, int rowEnd) {
+        int[] colIdx = rightMatrix.col_idx;
+        int[] nzRows = rightMatrix.nz_rows;
+        double[] nzValues = rightMatrix.nz_values;
+        for (int col = 0; col < rightMatrix.numCols; col++) {
+            for (int blockStart = colIdx[col]; blockStart < colIdx[col + 1]; blockStart += NON_ZERO_BLOCK_SIZE) {
+                int blockEnd = Math.min(colIdx[col + 1], blockStart + NON_ZERO_BLOCK_SIZE);
+                for (int row = rowStart; row < rowEnd; row++) {
+                    double[] leftRow = leftRows[row];
+                    double sum = 0;
+                    int contributionCount = 0;
+                    for (int i = blockStart; i < blockEnd; i++) {
+                        double leftValue = leftRow[nzRows[i]];
+                        sum += leftValue * nzValues[i];
+                        contributionCount += leftValue != 0 ? 1 : 0;
+                    }
+                    values[row][col] += sum;
+                    stored[row][col] |= contributionCount > 0;
+                }
+            }
+        }
+    }
+
+    private static DMatrixSparseCSC toCscMatrix(double[][] values, boolean[][] stored, int colCount) {
+        int nonZeroCount = 0;
+        for (boolean[] storedRow : stored) {
+            for (boolean isStored : storedRow) {
+                nonZeroCount += isStored ? 1 : 0;
+            }
+        }
+        DMatrixSparseCSC cscMatrix = new DMatrixSparseCSC(values.length, colCount, nonZeroCount);
+        int index = 0;
+        for (int col = 0; col < colCount; col++) {
+            cscMatrix.col_idx[col] = index;
+            for (int row = 0; row < values.length; row++) {
+                if (stored[row][col]) {
+                    cscMatrix.nz_rows[index] = row;
+                    cscMatrix.nz_values[index] = values[row][col];
+                    index++;
+                }
+            }
+        }
+        cscMatrix.col_idx[colCount] = index;
+        cscMatrix.nz_length = index;
+        cscMatrix.indicesSorted = true;
+        return cscMatrix;
+    }
+}
@@ -45,7 +45,7 @@ public class DirectSensitivityPartitioner implements FlowPartitioner {
     public Map<String, FlowPartition> computeFlowPartitions(Network network, Set<Branch<?>> xnecs, Map<Country, Double> netPositions, Map<Country, Map<String, Double>> glsks) {
         LOGGER.warn("Using fast mode of flow decomposition, detailed info (as nodal PTDF and PSDF matrices) won't be reported");
         NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, new ArrayList<>(xnecs));
-        SparseMatrixWithIndexesTriplet nodalInjectionsMatrix = getNodalInjectionsMatrix(network, netPositions,
+        SparseMatrixWithIndexesCSC nodalInjectionsMatrix = getNodalInjectionsMatrix(network, netPositions,
             networkMatrixIndexes, glsks);
         FastModeSensitivityAnalyser sensitivityAnalyser = new FastModeSensitivityAnalyser(loadFlowParameters, sensitivityAnalysisRunner, network, xnecs, nodalInjectionsMatrix);
         Map<String, Map<String, Double>> decomposedFlow = sensitivityAnalyser.run();
@@ -55,13 +55,15 @@ public class DirectSensitivityPartitioner implements FlowPartitioner {
         ));
     }
 
-    private SparseMatrixWithIndexesTriplet getNodalInjectionsMatrix(Network network,
-                                                                    Map<Country, Double> netPositions,
-                                                                    NetworkMatrixIndexes networkMatrixIndexes,
-                                                                    Map<Country, Map<String, Double>> glsks) {
+    private SparseMatrixWithIndexesCSC getNodalInjectionsMatrix(Network network,
+                                                                Map<Country, Double> netPositions,
+                                                                NetworkMatrixIndexes networkMatrixIndexes,
+                                                                Map<Country, Map<String, Double>> glsks) {
         NodalInjectionComputer nodalInjectionComputer = new NodalInjectionComputer(networkMatrixIndexes);
-        SparseMatrixWithIndexesTriplet nodalInjectionsMatrix = nodalInjectionComputer.run(network, glsks, netPositions);
-        observers.computedNodalInjectionsMatrix(nodalInjectionsMatrix.toMap());
+        SparseMatrixWithIndexesCSC nodalInjectionsMatrix = nodalInjectionComputer.run(network, glsks, netPositions).toCSCMatrix();
+        if (!observers.getObservers().isEmpty()) {
+            observers.computedNodalInjectionsMatrix(nodalInjectionsMatrix.view());
+        }
         return nodalInjectionsMatrix;
     }
 
@@ -7,17 +7,14 @@
  */
 package com.powsybl.flow_decomposition.partitioners;
 
-import com.google.common.collect.Streams;
 import com.powsybl.commons.PowsyblException;
 import com.powsybl.contingency.ContingencyContext;
 import com.powsybl.flow_decomposition.AbstractSensitivityAnalyser;
-import com.powsybl.flow_decomposition.FunctionVariableFactor;
 import com.powsybl.flow_decomposition.NetworkUtil;
 import com.powsybl.iidm.network.*;
 import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.sensitivity.*;
 import org.ejml.data.DMatrixSparseCSC;
-import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,13 +28,16 @@ import static com.powsybl.flow_decomposition.DecomposedFlow.*;
  */
 public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
     private static final Logger LOGGER = LoggerFactory.getLogger(FastFLDSensitivityAnalyser.class);
+    // Flow part codes, loop flows of the network countries coming after these ones
+    private static final int ALLOCATED_FLOW_PART = 1;
+    private static final int XNODE_FLOW_PART = 2;
     private final Network network;
     private final List<String> xnecIds;
     private final DMatrixSparseCSC pexMatrix;
     private final String[] vertexIds;
     private final boolean[] isBusByVertexIndex;
     private final Country[] countriesByVertexPos;
-    private final String[] injByVertexId;
+    private final String[] variableIdByVertex;
 
     public FastFLDSensitivityAnalyser(LoadFlowParameters loadFlowParameters, SensitivityAnalysis.Runner runner, Network network, Set<Branch<?>> xnecs, Map<String, Integer> vertexIdMapping, DMatrixSparseCSC pexMatrix, List<Bus> busesInMainSynchronousComponent) {
         super(loadFlowParameters, runner);
@@ -53,11 +53,12 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
         this.vertexIds = new String[nVertex];
         this.isBusByVertexIndex = new boolean[nVertex];
         this.countriesByVertexPos = new Country[nVertex];
-        this.injByVertexId = new String[nVertex];
+        this.variableIdByVertex = new String[nVertex];
 
         vertexIdMapping.forEach((id, index) -> {
             this.vertexIds[index] = id;
-            this.injByVertexId[index] = anyInjectionOnBus.get(id);
+            // A bus vertex is shifted through any of its injections, an X node vertex is its own injection
+            this.variableIdByVertex[index] = anyInjectionOnBus.getOrDefault(id, id);
             Bus bus = idToBus.get(id);
             if (bus != null) {
                 this.isBusByVertexIndex[index] = true;
@@ -81,18 +82,22 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
 
     public Map<String, Map<String, Double>> run() {
         List<String> flowPartNameList = new ArrayList<>(List.of(PST_COLUMN_NAME, ALLOCATED_COLUMN_NAME, XNODE_COLUMN_NAME));
-        network.getCountries().forEach(country -> flowPartNameList.add(NetworkUtil.getLoopFlowIdFromCountry(country)));
+        int[] loopFlowPartByCountry = new int[Country.values().length];
+        Arrays.fill(loopFlowPartByCountry, -1);
+        network.getCountries().forEach(country -> {
+            loopFlowPartByCountry[country.ordinal()] = flowPartNameList.size();
+            flowPartNameList.add(NetworkUtil.getLoopFlowIdFromCountry(country));
+        });
         Map<String, Integer> flowPartIndex = NetworkUtil.getIndex(flowPartNameList);
         int nFlowPart = flowPartIndex.size();
         Map<String, Integer> xnecIndex = NetworkUtil.getIndex(xnecIds);
         int nXnec = xnecIndex.size();
 
-        Map<String, double[]> exchangePerFlowPart = buildExchangePerFlowPart(nFlowPart, flowPartIndex);
+        double[] exchangePerFlowPart = buildExchangePerFlowPart(nFlowPart, loopFlowPartByCountry);
 
         double[][] results = new double[nXnec][nFlowPart];
 
-        runSensitivityAnalysisAndFillResultsForPstFlow(flowPartIndex, xnecIndex, results);
-        runSensitivityAnalysisAndFillResultsForPex(exchangePerFlowPart, flowPartNameList, results);
+        runSensitivityAnalysisAndFillResults(flowPartIndex, exchangePerFlowPart, flowPartNameList, results);
 
         return xnecIds.stream()
             .collect(Collectors.toMap(
@@ -103,59 +108,64 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
                 ))));
     }
 
-    private void runSensitivityAnalysisAndFillResultsForPex(Map<String, double[]> exchangePerFlowPart, List<String> flowPartNameList, double[][] results) {
-        LOGGER.debug("Running sensitivity analysis for decomposed flow");
+    /**
+     * PST flows and decomposed flows are computed by a single sensitivity analysis, PST factors coming first.
+     */
+    private void runSensitivityAnalysisAndFillResults(Map<String, Integer> flowPartIndex, double[] exchangePerFlowPart,
+                                                      List<String> flowPartNameList, double[][] results) {
+        LOGGER.debug("Running sensitivity analysis for PST flow and decomposed flow");
+        List<String> pstIdList = NetworkUtil.getPstIdList(network);
+        SensitivityFactorReader factorReaderPst = new FastFLDPstSensitivityFactorReader(xnecIds, pstIdList);
+        SensitivityResultWriter valueWriterPst = new FastFLDPstSensitivityResultWriter(results, flowPartIndex.get(PST_COLUMN_NAME), getDeltaTaps(pstIdList));
+
         VariableSetBuildResult variableSetBuildResult = buildVariableSets(exchangePerFlowPart, flowPartNameList);
         GroupedFLDFactor[] groupedFactors = new GroupedFLDFactor[variableSetBuildResult.factorCount()];
         SensitivityFactorReader factorReader = new FastFLDGroupedSensitivityFactorReader(xnecIds, variableSetBuildResult.aggregations(), groupedFactors);
         SensitivityResultWriter valueWriter = new FastFLDGroupedSensitivityResultWriter(groupedFactors, results, variableSetBuildResult.aggregations());
-        runSensitivityAnalysis(network, factorReader, valueWriter, variableSetBuildResult.variableSets());
+
+        int pstFactorCount = xnecIds.size() * pstIdList.size();
+        runSensitivityAnalysis(network,
+            new CombinedSensitivityFactorReader(factorReaderPst, factorReader),
+            new CombinedSensitivityResultWriter(valueWriterPst, pstFactorCount, valueWriter),
+            variableSetBuildResult.variableSets());
     }
 
-    private void runSensitivityAnalysisAndFillResultsForPstFlow(Map<String, Integer> flowPartIndex, Map<String, Integer> xnecIndex, double[][] results) {
-        LOGGER.debug("Running sensitivity analysis for PST flow for variables");
-        List<FunctionVariableFactor> sensitivityFactorsPst = new ArrayList<>();
-        List<String> pstIdList = NetworkUtil.getPstIdList(network);
-        Map<String, PhaseTapChanger> phaseTapChangerMap = pstIdList.stream().collect(Collectors.toMap(pstId -> pstId, pstId -> network.getTwoWindingsTransformer(pstId).getPhaseTapChanger()));
-        SensitivityFactorReader factorReaderPst = new FastFLDPstSensitivityFactorReader(sensitivityFactorsPst, xnecIds, pstIdList);
-        SensitivityResultWriter valueWriterPst = new FastFLDPstSensitivityResultWriter(sensitivityFactorsPst, results, flowPartIndex.get(PST_COLUMN_NAME), xnecIndex, phaseTapChangerMap);
-        runSensitivityAnalysis(network, factorReaderPst, valueWriterPst, Collections.emptyList());
+    /**
+     * @return for each PST, the shift of its current tap from its neutral tap, the PST flow being its PSDF times this shift.
+     */
+    private double[] getDeltaTaps(List<String> pstIdList) {
+        double[] deltaTaps = new double[pstIdList.size()];
+        for (int pst = 0; pst < deltaTaps.length; pst++) {
+            PhaseTapChanger phaseTapChanger = network.getTwoWindingsTransformer(pstIdList.get(pst)).getPhaseTapChanger();
+            Optional<PhaseTapChangerStep> neutralStep = phaseTapChanger.getNeutralStep();
+            if (neutralStep.isPresent()) {
+                deltaTaps[pst] = phaseTapChanger.getCurrentStep().getAlpha() - neutralStep.get().getAlpha();
+            }
+        }
+        return deltaTaps;
     }
 
-    private @NonNull Map<String, double[]> buildExchangePerFlowPart(int nFlowPart, Map<String, Integer> flowPartIndex) {
+    private double[] buildExchangePerFlowPart(int nFlowPart, int[] loopFlowPartByCountry) {
         /*
-          This method builds a map that associates injections with flow parts.
+          This method builds the exchanges of each vertex per flow part, row by row in a single array.
           For each exchange between two vertices, the exchange can be categorized (loop flow, x node, etc., ...).
-          Exchanges are then added to the map.
-          This map will be used with PTDFs to compute decomposed flows.
+          Exchanges are then added to the source row and subtracted from the sink row.
+          These exchanges will be used with PTDFs to compute decomposed flows.
           **/
-        Map<String, double[]> exchangePerFlowPart = new HashMap<>();
-        Streams.stream(pexMatrix.createCoordinateIterator())
-            .forEach(coordinateAndExchange -> {
-                int sourceIndex = coordinateAndExchange.row;
-                int sinkIndex = coordinateAndExchange.col;
-                double exchangeBetweenFromAndTo = coordinateAndExchange.value;
-                String sourceInjId = getAssociatedInjectionIdOrXnodeId(sourceIndex);
-                String sinkInjId = getAssociatedInjectionIdOrXnodeId(sinkIndex);
-                String flowPartName = computeFlowPartName(sourceIndex, sinkIndex);
-                exchangePerFlowPart.computeIfAbsent(sourceInjId, s1 -> new double[nFlowPart])[flowPartIndex.get(flowPartName)] += exchangeBetweenFromAndTo;
-                exchangePerFlowPart.computeIfAbsent(sinkInjId, s -> new double[nFlowPart])[flowPartIndex.get(flowPartName)] -= exchangeBetweenFromAndTo;
-            });
+        double[] exchangePerFlowPart = new double[vertexIds.length * nFlowPart];
+        for (int sinkIndex = 0; sinkIndex < pexMatrix.numCols; sinkIndex++) {
+            for (int p = pexMatrix.col_idx[sinkIndex]; p < pexMatrix.col_idx[sinkIndex + 1]; p++) {
+                int sourceIndex = pexMatrix.nz_rows[p];
+                double exchangeBetweenFromAndTo = pexMatrix.nz_values[p];
+                int flowPart = computeFlowPart(sourceIndex, sinkIndex, loopFlowPartByCountry);
+                exchangePerFlowPart[sourceIndex * nFlowPart + flowPart] += exchangeBetweenFromAndTo;
+                exchangePerFlowPart[sinkIndex * nFlowPart + flowPart] -= exchangeBetweenFromAndTo;
+            }
+        }
         return exchangePerFlowPart;
     }
 
-    private String getAssociatedInjectionIdOrXnodeId(int vertexIndex) {
-        /*
-          In the graph, a vertex can be a bus or an x node.
-          If the vertex is a bus, an associated injection can be found.
-          If the vertex is an x node, it has no associated injection; the injection is the x node.
-         */
-        String nullableInjectionForVertex = injByVertexId[vertexIndex];
-        String vertexId = vertexIds[vertexIndex];
-        return Optional.ofNullable(nullableInjectionForVertex).orElse(vertexId);
-    }
-
-    private String computeFlowPartName(int sourceIndex, int sinkIndex) {
+    private int computeFlowPart(int sourceIndex, int sinkIndex, int[] loopFlowPartByCountry) {
         if (isBusByVertexIndex[sourceIndex] && isBusByVertexIndex[sinkIndex]) {
             Country sourceCountry = countriesByVertexPos[sourceIndex];
             Country sinkCountry = countriesByVertexPos[sinkIndex];
@@ -164,22 +174,23 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
                 String sinkVertexId = vertexIds[sinkIndex];
                 throw new PowsyblException(String.format("Cannot compute loop flow for bus %s and %s because of invalid country", sourceVertexId, sinkVertexId));
             }
-            if (sourceCountry.equals(sinkCountry)) {
-                return NetworkUtil.getLoopFlowIdFromCountry(sourceCountry);
+            if (sourceCountry == sinkCountry) {
+                return loopFlowPartByCountry[sourceCountry.ordinal()];
             } else {
-                return ALLOCATED_COLUMN_NAME;
+                return ALLOCATED_FLOW_PART;
             }
         } else {
-            return XNODE_COLUMN_NAME;
+            return XNODE_FLOW_PART;
         }
     }
 
-    private VariableSetBuildResult buildVariableSets(Map<String, double[]> exchangePerFlowPart, List<String> flowPartNameList) {
+    private VariableSetBuildResult buildVariableSets(double[] exchangePerFlowPart, List<String> flowPartNameList) {
+        int nFlowPart = flowPartNameList.size();
         List<SensitivityVariableSet> variableSets = new ArrayList<>();
-        FlowPartAggregation[] aggregations = new FlowPartAggregation[flowPartNameList.size()];
+        FlowPartAggregation[] aggregations = new FlowPartAggregation[nFlowPart];
         int factorPerXnec = 0;
 
-        for (int flowPartIndex = 0; flowPartIndex < flowPartNameList.size(); flowPartIndex++) {
+        for (int flowPartIndex = 0; flowPartIndex < nFlowPart; flowPartIndex++) {
             String flowPartName = flowPartNameList.get(flowPartIndex);
 
             List<WeightedSensitivityVariable> positiveVariables = new ArrayList<>();
@@ -187,14 +198,14 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
             double positiveTotal = 0.0;
             double negativeTotal = 0.0;
 
-            for (Map.Entry<String, double[]> entry : exchangePerFlowPart.entrySet()) {
-                double exchange = entry.getValue()[flowPartIndex];
+            for (int vertex = 0; vertex < variableIdByVertex.length; vertex++) {
+                double exchange = exchangePerFlowPart[vertex * nFlowPart + flowPartIndex];
                 if (exchange > 0.0) {
-                    positiveVariables.add(new WeightedSensitivityVariable(entry.getKey(), exchange));
+                    positiveVariables.add(new WeightedSensitivityVariable(variableIdByVertex[vertex], exchange));
                     positiveTotal += exchange;
                 } else if (exchange < 0.0) {
                     double absExchange = -exchange;
-                    negativeVariables.add(new WeightedSensitivityVariable(entry.getKey(), absExchange));
+                    negativeVariables.add(new WeightedSensitivityVariable(variableIdByVertex[vertex], absExchange));
                     negativeTotal += absExchange;
                 }
             }
@@ -272,6 +283,39 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
         }
     }
 
+    private record CombinedSensitivityFactorReader(SensitivityFactorReader firstReader,
+                                                   SensitivityFactorReader secondReader) implements SensitivityFactorReader {
+
+        @Override
+        public void read(Handler handler) {
+            firstReader.read(handler);
+            secondReader.read(handler);
+        }
+    }
+
+    /**
+     * Routes the values of the factors read first to the first writer, the other ones to the second writer with their
+     * index shifted back to zero.
+     */
+    private record CombinedSensitivityResultWriter(SensitivityResultWriter firstWriter, int firstFactorCount,
+                                                   SensitivityResultWriter secondWriter) implements SensitivityResultWriter {
+
+        @Override
+        public void writeSensitivityValue(int factorIndex, int contingencyIndex, int operatorStrategyIndex, double value, double functionReference) {
+            if (factorIndex < firstFactorCount) {
+                firstWriter.writeSensitivityValue(factorIndex, contingencyIndex, operatorStrategyIndex, value, functionReference);
+            } else {
+                secondWriter.writeSensitivityValue(factorIndex - firstFactorCount, contingencyIndex, operatorStrategyIndex, value, functionReference);
+            }
+        }
+
+        @Override
+        public void writeStateStatus(int contingencyIndex, int operatorStrategyIndex, SensitivityAnalysisResult.Status status) {
+            firstWriter.writeStateStatus(contingencyIndex, operatorStrategyIndex, status);
+            secondWriter.writeStateStatus(contingencyIndex, operatorStrategyIndex, status);
+        }
+    }
+
     private record GroupedFLDFactor(int iXnec, int flowPartIndex, boolean positive) {
     }
 
@@ -284,10 +328,11 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
                                           int factorCount) {
     }
 
+    /**
+     * PST factors are read XNEC first, then PST, so that the factor index alone gives back the XNEC and the PST.
+     */
     @SuppressWarnings("java:S6218") // We do not want to generate code that will not be used just to please Sonar...
-    private record FastFLDPstSensitivityResultWriter(List<FunctionVariableFactor> factors, double[][] results,
-                                                     int pstIndex, Map<String, Integer> xnecIndex,
-                                                     Map<String, PhaseTapChanger> phaseTapChangerMap) implements SensitivityResultWriter {
+    private record FastFLDPstSensitivityResultWriter(double[][] results, int pstIndex, double[] deltaTaps) implements SensitivityResultWriter {
 
         @Override
         public void writeSensitivityValue(int factorIndex, int contingencyIndex, int operatorStrategyIndex, double value, double functionReference) {
@@ -297,17 +342,8 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
             if (value == 0.0) {
                 return;
             }
-            FunctionVariableFactor factor = factors.get(factorIndex);
-
-            String pstId = factor.variableId();
-            PhaseTapChanger phaseTapChanger = phaseTapChangerMap.get(pstId);
-            Optional<PhaseTapChangerStep> neutralStep = phaseTapChanger.getNeutralStep();
-            double deltaTap = 0.0;
-            if (neutralStep.isPresent()) {
-                deltaTap = phaseTapChanger.getCurrentStep().getAlpha() - neutralStep.get().getAlpha();
-            }
-            double increase = respectFlowSignConvention(deltaTap * value, functionReference);
-            results[xnecIndex.get(factor.functionId())][pstIndex] += increase;
+            double increase = respectFlowSignConvention(deltaTaps[factorIndex % deltaTaps.length] * value, functionReference);
+            results[factorIndex / deltaTaps.length][pstIndex] += increase;
         }
 
         @Override
@@ -316,14 +352,12 @@ public class FastFLDSensitivityAnalyser extends AbstractSensitivityAnalyser {
         }
     }
 
-    private record FastFLDPstSensitivityFactorReader(List<FunctionVariableFactor> factors, List<String> xnecs,
-                                                     List<String> pstIdList) implements SensitivityFactorReader {
+    private record FastFLDPstSensitivityFactorReader(List<String> xnecs, List<String> pstIdList) implements SensitivityFactorReader {
 
         @Override
         public void read(Handler handler) {
             for (String xnecId : xnecs) {
                 for (String pst : pstIdList) {
-                    factors.add(new FunctionVariableFactor(xnecId, pst));
                     handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnecId, SensitivityVariableType.TRANSFORMER_PHASE, pst, false, ContingencyContext.none());
                 }
             }
@@ -42,7 +42,7 @@ public class FastFullLineDecompositionPartitioner implements FlowPartitioner {
         List<Branch<?>> branchesConnectedInMainSynchronousComponent = NetworkUtil.getAllValidBranches(network);
 
         LOGGER.info("[FLD] PEX graph generation");
-        PexGraph pexGraph = new PexGraph(busesInMainSynchronousComponent, branchesConnectedInMainSynchronousComponent);
+        CompactPexGraph pexGraph = CompactPexGraph.build(busesInMainSynchronousComponent, branchesConnectedInMainSynchronousComponent);
 
         LOGGER.info("[FLD] PEX matrix computation");
         PexMatrixCalculator pexMatrixCalculator = new PexMatrixCalculator(pexGraph);
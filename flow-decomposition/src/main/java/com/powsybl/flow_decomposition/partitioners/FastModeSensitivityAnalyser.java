@@ -8,7 +8,6 @@ package com.powsybl.flow_decomposition.partitioners;
 
 import com.powsybl.contingency.ContingencyContext;
 import com.powsybl.flow_decomposition.AbstractSensitivityAnalyser;
-import com.powsybl.flow_decomposition.FunctionVariableFactor;
 import com.powsybl.flow_decomposition.NetworkUtil;
 import com.powsybl.iidm.network.Branch;
 import com.powsybl.iidm.network.Network;
@@ -16,6 +15,7 @@ import com.powsybl.iidm.network.PhaseTapChanger;
 import com.powsybl.iidm.network.PhaseTapChangerStep;
 import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.sensitivity.*;
+import org.ejml.data.DMatrixSparseCSC;
 
 import java.util.*;
 
@@ -26,20 +26,28 @@ import static com.powsybl.flow_decomposition.DecomposedFlow.PST_COLUMN_NAME;
  */
 public class FastModeSensitivityAnalyser extends AbstractSensitivityAnalyser {
     private final Network network;
-    private final Set<Branch<?>> xnecs;
-    private final Set<String> flowParts;
-    private final Map<String, Map<String, Double>> nodalInjectionPartitions;
+    private final List<Branch<?>> xnecs;
+    private final String[] flowParts;
+    private final String[] injectionIds;
+    private final DMatrixSparseCSC nodalInjectionPartitions;
 
     FastModeSensitivityAnalyser(LoadFlowParameters loadFlowParameters,
                                 SensitivityAnalysis.Runner runner,
                                 Network network,
                                 Set<Branch<?>> xnecs,
-                                SparseMatrixWithIndexesTriplet nodalInjectionsMatrix) {
+                                SparseMatrixWithIndexesCSC nodalInjectionsMatrix) {
         super(loadFlowParameters, runner);
         this.network = network;
-        this.xnecs = xnecs;
-        this.flowParts = nodalInjectionsMatrix.colIndex.keySet();
-        this.nodalInjectionPartitions = nodalInjectionsMatrix.toMap();
+        this.xnecs = new ArrayList<>(xnecs);
+        this.flowParts = getIds(nodalInjectionsMatrix.colIndex);
+        this.injectionIds = getIds(nodalInjectionsMatrix.rowIndex);
+        this.nodalInjectionPartitions = nodalInjectionsMatrix.getCscMatrix();
+    }
+
+    private static String[] getIds(Map<String, Integer> index) {
+        String[] ids = new String[index.size()];
+        index.forEach((id, position) -> ids[position] = id);
+        return ids;
     }
 
     private static String getNegativeFlowPartName(String flowPart) {
@@ -55,59 +63,85 @@ public class FastModeSensitivityAnalyser extends AbstractSensitivityAnalyser {
     }
 
     public Map<String, Map<String, Double>> run() {
-        List<SensitivityVariableSet> sensitivityVariableSets = new ArrayList<>();
-        List<FunctionVariableFactor> sensitivityFactors = new ArrayList<>();
-        Map<String, Double> nodalInjectionsPartitionSumByFlowPart = new HashMap<>();
-        for (String flowPart : flowParts) {
-            String positiveFlowPartName = getPositiveFlowPartName(flowPart);
-            double positiveFlowPartSum = nodalInjectionPartitions.values().stream()
-                .filter(stringDoubleMap -> stringDoubleMap.containsKey(flowPart) && stringDoubleMap.get(flowPart) > 0)
-                .mapToDouble(stringDoubleMap -> stringDoubleMap.get(flowPart))
-                .sum();
-            String negativeFlowPartName = getNegativeFlowPartName(flowPart);
-            double negativeFlowPartSum = nodalInjectionPartitions.values().stream()
-                .filter(stringDoubleMap -> stringDoubleMap.containsKey(flowPart) && stringDoubleMap.get(flowPart) < 0)
-                .mapToDouble(stringDoubleMap -> stringDoubleMap.get(flowPart))
-                .sum();
-            sensitivityVariableSets.add(new SensitivityVariableSet(
-                positiveFlowPartName,
-                nodalInjectionPartitions.entrySet().stream()
-                    .filter(entry -> entry.getValue().containsKey(flowPart) && entry.getValue().get(flowPart) > 0)
-                    .map(entry -> new WeightedSensitivityVariable(
-                        entry.getKey(),
-                        entry.getValue().get(flowPart) / positiveFlowPartSum)
-                    )
-                    .toList()
-            ));
-            nodalInjectionsPartitionSumByFlowPart.put(positiveFlowPartName, positiveFlowPartSum);
-            sensitivityVariableSets.add(new SensitivityVariableSet(
-                negativeFlowPartName,
-                nodalInjectionPartitions.entrySet().stream()
-                    .filter(entry -> entry.getValue().containsKey(flowPart) && entry.getValue().get(flowPart) < 0)
-                    .map(entry -> new WeightedSensitivityVariable(entry.getKey(), entry.getValue().get(flowPart) / negativeFlowPartSum))
-                    .toList()));
-            nodalInjectionsPartitionSumByFlowPart.put(negativeFlowPartName, negativeFlowPartSum);
+        // Variable sets 2 * flowPart and 2 * flowPart + 1 hold the positive and negative injections of the flow part
+        List<SensitivityVariableSet> sensitivityVariableSets = new ArrayList<>(2 * flowParts.length);
+        double[] variableSetSums = new double[2 * flowParts.length];
+        for (int flowPart = 0; flowPart < flowParts.length; flowPart++) {
+            addVariableSets(flowPart, sensitivityVariableSets, variableSetSums);
         }
 
-        SensitivityFactorReader factorReader = new FastModeSensitivityFactorReader(flowParts, sensitivityFactors);
-        Map<String, Map<String, Double>> results = new HashMap<>();
-        SensitivityResultWriter valueWriter = new FastModeSensitivityResultWriter(sensitivityFactors, results, flowParts, nodalInjectionsPartitionSumByFlowPart);
+        List<String> psts = NetworkUtil.getPstIdList(network);
+        double[] pstDeltaTaps = psts.stream().mapToDouble(this::getDeltaTap).toArray();
+        int factorsPerXnec = 2 * flowParts.length + psts.size();
+        int[] xnecByFactor = new int[xnecs.size() * factorsPerXnec];
+        int[] slotByFactor = new int[xnecs.size() * factorsPerXnec];
+        SensitivityFactorReader factorReader = new FastModeSensitivityFactorReader(psts, xnecByFactor, slotByFactor);
+        FastModeSensitivityResultWriter valueWriter = new FastModeSensitivityResultWriter(xnecByFactor, slotByFactor, variableSetSums, pstDeltaTaps);
         runSensitivityAnalysis(network, factorReader, valueWriter, sensitivityVariableSets);
-        return results;
+        return valueWriter.getResults();
     }
 
-    private class FastModeSensitivityResultWriter implements SensitivityResultWriter {
+    private void addVariableSets(int flowPart, List<SensitivityVariableSet> sensitivityVariableSets, double[] variableSetSums) {
+        int start = nodalInjectionPartitions.col_idx[flowPart];
+        int end = nodalInjectionPartitions.col_idx[flowPart + 1];
+        double positiveFlowPartSum = 0;
+        double negativeFlowPartSum = 0;
+        for (int k = start; k < end; k++) {
+            double value = nodalInjectionPartitions.nz_values[k];
+            if (value > 0) {
+                positiveFlowPartSum += value;
+            } else if (value < 0) {
+                negativeFlowPartSum += value;
+            }
+        }
+        List<WeightedSensitivityVariable> positiveVariables = new ArrayList<>();
+        List<WeightedSensitivityVariable> negativeVariables = new ArrayList<>();
+        for (int k = start; k < end; k++) {
+            double value = nodalInjectionPartitions.nz_values[k];
+            String injectionId = injectionIds[nodalInjectionPartitions.nz_rows[k]];
+            if (value > 0) {
+                positiveVariables.add(new WeightedSensitivityVariable(injectionId, value / positiveFlowPartSum));
+            } else if (value < 0) {
+                negativeVariables.add(new WeightedSensitivityVariable(injectionId, value / negativeFlowPartSum));
+            }
+        }
+        sensitivityVariableSets.add(new SensitivityVariableSet(getPositiveFlowPartName(flowParts[flowPart]), positiveVariables));
+        variableSetSums[2 * flowPart] = positiveFlowPartSum;
+        sensitivityVariableSets.add(new SensitivityVariableSet(getNegativeFlowPartName(flowParts[flowPart]), negativeVariables));
+        variableSetSums[2 * flowPart + 1] = negativeFlowPartSum;
+    }
 
-        private final List<FunctionVariableFactor> factors;
-        private final Map<String, Map<String, Double>> results;
-        private final Set<String> flowParts;
-        private final Map<String, Double> nodalInjectionsPartitionSumByFlowPart;
+    private double getDeltaTap(String pst) {
+        PhaseTapChanger phaseTapChanger = network.getTwoWindingsTransformer(pst).getPhaseTapChanger();
+        Optional<PhaseTapChangerStep> neutralStep = phaseTapChanger.getNeutralStep();
+        double deltaTap = 0.0;
+        if (neutralStep.isPresent()) {
+            deltaTap = phaseTapChanger.getCurrentStep().getAlpha() - neutralStep.get().getAlpha();
+        }
+        return deltaTap;
+    }
 
-        public FastModeSensitivityResultWriter(List<FunctionVariableFactor> factors, Map<String, Map<String, Double>> results, Set<String> flowParts, Map<String, Double> nodalInjectionsPartitionSumByFlowPart) {
-            this.factors = factors;
-            this.results = results;
-            this.flowParts = flowParts;
-            this.nodalInjectionsPartitionSumByFlowPart = nodalInjectionsPartitionSumByFlowPart;
+    /**
+     * Accumulates the flow parts of each XNEC in arrays, flow part slots first and PST flow last.
+     * Factor slots are the variable set index for flow parts, and -1 - PST index for PSTs.
+     */
+    private class FastModeSensitivityResultWriter implements SensitivityResultWriter {
+        private final int[] xnecByFactor;
+        private final int[] slotByFactor;
+        private final double[] variableSetSums;
+        private final double[] pstDeltaTaps;
+        private final int slotsPerXnec;
+        private final double[] values;
+        private final boolean[] written;
+
+        FastModeSensitivityResultWriter(int[] xnecByFactor, int[] slotByFactor, double[] variableSetSums, double[] pstDeltaTaps) {
+            this.xnecByFactor = xnecByFactor;
+            this.slotByFactor = slotByFactor;
+            this.variableSetSums = variableSetSums;
+            this.pstDeltaTaps = pstDeltaTaps;
+            this.slotsPerXnec = flowParts.length + 1;
+            this.values = new double[xnecs.size() * slotsPerXnec];
+            this.written = new boolean[xnecs.size() * slotsPerXnec];
         }
 
         @Override
@@ -115,58 +149,71 @@ public class FastModeSensitivityAnalyser extends AbstractSensitivityAnalyser {
             if (Double.isNaN(value)) {
                 return;
             }
-            FunctionVariableFactor factor = factors.get(factorIndex);
-            Map<String, Double> flowDecomposition = results.computeIfAbsent(factor.functionId(), s -> new HashMap<>());
-            for (String flowPart : flowParts) {
-                if (factor.variableId().equals(getPositiveFlowPartName(flowPart))) {
-                    double partialFlowPartValue = flowDecomposition.getOrDefault(flowPart, 0.0);
-                    flowDecomposition.put(flowPart, partialFlowPartValue + respectFlowSignConvention(value * nodalInjectionsPartitionSumByFlowPart.get(getPositiveFlowPartName(flowPart)), functionReference));
-                    return;
-                } else if (factor.variableId().equals(getNegativeFlowPartName(flowPart))) {
-                    double partialFlowPartValue = flowDecomposition.getOrDefault(flowPart, 0.0);
-                    flowDecomposition.put(flowPart, partialFlowPartValue + respectFlowSignConvention(value * nodalInjectionsPartitionSumByFlowPart.get(getNegativeFlowPartName(flowPart)), functionReference));
-                    return;
-                }
-            }
-
-            PhaseTapChanger phaseTapChanger = network.getTwoWindingsTransformer(factor.variableId()).getPhaseTapChanger();
-            Optional<PhaseTapChangerStep> neutralStep = phaseTapChanger.getNeutralStep();
-            double deltaTap = 0.0;
-            if (neutralStep.isPresent()) {
-                deltaTap = phaseTapChanger.getCurrentStep().getAlpha() - neutralStep.get().getAlpha();
+            int slot = slotByFactor[factorIndex];
+            int position;
+            double flow;
+            if (slot < 0) {
+                position = xnecByFactor[factorIndex] * slotsPerXnec + flowParts.length;
+                flow = pstDeltaTaps[-1 - slot] * value;
+            } else {
+                position = xnecByFactor[factorIndex] * slotsPerXnec + slot / 2;
+                flow = value * variableSetSums[slot];
             }
-            double pstFlow = flowDecomposition.getOrDefault(PST_COLUMN_NAME, 0.0);
-            flowDecomposition.put(PST_COLUMN_NAME, pstFlow + respectFlowSignConvention(deltaTap * value, functionReference));
+            values[position] += respectFlowSignConvention(flow, functionReference);
+            written[position] = true;
         }
 
         @Override
         public void writeStateStatus(int contingencyIndex, int operatorStrategyIndex, SensitivityAnalysisResult.Status status) {
             // We do not manage contingency yet
         }
+
+        Map<String, Map<String, Double>> getResults() {
+            Map<String, Map<String, Double>> results = new HashMap<>();
+            for (int xnec = 0; xnec < xnecs.size(); xnec++) {
+                Map<String, Double> flowDecomposition = new HashMap<>();
+                for (int slot = 0; slot < slotsPerXnec; slot++) {
+                    int position = xnec * slotsPerXnec + slot;
+                    if (written[position]) {
+                        flowDecomposition.put(slot < flowParts.length ? flowParts[slot] : PST_COLUMN_NAME, values[position]);
+                    }
+                }
+                if (!flowDecomposition.isEmpty()) {
+                    results.put(xnecs.get(xnec).getId(), flowDecomposition);
+                }
+            }
+            return results;
+        }
     }
 
     private class FastModeSensitivityFactorReader implements SensitivityFactorReader {
-        private final Set<String> flowParts;
-        private final List<FunctionVariableFactor> factors;
-
-        public FastModeSensitivityFactorReader(Set<String> flowParts, List<FunctionVariableFactor> factors) {
-            this.flowParts = flowParts;
-            this.factors = factors;
+        private final List<String> psts;
+        private final int[] xnecByFactor;
+        private final int[] slotByFactor;
+
+        FastModeSensitivityFactorReader(List<String> psts, int[] xnecByFactor, int[] slotByFactor) {
+            this.psts = psts;
+            this.xnecByFactor = xnecByFactor;
+            this.slotByFactor = slotByFactor;
         }
 
         @Override
         public void read(Handler handler) {
-            for (Branch<?> xnec : xnecs) {
-                for (String flowPart : flowParts) {
-                    factors.add(new FunctionVariableFactor(xnec.getId(), getPositiveFlowPartName(flowPart)));
-                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnec.getId(), SensitivityVariableType.INJECTION_ACTIVE_POWER, getPositiveFlowPartName(flowPart), true, ContingencyContext.none());
-                    factors.add(new FunctionVariableFactor(xnec.getId(), getNegativeFlowPartName(flowPart)));
-                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnec.getId(), SensitivityVariableType.INJECTION_ACTIVE_POWER, getNegativeFlowPartName(flowPart), true, ContingencyContext.none());
+            int factorIndex = 0;
+            for (int xnec = 0; xnec < xnecs.size(); xnec++) {
+                String xnecId = xnecs.get(xnec).getId();
+                for (int flowPart = 0; flowPart < flowParts.length; flowPart++) {
+                    xnecByFactor[factorIndex] = xnec;
+                    slotByFactor[factorIndex++] = 2 * flowPart;
+                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnecId, SensitivityVariableType.INJECTION_ACTIVE_POWER, getPositiveFlowPartName(flowParts[flowPart]), true, ContingencyContext.none());
+                    xnecByFactor[factorIndex] = xnec;
+                    slotByFactor[factorIndex++] = 2 * flowPart + 1;
+                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnecId, SensitivityVariableType.INJECTION_ACTIVE_POWER, getNegativeFlowPartName(flowParts[flowPart]), true, ContingencyContext.none());
                 }
-
-                for (String pst : NetworkUtil.getPstIdList(network)) {
-                    factors.add(new FunctionVariableFactor(xnec.getId(), pst));
-                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnec.getId(), SensitivityVariableType.TRANSFORMER_PHASE, pst, false, ContingencyContext.none());
+                for (int pst = 0; pst < psts.size(); pst++) {
+                    xnecByFactor[factorIndex] = xnec;
+                    slotByFactor[factorIndex++] = -1 - pst;
+                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE, xnecId, SensitivityVariableType.TRANSFORMER_PHASE, psts.get(pst), false, ContingencyContext.none());
                 }
             }
         }
@@ -11,34 +11,45 @@ import com.powsybl.commons.PowsyblException;
 import com.powsybl.flow_decomposition.FlowPartition;
 import com.powsybl.flow_decomposition.NetworkUtil;
 import com.powsybl.iidm.network.*;
-import org.ejml.data.DMatrixSparse;
 import org.ejml.data.DMatrixSparseCSC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Flow decomposition calculator based on calculated matrix for
  * PEX, PTDF and PSDF
+ * <p>
+ * The flow part of an exchange between two vertices is (PTDF[from] - PTDF[to]) * PEX[from, to]. Exchanges are
+ * aggregated once per flow part class (X-node, allocated, and internal or loop flow of a country) into net injection
+ * vectors, so that each flow part of a branch is a dot product of its PTDF row with one of these vectors. Internal and
+ * loop flows of all the countries share a single vector, each vertex only carrying exchanges within its own country.
+ * Exchanges touching a bus without country get their own vector: as when exchanges were processed one by one, they
+ * only make the decomposition fail when their flow on a branch is not negligible.
  *
  * @author Sebastien Murgey {@literal <sebastien.murgey at rte-france.com>}
  */
 class FlowDecompositionCalculator {
     private static final Logger LOGGER = LoggerFactory.getLogger(FlowDecompositionCalculator.class);
     public static final double EPSILON = 1e-10;
+    private static final Country[] COUNTRIES = Country.values();
     private final Set<Branch<?>> xnecs;
-    private final DMatrixSparseCSC pexMatrix;
     private final SparseMatrixWithIndexesCSC transposedPtdfMatrix;
     private final Map<String, Map<String, Double>> pstFlowMatrix;
     private final String[] vertexIds;
     private final boolean[] isBusByVertexIndex;
     private final Country[] countriesByVertexPos;
+    private final double[] xNodeInjections;
+    private final double[] allocatedInjections;
+    private final double[] countryInjections;
+    private final double[] invalidCountryInjections;
+    private int invalidCountrySourceIndex = -1;
+    private int invalidCountrySinkIndex = -1;
 
     FlowDecompositionCalculator(Set<Branch<?>> xnecs, DMatrixSparseCSC pexMatrix, SparseMatrixWithIndexesCSC sparsePtdfMatrix, SparseMatrixWithIndexesCSC pstFlowMatrix, List<Bus> busesInMainSynchronousComponent, Map<String, Integer> vertexIdMapping) {
         this.xnecs = Objects.requireNonNull(xnecs);
-        this.pexMatrix = pexMatrix;
         this.transposedPtdfMatrix = Objects.requireNonNull(sparsePtdfMatrix).transpose();
 
         this.pstFlowMatrix = Objects.requireNonNull(pstFlowMatrix).toMap();
@@ -47,8 +58,13 @@ class FlowDecompositionCalculator {
         this.vertexIds = new String[nVertex];
         this.isBusByVertexIndex = new boolean[nVertex];
         this.countriesByVertexPos = new Country[nVertex];
+        this.xNodeInjections = new double[nVertex];
+        this.allocatedInjections = new double[nVertex];
+        this.countryInjections = new double[nVertex];
+        this.invalidCountryInjections = new double[nVertex];
 
         fillMemberArraysBasedOnVertexIndexMapping(busesInMainSynchronousComponent, vertexIdMapping);
+        aggregateExchanges(Objects.requireNonNull(pexMatrix));
     }
 
     private void fillMemberArraysBasedOnVertexIndexMapping(List<Bus> busesInMainSynchronousComponent, Map<String, Integer> vertexIdMapping) {
@@ -68,84 +84,100 @@ class FlowDecompositionCalculator {
         });
     }
 
+    private void aggregateExchanges(DMatrixSparseCSC pexMatrix) {
+        for (int sinkIndex = 0; sinkIndex < pexMatrix.numCols; sinkIndex++) {
+            for (int p = pexMatrix.col_idx[sinkIndex]; p < pexMatrix.col_idx[sinkIndex + 1]; p++) {
+                int sourceIndex = pexMatrix.nz_rows[p];
+                double[] injections = getInjections(sourceIndex, sinkIndex);
+                injections[sourceIndex] += pexMatrix.nz_values[p];
+                injections[sinkIndex] -= pexMatrix.nz_values[p];
+            }
+        }
+    }
+
+    private double[] getInjections(int sourceIndex, int sinkIndex) {
+        if (isBusByVertexIndex[sourceIndex] && isBusByVertexIndex[sinkIndex]) {
+            Country countryFrom = countriesByVertexPos[sourceIndex];
+            Country countryTo = countriesByVertexPos[sinkIndex];
+
+            if (countryFrom == null || countryTo == null) {
+                if (invalidCountrySourceIndex < 0) {
+                    invalidCountrySourceIndex = sourceIndex;
+                    invalidCountrySinkIndex = sinkIndex;
+                }
+                return invalidCountryInjections;
+            }
+
+            return countryFrom == countryTo ? countryInjections : allocatedInjections;
+        }
+        return xNodeInjections;
+    }
+
     Map<String, FlowPartition> computeDecomposition() {
         LOGGER.debug("Decomposing flow on branches");
-        return xnecs.stream()
-            .collect(
-                Collectors.toMap(
-                    Identifiable::getId,
-                    this::decomposeFlow
-                )
-            );
+        // Network is only read here, the numerical kernel then runs in parallel on the extracted data
+        List<XnecData> xnecData = xnecs.stream().map(this::getXnecData).toList();
+        FlowPartition[] flowPartitions = new FlowPartition[xnecData.size()];
+        IntStream.range(0, flowPartitions.length).parallel()
+            .forEach(i -> flowPartitions[i] = decomposeFlow(xnecData.get(i)));
+        Map<String, FlowPartition> results = new HashMap<>();
+        for (int i = 0; i < flowPartitions.length; i++) {
+            results.put(xnecData.get(i).branchId(), flowPartitions[i]);
+        }
+        return results;
     }
 
-    private FlowPartition decomposeFlow(Branch<?> branch) {
+    private XnecData getXnecData(Branch<?> branch) {
         String branchId = branch.getId();
-
         if (!NetworkUtil.isConnectedAndInMainSynchronousComponent(branch)) {
             LOGGER.debug("Branch {} is not connected or not in main synchronous component. Returning empty decomposition", branchId);
-            return new FlowPartition(0., 0., Collections.emptyMap(), 0., 0.);
+            return new XnecData(branchId, false, null, null);
         }
-
-        Country branchCountry1 = NetworkUtil.getBranchSideCountry(branch, TwoSides.ONE);
-        Country branchCountry2 = NetworkUtil.getBranchSideCountry(branch, TwoSides.TWO);
-        double[] ptdfColumn = transposedPtdfMatrix.getColumnAsArray(branchId);
-
-        MutableTemporaryResult result = new MutableTemporaryResult(branchCountry1, branchCountry2);
-        Iterator<DMatrixSparse.CoordinateRealValue> it = pexMatrix.createCoordinateIterator();
-        while (it.hasNext()) {
-            DMatrixSparse.CoordinateRealValue e = it.next();
-            double exchange = e.value;
-            double ptdfFrom = ptdfColumn[e.row];
-            double ptdfTo = ptdfColumn[e.col];
-            double increase = (ptdfFrom - ptdfTo) * exchange;
-
-            if (Math.abs(increase) >= EPSILON) {
-                processIncrease(e.row, e.col, increase, result);
-            }
-        }
-
-        double pstFlow = pstFlowMatrix.getOrDefault(branchId, Collections.emptyMap()).values().stream()
-            .mapToDouble(Double::doubleValue)
-            .sum();
-        return new FlowPartition(result.internalFlow, result.allocatedFlow, result.loopFlowsPerCountry, pstFlow, result.xNodeFlow);
+        return new XnecData(branchId, true, NetworkUtil.getBranchSideCountry(branch, TwoSides.ONE), NetworkUtil.getBranchSideCountry(branch, TwoSides.TWO));
     }
 
-    private void processIncrease(int sourceIndex, int sinkIndex, double increase, MutableTemporaryResult result) {
-        if (isBusByVertexIndex[sourceIndex] && isBusByVertexIndex[sinkIndex]) {
-            Country countryFrom = countriesByVertexPos[sourceIndex];
-            Country countryTo = countriesByVertexPos[sinkIndex];
+    private FlowPartition decomposeFlow(XnecData xnec) {
+        if (!xnec.connected()) {
+            return new FlowPartition(0., 0., Collections.emptyMap(), 0., 0.);
+        }
 
-            if (countryFrom == null || countryTo == null) {
-                throw new PowsyblException(String.format("Cannot compute loop flow for bus %s and %s because of invalid country",
-                    vertexIds[sourceIndex], vertexIds[sinkIndex]));
+        DMatrixSparseCSC ptdfMatrix = transposedPtdfMatrix.getCscMatrix();
+        int ptdfColumn = transposedPtdfMatrix.colIndex.get(xnec.branchId());
+        double xNodeFlow = 0;
+        double allocatedFlow = 0;
+        double invalidCountryFlow = 0;
+        double[] flowPerCountry = new double[COUNTRIES.length];
+        for (int p = ptdfMatrix.col_idx[ptdfColumn]; p < ptdfMatrix.col_idx[ptdfColumn + 1]; p++) {
+            int vertex = ptdfMatrix.nz_rows[p];
+            double ptdf = ptdfMatrix.nz_values[p];
+            xNodeFlow += ptdf * xNodeInjections[vertex];
+            allocatedFlow += ptdf * allocatedInjections[vertex];
+            invalidCountryFlow += ptdf * invalidCountryInjections[vertex];
+            if (countryInjections[vertex] != 0) {
+                flowPerCountry[countriesByVertexPos[vertex].ordinal()] += ptdf * countryInjections[vertex];
             }
+        }
+        if (Math.abs(invalidCountryFlow) >= EPSILON) {
+            throw new PowsyblException(String.format("Cannot compute loop flow for bus %s and %s because of invalid country",
+                vertexIds[invalidCountrySourceIndex], vertexIds[invalidCountrySinkIndex]));
+        }
 
-            if (countryFrom == countryTo) {
-                if (countryFrom == result.branchCountry1 && countryFrom == result.branchCountry2) {
-                    result.internalFlow += increase;
-                } else {
-                    result.loopFlowsPerCountry.merge(countryFrom, increase, Double::sum);
-                }
-            } else {
-                result.allocatedFlow += increase;
+        double internalFlow = 0;
+        Map<Country, Double> loopFlowsPerCountry = new EnumMap<>(Country.class);
+        for (int country = 0; country < COUNTRIES.length; country++) {
+            if (COUNTRIES[country] == xnec.country1() && COUNTRIES[country] == xnec.country2()) {
+                internalFlow = flowPerCountry[country];
+            } else if (Math.abs(flowPerCountry[country]) >= EPSILON) {
+                loopFlowsPerCountry.put(COUNTRIES[country], flowPerCountry[country]);
             }
-        } else {
-            result.xNodeFlow += increase;
         }
+
+        double pstFlow = pstFlowMatrix.getOrDefault(xnec.branchId(), Collections.emptyMap()).values().stream()
+            .mapToDouble(Double::doubleValue)
+            .sum();
+        return new FlowPartition(internalFlow, allocatedFlow, loopFlowsPerCountry, pstFlow, xNodeFlow);
     }
 
-    private static class MutableTemporaryResult {
-        private final Country branchCountry1;
-        private final Country branchCountry2;
-        private double xNodeFlow = 0;
-        private double internalFlow = 0;
-        private double allocatedFlow = 0;
-        private final Map<Country, Double> loopFlowsPerCountry = new EnumMap<>(Country.class);
-
-        MutableTemporaryResult(Country branchCountry1, Country branchCountry2) {
-            this.branchCountry1 = branchCountry1;
-            this.branchCountry2 = branchCountry2;
-        }
+    private record XnecData(String branchId, boolean connected, Country country1, Country country2) {
     }
 }
@@ -8,6 +8,8 @@
 package com.powsybl.flow_decomposition.partitioners;
 
 import com.powsybl.flow_decomposition.*;
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionMetrics;
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionPhase;
 import com.powsybl.iidm.network.Branch;
 import com.powsybl.iidm.network.Bus;
 import com.powsybl.iidm.network.Country;
@@ -20,7 +22,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class FullLineDecompositionPartitioner implements FlowPartitioner {
     private static final Logger LOGGER = LoggerFactory.getLogger(FullLineDecompositionPartitioner.class);
@@ -28,12 +33,19 @@ public class FullLineDecompositionPartitioner implements FlowPartitioner {
     private final FlowDecompositionParameters parameters;
     private final SensitivityAnalysis.Runner sensitivityAnalysisRunner;
     private final FlowDecompositionObserverList observers;
+    private final SensitivityMatrixCache sensitivityMatrixCache;
 
     public FullLineDecompositionPartitioner(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner sensitivityAnalysisRunner, FlowDecompositionObserverList observers) {
+        this(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers, new SensitivityMatrixCache(0));
+    }
+
+    public FullLineDecompositionPartitioner(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner sensitivityAnalysisRunner, FlowDecompositionObserverList observers,
+                                            SensitivityMatrixCache sensitivityMatrixCache) {
         this.loadFlowParameters = loadFlowParameters;
         this.parameters = parameters;
         this.sensitivityAnalysisRunner = sensitivityAnalysisRunner;
         this.observers = observers;
+        this.sensitivityMatrixCache = Objects.requireNonNull(sensitivityMatrixCache);
     }
 
     @Override
@@ -43,51 +55,76 @@ public class FullLineDecompositionPartitioner implements FlowPartitioner {
         List<Branch<?>> branchesConnectedInMainSynchronousComponent = NetworkUtil.getAllValidBranches(network);
 
         NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecs.stream().toList());
+        FlowDecompositionMetrics metrics = observers.getMetrics();
         LOGGER.info("[FLD] PEX graph generation");
-        PexGraph pexGraph = new PexGraph(busesInMainSynchronousComponent, branchesConnectedInMainSynchronousComponent);
+        CompactPexGraph pexGraph = metrics.record(FlowDecompositionPhase.PEX_GRAPH, () -> CompactPexGraph.build(busesInMainSynchronousComponent, branchesConnectedInMainSynchronousComponent));
 
         LOGGER.info("[FLD] PEX matrix computation");
         PexMatrixCalculator pexMatrixCalculator = new PexMatrixCalculator(pexGraph);
         Map<String, Integer> vertexIdMapping = pexMatrixCalculator.getVertexIdMapper();
-        DMatrixSparseCSC pexMatrix = pexMatrixCalculator.computePexMatrix();
+        DMatrixSparseCSC pexMatrix = metrics.record(FlowDecompositionPhase.PEX_MATRIX, pexMatrixCalculator::computePexMatrix);
 
-        SensitivityAnalyser sensitivityAnalyser = getSensitivityAnalyser(network, networkMatrixIndexes);
+        String fingerprint = sensitivityMatrixCache.isEnabled() ? NetworkFingerprint.sensitivities(network, loadFlowParameters) : null;
+        // Cached sensitivities are kept as computed, the sign convention of the flows of this state being applied to the copies used below
+        SensitivityAnalyser sensitivityAnalyser = getSensitivityAnalyser(network, networkMatrixIndexes, fingerprint == null);
+        boolean[] negatedRows = fingerprint == null ? null : SensitivityAnalyser.getNegativeReferenceFlowRows(networkMatrixIndexes);
         LOGGER.info("[FLD] PTDF matrix computation");
         Map<String, Integer> injectionIdIndex = NetworkUtil.chooseAnInjectionPerVertexAndKeepSameIndex(vertexIdMapping, network);
-        SparseMatrixWithIndexesCSC ptdfMatrix = getNodalPtdfMatrix(injectionIdIndex, sensitivityAnalyser);
+        // Nodal PTDF and PSDF are computed by a single sensitivity analysis, unless the nodal PTDF is found in the cache
+        AtomicReference<SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet>> ptdfPsdfMatrices = new AtomicReference<>();
+        SparseMatrixWithIndexesCSC ptdfMatrix = metrics.record(FlowDecompositionPhase.PTDF, () -> getNodalPtdfMatrix(fingerprint, networkMatrixIndexes, injectionIdIndex, negatedRows, () -> {
+            ptdfPsdfMatrices.set(sensitivityAnalyser.getNodalPtdfAndPsdfMatrices(injectionIdIndex, networkMatrixIndexes));
+            return ptdfPsdfMatrices.get().ptdfMatrix().toCSCMatrix().removeZerosInplace(parameters.getSensitivityEpsilon());
+        }));
 
         LOGGER.info("[FLD] Final PST treatment");
-        PstFlowComputer pstFlowComputer = new PstFlowComputer();
-        SparseMatrixWithIndexesTriplet psdfMatrix = getPsdfMatrix(networkMatrixIndexes, sensitivityAnalyser);
-        SparseMatrixWithIndexesCSC pstFlowMatrix = pstFlowComputer.run(network, networkMatrixIndexes, psdfMatrix);
+        SparseMatrixWithIndexesCSC psdfMatrix = metrics.record(FlowDecompositionPhase.PSDF, () -> getPsdfMatrix(fingerprint, networkMatrixIndexes, negatedRows, () -> ptdfPsdfMatrices.get() != null
+            ? ptdfPsdfMatrices.get().psdfMatrix()
+            : sensitivityAnalyser.getPsdfMatrix(networkMatrixIndexes)));
 
         LOGGER.info("[FLD] Flow decomposition");
-        FlowDecompositionCalculator flowDecompositionCalculator = new FlowDecompositionCalculator(xnecs, pexMatrix, ptdfMatrix, pstFlowMatrix, busesInMainSynchronousComponent, vertexIdMapping);
-        Map<String, FlowPartition> results = flowDecompositionCalculator.computeDecomposition();
+        Map<String, FlowPartition> results = metrics.record(FlowDecompositionPhase.MATRIX_MULTIPLICATION, () -> {
+            SparseMatrixWithIndexesCSC pstFlowMatrix = new PstFlowComputer().run(network, networkMatrixIndexes, psdfMatrix);
+            return new FlowDecompositionCalculator(xnecs, pexMatrix, ptdfMatrix, pstFlowMatrix, busesInMainSynchronousComponent, vertexIdMapping).computeDecomposition();
+        });
 
         LOGGER.info("[FLD] End of computation");
 
         return results;
     }
 
-    private SensitivityAnalyser getSensitivityAnalyser(Network network, NetworkMatrixIndexes networkMatrixIndexes) {
-        return new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes);
+    private SensitivityAnalyser getSensitivityAnalyser(Network network, NetworkMatrixIndexes networkMatrixIndexes, boolean flowSignConvention) {
+        return new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes, observers, flowSignConvention);
     }
 
-    private SparseMatrixWithIndexesCSC getNodalPtdfMatrix(Map<String, Integer> injectionIdIndex,
-                                                              SensitivityAnalyser sensitivityAnalyser) {
-        SparseMatrixWithIndexesCSC ptdfMatrix = sensitivityAnalyser.getNodalPtdfMatrix(injectionIdIndex);
+    private SparseMatrixWithIndexesCSC getNodalPtdfMatrix(String fingerprint,
+                                                          NetworkMatrixIndexes networkMatrixIndexes,
+                                                          Map<String, Integer> injectionIdIndex,
+                                                          boolean[] negatedRows,
+                                                          Supplier<SparseMatrixWithIndexesCSC> ptdfMatrixSupplier) {
+        SparseMatrixWithIndexesCSC ptdfMatrix = sensitivityMatrixCache.get(fingerprint, "NODAL_PTDF", networkMatrixIndexes.getXnecIndex(), injectionIdIndex,
+            ptdfMatrixSupplier);
+        if (negatedRows != null) {
+            // The cached matrix must not be modified
+            ptdfMatrix = ptdfMatrix.copy().negateRowsInplace(negatedRows);
+        }
         if (!observers.getObservers().isEmpty()) {
-            observers.computedPtdfMatrix(ptdfMatrix.toMap());
+            observers.computedPtdfMatrix(ptdfMatrix.view());
         }
         return ptdfMatrix;
     }
 
-    private SparseMatrixWithIndexesTriplet getPsdfMatrix(NetworkMatrixIndexes networkMatrixIndexes,
-                                                         SensitivityAnalyser sensitivityAnalyser) {
-        SparseMatrixWithIndexesTriplet psdfMatrix = sensitivityAnalyser.getPsdfMatrix(networkMatrixIndexes);
+    private SparseMatrixWithIndexesCSC getPsdfMatrix(String fingerprint,
+                                                     NetworkMatrixIndexes networkMatrixIndexes,
+                                                     boolean[] negatedRows,
+                                                     Supplier<SparseMatrixWithIndexesTriplet> psdfMatrixSupplier) {
+        SparseMatrixWithIndexesCSC psdfMatrix = sensitivityMatrixCache.get(fingerprint, "PSDF", networkMatrixIndexes.getXnecIndex(), networkMatrixIndexes.getPstIndex(),
+            psdfMatrixSupplier).toCSCMatrix();
+        if (negatedRows != null) {
+            psdfMatrix.negateRowsInplace(negatedRows);
+        }
         if (!observers.getObservers().isEmpty()) {
-            observers.computedPsdfMatrix(psdfMatrix.toMap());
+            observers.computedPsdfMatrix(psdfMatrix.view());
         }
         return psdfMatrix;
     }
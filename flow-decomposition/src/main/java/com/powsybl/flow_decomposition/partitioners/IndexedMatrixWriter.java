@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+/**
+ * Matrix filled value by value, with row and column positions already resolved from its indexes.
+ */
+interface IndexedMatrixWriter {
+    /**
+     * Adds the value to the cell, unless it is NaN or filtered by the epsilon of the matrix.
+     */
+    void addItem(int row, int col, double value);
+}
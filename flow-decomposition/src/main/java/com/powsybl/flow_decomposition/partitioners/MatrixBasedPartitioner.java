@@ -8,16 +8,18 @@
 package com.powsybl.flow_decomposition.partitioners;
 
 import com.powsybl.flow_decomposition.*;
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionPhase;
 import com.powsybl.flow_decomposition.utils.LogUtils;
 import com.powsybl.iidm.network.Branch;
 import com.powsybl.iidm.network.Country;
-import com.powsybl.iidm.network.Identifiable;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.sensitivity.SensitivityAnalysis;
+import com.powsybl.sensitivity.SensitivityVariableType;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static com.powsybl.flow_decomposition.DecomposedFlow.*;
 import static com.powsybl.flow_decomposition.NetworkUtil.LOOP_FLOWS_COLUMN_PREFIX;
@@ -30,90 +32,231 @@ public class MatrixBasedPartitioner implements FlowPartitioner {
     private final FlowDecompositionParameters parameters;
     private final SensitivityAnalysis.Runner sensitivityAnalysisRunner;
     private final FlowDecompositionObserverList observers;
+    private final ContingencySensitivities.StateSensitivities precomputedSensitivities;
+    private final SensitivityMatrixCache sensitivityMatrixCache;
 
     public MatrixBasedPartitioner(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner sensitivityAnalysisRunner, FlowDecompositionObserverList observers) {
+        this(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers, null);
+    }
+
+    /**
+     * @param precomputedSensitivities PTDF and PSDF values of the state, computed beforehand with all other states.
+     *                                 When null, they are computed by a sensitivity analysis on the working variant.
+     */
+    public MatrixBasedPartitioner(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner sensitivityAnalysisRunner, FlowDecompositionObserverList observers,
+                                  ContingencySensitivities.StateSensitivities precomputedSensitivities) {
+        this(loadFlowParameters, parameters, sensitivityAnalysisRunner, observers, precomputedSensitivities, new SensitivityMatrixCache(0));
+    }
+
+    /**
+     * @param sensitivityMatrixCache   cache of the PTDF and PSDF computed on previous network states, not used for
+     *                                 precomputed sensitivities.
+     */
+    public MatrixBasedPartitioner(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner sensitivityAnalysisRunner, FlowDecompositionObserverList observers,
+                                  ContingencySensitivities.StateSensitivities precomputedSensitivities, SensitivityMatrixCache sensitivityMatrixCache) {
         this.loadFlowParameters = loadFlowParameters;
         this.parameters = parameters;
         this.sensitivityAnalysisRunner = sensitivityAnalysisRunner;
         this.observers = observers;
+        this.precomputedSensitivities = precomputedSensitivities;
+        this.sensitivityMatrixCache = Objects.requireNonNull(sensitivityMatrixCache);
     }
 
     @Override
     public Map<String, FlowPartition> computeFlowPartitions(Network network, Set<Branch<?>> xnecs, Map<Country, Double> netPositions, Map<Country, Map<String, Double>> glsks) {
-        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, new ArrayList<>(xnecs));
-        SparseMatrixWithIndexesTriplet nodalInjectionsMatrix = getNodalInjectionsMatrix(network, netPositions,
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, new ArrayList<>(xnecs), parameters.isBusAggregationEnabled());
+        SparseMatrixWithIndexesCSC nodalInjectionsMatrix = getNodalInjectionsMatrix(network, netPositions,
             networkMatrixIndexes, glsks);
-        SensitivityAnalyser sensitivityAnalyser = getSensitivityAnalyser(network, networkMatrixIndexes);
-        SparseMatrixWithIndexesTriplet ptdfMatrix = getPtdfMatrix(networkMatrixIndexes, sensitivityAnalyser);
-        SparseMatrixWithIndexesTriplet psdfMatrix = getPsdfMatrix(networkMatrixIndexes, sensitivityAnalyser);
+        String fingerprint = getSensitivityFingerprint(network);
+        // Cached sensitivities are kept as computed, the sign convention of the flows of this state being applied to the copies used below
+        SensitivityAnalyser sensitivityAnalyser = getSensitivityAnalyser(network, networkMatrixIndexes, fingerprint == null);
+        boolean[] negatedRows = fingerprint == null ? null : SensitivityAnalyser.getNegativeReferenceFlowRows(networkMatrixIndexes);
+        // PTDF and PSDF are computed by a single sensitivity analysis, unless the PTDF is found in the cache
+        AtomicReference<SensitivityAnalyser.PtdfPsdfMatrices<?>> ptdfPsdfMatrices = new AtomicReference<>();
+        PtdfMatrix ptdfMatrix = isDensePtdf()
+            ? getDensePtdfMatrix(fingerprint, networkMatrixIndexes, negatedRows, () -> {
+                SensitivityAnalyser.PtdfPsdfMatrices<DenseMatrixWithIndexes> matrices = sensitivityAnalyser.getDensePtdfAndPsdfMatrices(networkMatrixIndexes);
+                ptdfPsdfMatrices.set(matrices);
+                return matrices.ptdfMatrix();
+            })
+            : getPtdfMatrix(fingerprint, networkMatrixIndexes, negatedRows, () -> {
+                SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> matrices = sensitivityAnalyser.getPtdfAndPsdfMatrices(networkMatrixIndexes);
+                ptdfPsdfMatrices.set(matrices);
+                return matrices.ptdfMatrix();
+            });
+        SparseMatrixWithIndexesCSC psdfMatrix = getPsdfMatrix(fingerprint, networkMatrixIndexes, negatedRows, () -> ptdfPsdfMatrices.get() != null
+            ? ptdfPsdfMatrices.get().psdfMatrix()
+            : sensitivityAnalyser.getPsdfMatrix(networkMatrixIndexes));
 
         // Flows
-        SparseMatrixWithIndexesCSC allocatedLoopFlowsMatrix =
-            SparseMatrixWithIndexesCSC.mult(ptdfMatrix.toCSCMatrix(), nodalInjectionsMatrix.toCSCMatrix());
-        PstFlowComputer pstFlowComputer = new PstFlowComputer();
-        SparseMatrixWithIndexesCSC pstFlowMatrix = pstFlowComputer.run(network, networkMatrixIndexes, psdfMatrix);
-        return xnecs.stream().collect(Collectors.toMap(
-            Identifiable::getId,
-            xnec -> flowPartitionForXnec(xnec, allocatedLoopFlowsMatrix.toMap().getOrDefault(xnec.getId(), Collections.emptyMap()), pstFlowMatrix.toMap().getOrDefault(xnec.getId(), Collections.emptyMap()).getOrDefault(PST_COLUMN_NAME, NO_FLOW))
-        ));
-    }
-
-    private SparseMatrixWithIndexesTriplet getNodalInjectionsMatrix(Network network,
-                                                                    Map<Country, Double> netPositions,
-                                                                    NetworkMatrixIndexes networkMatrixIndexes,
-                                                                    Map<Country, Map<String, Double>> glsks) {
-        return LogUtils.info("Nodal injection calculation", () -> {
+        return observers.getMetrics().record(FlowDecompositionPhase.MATRIX_MULTIPLICATION, () -> {
+            SparseMatrixWithIndexesCSC allocatedLoopFlowsMatrix = multPtdfByNodalInjections(ptdfMatrix, nodalInjectionsMatrix, negatedRows);
+            SparseMatrixWithIndexesCSC pstFlowMatrix = new PstFlowComputer().run(network, networkMatrixIndexes, psdfMatrix);
+            return getFlowPartitions(xnecs, allocatedLoopFlowsMatrix, pstFlowMatrix);
+        });
+    }
+
+    /**
+     * PTDF matrix, either as dense rows or as a CSC matrix following the flow sign convention, the other one being null.
+     * Dense rows follow the sign convention only when they are not cached, the product then being negated if needed.
+     */
+    private record PtdfMatrix(DenseMatrixWithIndexes dense, SparseMatrixWithIndexesCSC csc) {
+    }
+
+    /**
+     * Node-to-XNEC PTDF are mostly non-zero on meshed grids. When the expected density of the sensitivities reaches the
+     * configured threshold, they are written directly in dense rows and multiplied as a dense matrix.
+     */
+    private boolean isDensePtdf() {
+        return SensitivityBatchPlanner.getExpectedDensity(SensitivityVariableType.INJECTION_ACTIVE_POWER, parameters) >= parameters.getDensePtdfDensityThreshold();
+    }
+
+    private static SparseMatrixWithIndexesCSC multPtdfByNodalInjections(PtdfMatrix ptdfMatrix, SparseMatrixWithIndexesCSC nodalInjectionsMatrix, boolean[] negatedRows) {
+        if (ptdfMatrix.dense() != null) {
+            return respectFlowSignConvention(DenseMatrixWithIndexes.mult(ptdfMatrix.dense(), nodalInjectionsMatrix), negatedRows);
+        }
+        return SparseMatrixWithIndexesCSC.mult(ptdfMatrix.csc(), nodalInjectionsMatrix);
+    }
+
+    private SparseMatrixWithIndexesCSC getNodalInjectionsMatrix(Network network,
+                                                                Map<Country, Double> netPositions,
+                                                                NetworkMatrixIndexes networkMatrixIndexes,
+                                                                Map<Country, Map<String, Double>> glsks) {
+        return LogUtils.info("Nodal injection calculation", () -> observers.getMetrics().record(FlowDecompositionPhase.NODAL_INJECTIONS, () -> {
             NodalInjectionComputer nodalInjectionComputer = new NodalInjectionComputer(networkMatrixIndexes);
-            SparseMatrixWithIndexesTriplet nodalInjectionsMatrix = nodalInjectionComputer.run(network, glsks, netPositions);
-            observers.computedNodalInjectionsMatrix(nodalInjectionsMatrix.toMap());
+            SparseMatrixWithIndexesCSC nodalInjectionsMatrix = nodalInjectionComputer.run(network, glsks, netPositions).toCSCMatrix();
+            if (!observers.getObservers().isEmpty()) {
+                observers.computedNodalInjectionsMatrix(nodalInjectionsMatrix.view());
+            }
             return nodalInjectionsMatrix;
-        });
+        }));
+    }
+
+    private SensitivityAnalyser getSensitivityAnalyser(Network network, NetworkMatrixIndexes networkMatrixIndexes, boolean flowSignConvention) {
+        return new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes, observers, flowSignConvention);
+    }
+
+    /**
+     * @param negatedRows rows to negate when the sensitivities come from the cache without the flow sign convention,
+     *                    null when it is already applied.
+     */
+    private static SparseMatrixWithIndexesCSC respectFlowSignConvention(SparseMatrixWithIndexesCSC matrix, boolean[] negatedRows) {
+        return negatedRows == null ? matrix : matrix.negateRowsInplace(negatedRows);
+    }
+
+    private String getSensitivityFingerprint(Network network) {
+        return precomputedSensitivities == null && sensitivityMatrixCache.isEnabled()
+            ? NetworkFingerprint.sensitivities(network, loadFlowParameters)
+            : null;
     }
 
-    private SensitivityAnalyser getSensitivityAnalyser(Network network, NetworkMatrixIndexes networkMatrixIndexes) {
-        return new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes);
+    private PtdfMatrix getPtdfMatrix(String fingerprint,
+                                     NetworkMatrixIndexes networkMatrixIndexes,
+                                     boolean[] negatedRows,
+                                     Supplier<SparseMatrixWithIndexesTriplet> ptdfMatrixSupplier) {
+        return LogUtils.info("Computation of node-to-hub PTDF", () -> {
+            SparseMatrixWithIndexesTriplet ptdfMatrix = observers.getMetrics().record(FlowDecompositionPhase.PTDF, () -> precomputedSensitivities != null
+                ? precomputedSensitivities.getPtdfMatrix(networkMatrixIndexes, parameters.getSensitivityEpsilon())
+                : sensitivityMatrixCache.get(fingerprint, "PTDF", networkMatrixIndexes.getXnecIndex(), networkMatrixIndexes.getNodeIndex(),
+                    ptdfMatrixSupplier));
+            SparseMatrixWithIndexesCSC ptdfCscMatrix = respectFlowSignConvention(ptdfMatrix.toCSCMatrix(), negatedRows);
+            if (!observers.getObservers().isEmpty()) {
+                observers.computedPtdfMatrix(ptdfCscMatrix.view());
+            }
+            return new PtdfMatrix(null, ptdfCscMatrix);
+        });
     }
 
-    private SparseMatrixWithIndexesTriplet getPtdfMatrix(NetworkMatrixIndexes networkMatrixIndexes,
-                                                         SensitivityAnalyser sensitivityAnalyser) {
+    /**
+     * Same as {@link #getPtdfMatrix}, with a PTDF as dense rows. Dense rows are cached under their own name, so that
+     * they are not mistaken for sparse matrices computed with another threshold.
+     */
+    private PtdfMatrix getDensePtdfMatrix(String fingerprint,
+                                          NetworkMatrixIndexes networkMatrixIndexes,
+                                          boolean[] negatedRows,
+                                          Supplier<DenseMatrixWithIndexes> ptdfMatrixSupplier) {
         return LogUtils.info("Computation of node-to-hub PTDF", () -> {
-            SparseMatrixWithIndexesTriplet ptdfMatrix = sensitivityAnalyser.getPtdfMatrix(networkMatrixIndexes);
+            DenseMatrixWithIndexes ptdfMatrix = observers.getMetrics().record(FlowDecompositionPhase.PTDF, () -> precomputedSensitivities != null
+                ? precomputedSensitivities.getPtdfMatrix(networkMatrixIndexes, parameters.getSensitivityEpsilon()).toDenseMatrix()
+                : sensitivityMatrixCache.get(fingerprint, "DENSE_PTDF", networkMatrixIndexes.getXnecIndex(), networkMatrixIndexes.getNodeIndex(),
+                    ptdfMatrixSupplier));
             if (!observers.getObservers().isEmpty()) {
-                observers.computedPtdfMatrix(ptdfMatrix.toMap());
+                observers.computedPtdfMatrix(respectFlowSignConvention(ptdfMatrix.toCSCMatrix(), negatedRows).view());
             }
-            return ptdfMatrix;
+            return new PtdfMatrix(ptdfMatrix, null);
         });
     }
 
-    private SparseMatrixWithIndexesTriplet getPsdfMatrix(NetworkMatrixIndexes networkMatrixIndexes,
-                                                         SensitivityAnalyser sensitivityAnalyser) {
+    private SparseMatrixWithIndexesCSC getPsdfMatrix(String fingerprint,
+                                                     NetworkMatrixIndexes networkMatrixIndexes,
+                                                     boolean[] negatedRows,
+                                                     Supplier<SparseMatrixWithIndexesTriplet> psdfMatrixSupplier) {
         return LogUtils.info("Computation of node-to-hub PSDF", () -> {
-            SparseMatrixWithIndexesTriplet psdfMatrix = sensitivityAnalyser.getPsdfMatrix(networkMatrixIndexes);
+            SparseMatrixWithIndexesTriplet psdfMatrix = observers.getMetrics().record(FlowDecompositionPhase.PSDF, () -> precomputedSensitivities != null
+                ? precomputedSensitivities.getPsdfMatrix(networkMatrixIndexes, parameters.getSensitivityEpsilon())
+                : sensitivityMatrixCache.get(fingerprint, "PSDF", networkMatrixIndexes.getXnecIndex(), networkMatrixIndexes.getPstIndex(),
+                    psdfMatrixSupplier));
+            SparseMatrixWithIndexesCSC psdfCscMatrix = respectFlowSignConvention(psdfMatrix.toCSCMatrix(), negatedRows);
             if (!observers.getObservers().isEmpty()) {
-                observers.computedPsdfMatrix(psdfMatrix.toMap());
+                observers.computedPsdfMatrix(psdfCscMatrix.view());
             }
-            return psdfMatrix;
+            return psdfCscMatrix;
         });
     }
 
-    private FlowPartition flowPartitionForXnec(Branch<?> xnec, Map<String, Double> allocatedLoopFlowsMap, double pstFlow) {
-        double allocatedFlow = allocatedLoopFlowsMap.getOrDefault(ALLOCATED_COLUMN_NAME, NO_FLOW);
-        double xnodeFlow = allocatedLoopFlowsMap.getOrDefault(XNODE_COLUMN_NAME, NO_FLOW);
+    /**
+     * Assembles the flow partitions in a single pass over the stored values of the flow matrices. Each column of the
+     * allocated and loop flows matrix is resolved once to a slot: allocated flow, X-node flow or loop flow of a country.
+     */
+    private static Map<String, FlowPartition> getFlowPartitions(Set<Branch<?>> xnecs, SparseMatrixWithIndexesCSC allocatedLoopFlowsMatrix, SparseMatrixWithIndexesCSC pstFlowMatrix) {
+        int xnecCount = allocatedLoopFlowsMatrix.rowIndex.size();
+        int allocatedColumn = allocatedLoopFlowsMatrix.colIndex.getOrDefault(ALLOCATED_COLUMN_NAME, -1);
+        int xNodeColumn = allocatedLoopFlowsMatrix.colIndex.getOrDefault(XNODE_COLUMN_NAME, -1);
+        Country[] loopFlowCountryPerColumn = new Country[allocatedLoopFlowsMatrix.colIndex.size()];
+        allocatedLoopFlowsMatrix.colIndex.forEach((columnId, column) -> {
+            if (columnId.startsWith(LOOP_FLOWS_COLUMN_PREFIX)) {
+                loopFlowCountryPerColumn[column] = Country.valueOf(columnId.substring((LOOP_FLOWS_COLUMN_PREFIX + " ").length()));
+            }
+        });
+
+        double[] allocatedFlows = new double[xnecCount];
+        double[] xNodeFlows = new double[xnecCount];
+        List<Map<Country, Double>> loopFlows = new ArrayList<>(Collections.nCopies(xnecCount, null));
+        allocatedLoopFlowsMatrix.forEachNonZero((row, column, value) -> {
+            if (column == allocatedColumn) {
+                allocatedFlows[row] = value;
+            } else if (column == xNodeColumn) {
+                xNodeFlows[row] = value;
+            } else if (loopFlowCountryPerColumn[column] != null) {
+                Map<Country, Double> xnecLoopFlows = loopFlows.get(row);
+                if (xnecLoopFlows == null) {
+                    xnecLoopFlows = new EnumMap<>(Country.class);
+                    loopFlows.set(row, xnecLoopFlows);
+                }
+                xnecLoopFlows.put(loopFlowCountryPerColumn[column], value);
+            }
+        });
+        double[] pstFlows = pstFlowMatrix.getColumnAsArray(PST_COLUMN_NAME);
+
+        Map<String, FlowPartition> flowPartitions = HashMap.newHashMap(xnecs.size());
+        for (Branch<?> xnec : xnecs) {
+            int row = allocatedLoopFlowsMatrix.rowIndex.get(xnec.getId());
+            Map<Country, Double> xnecLoopFlows = loopFlows.get(row) == null ? new EnumMap<>(Country.class) : loopFlows.get(row);
+            flowPartitions.put(xnec.getId(), flowPartitionForXnec(xnec, allocatedFlows[row], xNodeFlows[row], xnecLoopFlows, pstFlows[pstFlowMatrix.rowIndex.get(xnec.getId())]));
+        }
+        return flowPartitions;
+    }
+
+    private static FlowPartition flowPartitionForXnec(Branch<?> xnec, double allocatedFlow, double xNodeFlow, Map<Country, Double> loopFlows, double pstFlow) {
         Country country1 = NetworkUtil.getTerminalCountry(xnec.getTerminal1());
         Country country2 = NetworkUtil.getTerminalCountry(xnec.getTerminal2());
-        double internalFlow = extractInternalFlow(allocatedLoopFlowsMap, country1, country2);
-        Map<Country, Double> loopFlow = allocatedLoopFlowsMap.entrySet().stream()
-            .filter(entry -> entry.getKey().startsWith(LOOP_FLOWS_COLUMN_PREFIX))
-            .collect(Collectors.toMap(
-                entry -> Country.valueOf(entry.getKey().substring((LOOP_FLOWS_COLUMN_PREFIX + " ").length())),
-                Map.Entry::getValue
-            ));
-        return new FlowPartition(internalFlow, allocatedFlow, loopFlow, pstFlow, xnodeFlow);
+        double internalFlow = extractInternalFlow(loopFlows, country1, country2);
+        return new FlowPartition(internalFlow, allocatedFlow, loopFlows, pstFlow, xNodeFlow);
     }
 
-    private double extractInternalFlow(Map<String, Double> loopFlowsMap, Country country1, Country country2) {
+    private static double extractInternalFlow(Map<Country, Double> loopFlows, Country country1, Country country2) {
         if (Objects.equals(country1, country2)) {
-            return Optional.ofNullable(loopFlowsMap.remove(NetworkUtil.getLoopFlowIdFromCountry(country1)))
+            return Optional.ofNullable(loopFlows.remove(country1))
                 .orElse(NO_FLOW);
         }
         return NO_FLOW;
@@ -7,15 +7,19 @@
 package com.powsybl.flow_decomposition.partitioners;
 
 import com.powsybl.flow_decomposition.NetworkUtil;
-import com.powsybl.iidm.network.Branch;
-import com.powsybl.iidm.network.Identifiable;
-import com.powsybl.iidm.network.Injection;
-import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.*;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * Indexes of the flow decomposition matrices. Nodes, the PTDF variables, are by default all the injections of the
+ * network. With bus aggregation, injections connected to the same bus share the same PTDF: a single injection per bus
+ * is then kept as node, representing all the injections of its bus. Unpaired boundary lines represent their X-node
+ * and are always kept.
+ *
  * @author Hugo Schindler{@literal <hugo.schindler at rte-france.com>}
  * @author Sebastien Murgey{@literal <sebastien.murgey at rte-france.com>}
  */
@@ -28,26 +32,44 @@ class NetworkMatrixIndexes {
     private final Map<String, Integer> nodeIndex;
     private final Map<String, Integer> pstIndex;
     private final List<Injection<?>> xnodeList;
+    private final Map<String, String> representativeNodeIds;
+    private final int busCount;
 
     NetworkMatrixIndexes(Network network, List<Branch<?>> xnecList) {
+        this(network, xnecList, false);
+    }
+
+    NetworkMatrixIndexes(Network network, List<Branch<?>> xnecList, boolean aggregateNodesByBus) {
         this.xnecList = xnecList;
         nodeList = NetworkUtil.getNodeList(network);
-        nodeIdList = getNodeIdList(nodeList);
+        representativeNodeIds = aggregateNodesByBus ? getRepresentativeNodeIds(nodeList) : Map.of();
+        nodeIdList = aggregateNodesByBus ? representativeNodeIds.values().stream().distinct().toList() : getNodeIdList(nodeList);
         pstList = NetworkUtil.getPstIdList(network);
         xnecIndex = NetworkUtil.getIndex(getXnecIdList(this.xnecList));
         nodeIndex = NetworkUtil.getIndex(nodeIdList);
         pstIndex = NetworkUtil.getIndex(pstList);
         xnodeList = NetworkUtil.getXNodeList(network);
+        busCount = (int) network.getBusView().getBusStream().filter(Bus::isInMainSynchronousComponent).count() + xnodeList.size();
     }
 
     List<Branch<?>> getXnecList() {
         return xnecList;
     }
 
+    /**
+     * @return all the injections of the network, whether or not they are aggregated.
+     */
     List<Injection<?>> getNodeList() {
         return nodeList;
     }
 
+    /**
+     * @return id of the node that represents the given injection in the matrices.
+     */
+    String getNodeId(String injectionId) {
+        return representativeNodeIds.getOrDefault(injectionId, injectionId);
+    }
+
     List<String> getNodeIdList() {
         return nodeIdList;
     }
@@ -72,10 +94,27 @@ class NetworkMatrixIndexes {
         return xnecList.size();
     }
 
+    /**
+     * @return number of buses of the DC system, the buses of the main synchronous component and one per X-node.
+     */
+    int getBusCount() {
+        return busCount;
+    }
+
     public List<Injection<?>> getUnmergedXNodeList() {
         return xnodeList;
     }
 
+    private static Map<String, String> getRepresentativeNodeIds(List<Injection<?>> nodeList) {
+        Map<String, String> representativeNodeIdPerBus = new LinkedHashMap<>();
+        Map<String, String> representativeNodeIds = HashMap.newHashMap(nodeList.size());
+        for (Injection<?> injection : nodeList) {
+            String busId = injection instanceof BoundaryLine ? injection.getId() : injection.getTerminal().getBusView().getBus().getId();
+            representativeNodeIds.put(injection.getId(), representativeNodeIdPerBus.computeIfAbsent(busId, id -> injection.getId()));
+        }
+        return representativeNodeIds;
+    }
+
     private List<String> getNodeIdList(List<Injection<?>> nodeList) {
         return nodeList.stream().map(Injection::getId).toList();
     }
@@ -11,6 +11,7 @@ import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Injection;
 import com.powsybl.iidm.network.Network;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -36,9 +37,9 @@ class NodalInjectionComputer {
                                        Map<Country, Map<String, Double>> glsks,
                                        Map<Country, Double> netPositions) {
         ReferenceNodalInjectionComputer referenceNodalInjectionComputer = new ReferenceNodalInjectionComputer();
-        Map<String, Double> nodalInjectionDcReference = referenceNodalInjectionComputer.run(networkMatrixIndexes.getNodeList());
-        Map<String, Double> nodalInjectionForXNodeFlow = referenceNodalInjectionComputer.run(networkMatrixIndexes.getUnmergedXNodeList());
-        Map<String, Double> nodalInjectionsForAllocatedFlow = getNodalInjectionsForAllocatedFlows(glsks, netPositions);
+        Map<String, Double> nodalInjectionDcReference = sumPerNode(referenceNodalInjectionComputer.run(networkMatrixIndexes.getNodeList()));
+        Map<String, Double> nodalInjectionForXNodeFlow = sumPerNode(referenceNodalInjectionComputer.run(networkMatrixIndexes.getUnmergedXNodeList()));
+        Map<String, Double> nodalInjectionsForAllocatedFlow = sumPerNode(getNodalInjectionsForAllocatedFlows(glsks, netPositions));
 
         SparseMatrixWithIndexesTriplet nodalInjectionMatrix = getEmptyNodalInjectionMatrix(glsks,
             nodalInjectionsForAllocatedFlow.size() + nodalInjectionDcReference.size() + nodalInjectionForXNodeFlow.size());
@@ -48,6 +49,15 @@ class NodalInjectionComputer {
         return nodalInjectionMatrix;
     }
 
+    /**
+     * Sums the injections represented by the same node, when nodes are aggregated by bus.
+     */
+    private Map<String, Double> sumPerNode(Map<String, Double> injections) {
+        Map<String, Double> nodalInjections = HashMap.newHashMap(injections.size());
+        injections.forEach((injectionId, injection) -> nodalInjections.merge(networkMatrixIndexes.getNodeId(injectionId), injection, Double::sum));
+        return nodalInjections;
+    }
+
     private Map<String, Double> getNodalInjectionsForAllocatedFlows(Map<Country, Map<String, Double>> glsks,
                                                                     Map<Country, Double> netPositions) {
         return networkMatrixIndexes.getNodeList().stream()
@@ -97,9 +107,8 @@ class NodalInjectionComputer {
                                                  Map<String, Double> nodalInjectionsForXNodeFlow,
                                                  Map<String, Double> nodalInjectionDcReference,
                                                  SparseMatrixWithIndexesTriplet nodalInjectionMatrix) {
-        networkMatrixIndexes.getNodeList().forEach(
-            node -> {
-                String nodeId = node.getId();
+        networkMatrixIndexes.getNodeIdList().forEach(
+            nodeId -> {
                 nodalInjectionMatrix.addItem(
                     nodeId,
                     NetworkUtil.getLoopFlowIdFromCountry(network, nodeId),
@@ -8,20 +8,28 @@
 package com.powsybl.flow_decomposition.partitioners;
 
 import com.powsybl.flow_decomposition.NetworkUtil;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.interfaces.linsol.LinearSolverSparse;
 import org.ejml.ops.DConvertMatrixStruct;
+import org.ejml.sparse.FillReducing;
 import org.ejml.sparse.csc.CommonOps_DSCC;
-import org.jgrapht.alg.cycle.CycleDetector;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 
 /**
  * Object dedicated to PEX matrix calculation
+ * <p>
+ * With D the distribution matrix, G and L the diagonal matrices of generation and load coefficients, the PEX matrix
+ * is G (I - D)<sup>-1</sup> L. When the PEX graph is acyclic, it is computed exactly by a forward substitution in the
+ * topological order of the graph. Otherwise, (I - D) is factorized by a sparse LU decomposition, the Neumann series
+ * I + D + D<sup>2</sup> + ... only being used when that factorization fails.
  *
  * @author Sebastien Murgey {@literal <sebastien.murgey at rte-france.com>}
  */
@@ -31,49 +39,45 @@ public class PexMatrixCalculator {
     public static final double DROP_TOLERANCE = 1e-10;
     private static final double EPSILON = 1e-5;
     private static final Logger LOGGER = LoggerFactory.getLogger(PexMatrixCalculator.class);
-    private final PexGraph pexGraph;
-    private final Map<PexGraphVertex, Integer> vertexMapper = new HashMap<>();
+    private final CompactPexGraph pexGraph;
     private final Map<String, Integer> vertexIdMapper;
 
-    // Precomputed per-vertex data (big speedup: avoids outgoingEdgesOf(...).stream() in hot loops)
+    // Precomputed per-vertex data (big speedup: avoids iterating the edges of each vertex in hot loops)
     private final double[] outgoingFlowSums;
     private final double[] loadCoeffs;
     private final double[] associatedGenerations;
 
     public PexMatrixCalculator(PexGraph pexGraph) {
-        this.pexGraph = Objects.requireNonNull(pexGraph);
-        this.vertexIdMapper = NetworkUtil.getIndex(pexGraph.vertexSet().stream().map(PexGraphVertex::getId).toList());
+        this(CompactPexGraph.of(Objects.requireNonNull(pexGraph)));
+    }
 
-        pexGraph.vertexSet().forEach(vertex -> vertexMapper.put(vertex, Objects.requireNonNull(vertexIdMapper.get(vertex.getId()))));
+    PexMatrixCalculator(CompactPexGraph pexGraph) {
+        this.pexGraph = Objects.requireNonNull(pexGraph);
+        this.vertexIdMapper = NetworkUtil.getIndex(pexGraph.getVertexIds());
 
-        int matrixSize = pexGraph.vertexSet().size();
+        int matrixSize = pexGraph.getVertexCount();
         this.outgoingFlowSums = new double[matrixSize];
         this.loadCoeffs = new double[matrixSize];
         this.associatedGenerations = new double[matrixSize];
-
-        // Fill loads/generations once
-        for (PexGraphVertex v : pexGraph.vertexSet()) {
-            int idx = vertexMapper.get(v);
-            loadCoeffs[idx] = v.getAssociatedLoad();
-            associatedGenerations[idx] = v.getAssociatedGeneration();
+        for (int vertex = 0; vertex < matrixSize; vertex++) {
+            loadCoeffs[vertex] = pexGraph.getLoad(vertex);
+            associatedGenerations[vertex] = pexGraph.getGeneration(vertex);
         }
-
-        // Sum outgoing flows in one pass over edges
-        for (PexGraphEdge e : pexGraph.edgeSet()) {
-            PexGraphVertex src = pexGraph.getEdgeSource(e);
-            int srcIdx = vertexMapper.get(src);
-            outgoingFlowSums[srcIdx] += e.getAssociatedFlow();
+        for (int edge = 0; edge < pexGraph.getEdgeCount(); edge++) {
+            outgoingFlowSums[pexGraph.getEdgeSource(edge)] += pexGraph.getEdgeFlow(edge);
         }
     }
 
-    private static boolean determineIfGraphHasCycle(PexGraph pexGraph1) {
-        CycleDetector<PexGraphVertex, PexGraphEdge> detector = new CycleDetector<>(pexGraph1);
-        boolean hasCycle = detector.detectCycles();
+    /**
+     * @return vertices in a topological order of the graph, or null if the graph has a directed cycle.
+     */
+    private int[] computeTopologicalOrder() {
+        int[] topologicalOrder = pexGraph.computeTopologicalOrder();
         LOGGER.debug("PEX graph: vertices={}, edges={}, hasDirectedCycle={}",
-            pexGraph1.vertexSet().size(),
-            pexGraph1.edgeSet().size(),
-            hasCycle);
-        return hasCycle;
+            pexGraph.getVertexCount(),
+            pexGraph.getEdgeCount(),
+            topologicalOrder == null);
+        return topologicalOrder;
     }
 
     private static double l1Norm(DMatrixSparseCSC m) {
@@ -84,6 +88,106 @@ public class PexMatrixCalculator {
         return sum;
     }
 
+    /**
+     * Rows of (I - D)<sup>-1</sup> are computed from the sinks of the graph up to its sources, each row being
+     * the combination of the rows of its successors: M[i] = (e<sub>i</sub> + sum of D[i, j] M[j] for j != i) / (1 - D[i, i]).
+     * Only columns of vertices with a load are kept, other columns being cancelled by L.
+     */
+    private DMatrixSparseCSC computePexMatrixInTopologicalOrder(int[] topologicalOrder, DMatrixSparseCSC distributionMatrix, double[] generationCoeffs) {
+        int matrixSize = distributionMatrix.numRows;
+        LOGGER.debug("Computing exact matrix inversion in topological order. Matrix size={}", matrixSize);
+        // Columns of the transposed distribution matrix are the rows of the distribution matrix
+        DMatrixSparseCSC distributionRows = CommonOps_DSCC.transpose(distributionMatrix, null, null);
+        int[][] inverseRowColumns = new int[matrixSize][];
+        double[][] inverseRowValues = new double[matrixSize][];
+        double[] accumulator = new double[matrixSize];
+        boolean[] isInPattern = new boolean[matrixSize];
+        int[] pattern = new int[matrixSize];
+
+        for (int k = topologicalOrder.length - 1; k >= 0; k--) {
+            int row = topologicalOrder[k];
+            int patternSize = 0;
+            double diagonal = 0;
+            if (loadCoeffs[row] != 0) {
+                isInPattern[row] = true;
+                pattern[patternSize++] = row;
+                accumulator[row] = 1;
+            }
+            for (int p = distributionRows.col_idx[row]; p < distributionRows.col_idx[row + 1]; p++) {
+                int successor = distributionRows.nz_rows[p];
+                double distribution = distributionRows.nz_values[p];
+                if (successor == row) {
+                    diagonal = distribution;
+                    continue;
+                }
+                int[] successorColumns = inverseRowColumns[successor];
+                double[] successorValues = inverseRowValues[successor];
+                for (int q = 0; q < successorColumns.length; q++) {
+                    int column = successorColumns[q];
+                    if (!isInPattern[column]) {
+                        isInPattern[column] = true;
+                        pattern[patternSize++] = column;
+                        accumulator[column] = 0;
+                    }
+                    accumulator[column] += distribution * successorValues[q];
+                }
+            }
+
+            double scale = 1 / (1 - diagonal);
+            int[] rowColumns = new int[patternSize];
+            double[] rowValues = new double[patternSize];
+            int rowSize = 0;
+            for (int q = 0; q < patternSize; q++) {
+                int column = pattern[q];
+                isInPattern[column] = false;
+                double value = accumulator[column] * scale;
+                if (Math.abs(value) > DROP_TOLERANCE) {
+                    rowColumns[rowSize] = column;
+                    rowValues[rowSize] = value;
+                    rowSize++;
+                }
+            }
+            inverseRowColumns[row] = Arrays.copyOf(rowColumns, rowSize);
+            inverseRowValues[row] = Arrays.copyOf(rowValues, rowSize);
+        }
+
+        int nonZeroCount = 0;
+        for (int row = 0; row < matrixSize; row++) {
+            nonZeroCount += generationCoeffs[row] != 0 ? inverseRowColumns[row].length : 0;
+        }
+        DMatrixSparseTriplet pexTriplet = new DMatrixSparseTriplet(matrixSize, matrixSize, nonZeroCount);
+        for (int row = 0; row < matrixSize; row++) {
+            if (generationCoeffs[row] != 0) {
+                for (int q = 0; q < inverseRowColumns[row].length; q++) {
+                    int column = inverseRowColumns[row][q];
+                    pexTriplet.addItem(row, column, generationCoeffs[row] * inverseRowValues[row][q] * loadCoeffs[column]);
+                }
+            }
+        }
+        return DConvertMatrixStruct.convert(pexTriplet, (DMatrixSparseCSC) null);
+    }
+
+    /**
+     * @return G (I - D)<sup>-1</sup> L, or null if (I - D) cannot be factorized.
+     */
+    private DMatrixSparseCSC computePexMatrixWithLu(DMatrixSparseCSC distributionMatrix, double[] generationCoeffs) {
+        int matrixSize = distributionMatrix.numRows;
+        LOGGER.debug("Computing matrix inversion using sparse LU decomposition. Matrix size={}", matrixSize);
+        DMatrixSparseCSC system = new DMatrixSparseCSC(matrixSize, matrixSize, distributionMatrix.nz_length + matrixSize);
+        CommonOps_DSCC.add(1.0, CommonOps_DSCC.identity(matrixSize), -1.0, distributionMatrix, system, null, null);
+        LinearSolverSparse<DMatrixSparseCSC, DMatrixRMaj> solver = LinearSolverFactory_DSCC.lu(FillReducing.NONE);
+        if (!solver.setA(system)) {
+            LOGGER.debug("Sparse LU decomposition failed");
+            return null;
+        }
+        DMatrixSparseCSC loads = CommonOps_DSCC.diag(loadCoeffs);
+        CommonOps_DSCC.removeZeros(loads, 0);
+        DMatrixSparseCSC pexMatrix = new DMatrixSparseCSC(matrixSize, matrixSize, 0);
+        solver.solveSparse(loads, pexMatrix);
+        CommonOps_DSCC.multRows(generationCoeffs, 0, pexMatrix);
+        return pexMatrix;
+    }
+
     private static DMatrixSparseCSC computePexMatrixWithNeumann(int matrixSize, boolean hasCycle, DMatrixSparseCSC distributionMatrix, double[] generationCoeffs, double[] loadCoeffs) {
         LOGGER.debug("Computing approximate matrix inversion using Neumann series. Matrix size={}", matrixSize);
 
@@ -115,7 +219,7 @@ public class PexMatrixCalculator {
             CommonOps_DSCC.mult(stack, distributionMatrix, nextStack);
             CommonOps_DSCC.removeZeros(nextStack, DROP_TOLERANCE);
 
-            neumannCoefficient = nextStack.copy();
+            neumannCoefficient.setTo(nextStack);
             CommonOps_DSCC.multColumns(neumannCoefficient, loadCoeffs, 0);
             CommonOps_DSCC.removeZeros(neumannCoefficient, DROP_TOLERANCE);
 
@@ -141,72 +245,93 @@ public class PexMatrixCalculator {
         return transfer;
     }
 
-    private void fillDistributionTripletsWithVertex(PexGraphVertex vertex, DMatrixSparseTriplet distributionTriplet) {
-        assert distributionTriplet != null;
-
-        int vIdx = vertexMapper.get(vertex);
-        double load = loadCoeffs[vIdx];
-        double gen = associatedGenerations[vIdx];
-        double transferredFlow = Math.min(load, gen);
-
-        double sumOfLeavingAndAbsorbedFlows = load + transferredFlow + outgoingFlowSums[vIdx];
-
-        distributionTriplet.unsafe_set(
-            vIdx,
-            vIdx,
-            Math.abs(sumOfLeavingAndAbsorbedFlows) < EPSILON ? 0 : transferredFlow / sumOfLeavingAndAbsorbedFlows
-        );
-    }
-
-    private void fillDistributionTripletsWithEdge(PexGraphEdge edge, DMatrixSparseTriplet distributionTriplet) {
-        assert distributionTriplet != null;
-
-        PexGraphVertex sourceVertex = pexGraph.getEdgeSource(edge);
-        PexGraphVertex targetVertex = pexGraph.getEdgeTarget(edge);
-
-        int sIdx = vertexMapper.get(sourceVertex);
-        int tIdx = vertexMapper.get(targetVertex);
-
-        double targetLoad = loadCoeffs[tIdx];
-        double targetGen = associatedGenerations[tIdx];
-        double targetTransferredFlow = Math.min(targetLoad, targetGen);
-
-        double sumOfLeavingAndAbsorbedFlows = targetLoad + targetTransferredFlow + outgoingFlowSums[tIdx];
-        double increase = Math.abs(sumOfLeavingAndAbsorbedFlows) < EPSILON ? 0 : edge.getAssociatedFlow() / sumOfLeavingAndAbsorbedFlows;
-
-        double oldValue = distributionTriplet.get(sIdx, tIdx);
-        distributionTriplet.set(sIdx, tIdx, oldValue + increase);
+    private double getSumOfLeavingAndAbsorbedFlows(int vertex) {
+        double load = loadCoeffs[vertex];
+        double transferredFlow = Math.min(load, associatedGenerations[vertex]);
+        return load + transferredFlow + outgoingFlowSums[vertex];
     }
 
-    private double getGenerationCoeff(PexGraphVertex vertex) {
-        int vIdx = vertexMapper.get(vertex);
-        double load = loadCoeffs[vIdx];
-        double gen = associatedGenerations[vIdx];
-        double transferredFlow = Math.min(load, gen);
-
-        double sumOfLeavingAndAbsorbedFlows = load + transferredFlow + outgoingFlowSums[vIdx];
-        return Math.abs(sumOfLeavingAndAbsorbedFlows) < EPSILON ? 0 : gen / sumOfLeavingAndAbsorbedFlows;
+    private double getGenerationCoeff(int vertex) {
+        double sumOfLeavingAndAbsorbedFlows = getSumOfLeavingAndAbsorbedFlows(vertex);
+        return Math.abs(sumOfLeavingAndAbsorbedFlows) < EPSILON ? 0 : associatedGenerations[vertex] / sumOfLeavingAndAbsorbedFlows;
     }
 
     public DMatrixSparseCSC computePexMatrix() {
-        int matrixSize = pexGraph.vertexSet().size();
-        boolean hasCycle = determineIfGraphHasCycle(pexGraph);
-
-        int initialNnz = pexGraph.edgeSet().size() + pexGraph.vertexSet().size();
-        DMatrixSparseTriplet distributionTriplet = new DMatrixSparseTriplet(matrixSize, matrixSize, initialNnz);
+        int matrixSize = pexGraph.getVertexCount();
+        int[] topologicalOrder = computeTopologicalOrder();
+        DMatrixSparseCSC distributionMatrix = computeDistributionMatrix();
+        double[] generationCoeffs = computeGenerationCoeffs();
+
+        DMatrixSparseCSC pexMatrix = topologicalOrder == null ? computePexMatrixWithLu(distributionMatrix, generationCoeffs)
+            : computePexMatrixInTopologicalOrder(topologicalOrder, distributionMatrix, generationCoeffs);
+        if (pexMatrix == null) {
+            pexMatrix = computePexMatrixWithNeumann(matrixSize, true, distributionMatrix, generationCoeffs, loadCoeffs);
+        }
+        CommonOps_DSCC.removeZeros(pexMatrix, DROP_TOLERANCE);
+        return pexMatrix;
+    }
 
-        pexGraph.edgeSet().forEach(edge -> fillDistributionTripletsWithEdge(edge, distributionTriplet));
-        pexGraph.vertexSet().forEach(vertex -> fillDistributionTripletsWithVertex(vertex, distributionTriplet));
+    /**
+     * Approximates the PEX matrix by the Neumann series, whatever the graph. Kept as a reference for the exact solvers.
+     */
+    DMatrixSparseCSC computePexMatrixWithNeumann() {
+        DMatrixSparseCSC pexMatrix = computePexMatrixWithNeumann(pexGraph.getVertexCount(), computeTopologicalOrder() == null,
+            computeDistributionMatrix(), computeGenerationCoeffs(), loadCoeffs);
+        CommonOps_DSCC.removeZeros(pexMatrix, DROP_TOLERANCE);
+        return pexMatrix;
+    }
 
-        DMatrixSparseCSC distributionMatrix = DConvertMatrixStruct.convert(distributionTriplet, (DMatrixSparseCSC) null);
+    /**
+     * The distribution matrix is built column by column from the incoming edges of each vertex, flows of parallel
+     * edges being summed in a dense accumulator.
+     */
+    private DMatrixSparseCSC computeDistributionMatrix() {
+        int matrixSize = pexGraph.getVertexCount();
+        int[] incomingEdgeStarts = pexGraph.getIncomingEdgeStarts();
+        int[] incomingEdges = pexGraph.getIncomingEdges();
+        DMatrixSparseCSC distributionMatrix = new DMatrixSparseCSC(matrixSize, matrixSize, pexGraph.getEdgeCount() + matrixSize);
+        double[] accumulator = new double[matrixSize];
+        int[] columnStamps = new int[matrixSize];
+        Arrays.fill(columnStamps, -1);
+        int nonZeroCount = 0;
+        for (int column = 0; column < matrixSize; column++) {
+            distributionMatrix.col_idx[column] = nonZeroCount;
+            double sumOfLeavingAndAbsorbedFlows = getSumOfLeavingAndAbsorbedFlows(column);
+            if (Math.abs(sumOfLeavingAndAbsorbedFlows) < EPSILON) {
+                continue;
+            }
+            int columnStart = nonZeroCount;
+            columnStamps[column] = column;
+            accumulator[column] = Math.min(loadCoeffs[column], associatedGenerations[column]);
+            distributionMatrix.nz_rows[nonZeroCount++] = column;
+            for (int p = incomingEdgeStarts[column]; p < incomingEdgeStarts[column + 1]; p++) {
+                int edge = incomingEdges[p];
+                int source = pexGraph.getEdgeSource(edge);
+                if (columnStamps[source] != column) {
+                    columnStamps[source] = column;
+                    accumulator[source] = 0;
+                    distributionMatrix.nz_rows[nonZeroCount++] = source;
+                }
+                accumulator[source] += pexGraph.getEdgeFlow(edge);
+            }
+            Arrays.sort(distributionMatrix.nz_rows, columnStart, nonZeroCount);
+            for (int q = columnStart; q < nonZeroCount; q++) {
+                distributionMatrix.nz_values[q] = accumulator[distributionMatrix.nz_rows[q]] / sumOfLeavingAndAbsorbedFlows;
+            }
+        }
+        distributionMatrix.col_idx[matrixSize] = nonZeroCount;
+        distributionMatrix.nz_length = nonZeroCount;
+        distributionMatrix.indicesSorted = true;
         CommonOps_DSCC.removeZeros(distributionMatrix, DROP_TOLERANCE);
+        return distributionMatrix;
+    }
 
-        double[] generationCoeffs = new double[matrixSize];
-        vertexMapper.forEach((key, value) -> generationCoeffs[value] = getGenerationCoeff(key));
-
-        DMatrixSparseCSC pexMatrix = computePexMatrixWithNeumann(matrixSize, hasCycle, distributionMatrix, generationCoeffs, loadCoeffs);
-        CommonOps_DSCC.removeZeros(pexMatrix, DROP_TOLERANCE);
-        return pexMatrix;
+    private double[] computeGenerationCoeffs() {
+        double[] generationCoeffs = new double[pexGraph.getVertexCount()];
+        for (int vertex = 0; vertex < generationCoeffs.length; vertex++) {
+            generationCoeffs[vertex] = getGenerationCoeff(vertex);
+        }
+        return generationCoeffs;
     }
 
     public Map<String, Integer> getVertexIdMapper() {
@@ -21,9 +21,9 @@ import static com.powsybl.flow_decomposition.DecomposedFlow.PST_COLUMN_NAME;
 class PstFlowComputer {
     SparseMatrixWithIndexesCSC run(Network network,
                                    NetworkMatrixIndexes networkMatrixIndexes,
-                                   SparseMatrixWithIndexesTriplet psdfMatrix) {
+                                   SparseMatrixWithIndexesCSC psdfMatrix) {
         SparseMatrixWithIndexesTriplet deltaTapMatrix = getDeltaTapMatrix(network, networkMatrixIndexes);
-        return SparseMatrixWithIndexesCSC.mult(psdfMatrix.toCSCMatrix(), deltaTapMatrix.toCSCMatrix());
+        return SparseMatrixWithIndexesCSC.mult(psdfMatrix, deltaTapMatrix.toCSCMatrix());
     }
 
     private SparseMatrixWithIndexesTriplet getDeltaTapMatrix(Network network, NetworkMatrixIndexes networkMatrixIndexes) {
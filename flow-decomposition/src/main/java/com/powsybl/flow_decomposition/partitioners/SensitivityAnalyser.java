@@ -6,17 +6,23 @@
  */
 package com.powsybl.flow_decomposition.partitioners;
 
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.contingency.ContingencyContext;
 import com.powsybl.flow_decomposition.AbstractSensitivityAnalyser;
+import com.powsybl.flow_decomposition.FlowDecompositionObserverList;
 import com.powsybl.flow_decomposition.FlowDecompositionParameters;
-import com.powsybl.flow_decomposition.FunctionVariableFactor;
+import com.powsybl.flow_decomposition.SensitivityBatchPlan;
 import com.powsybl.iidm.network.Branch;
 import com.powsybl.iidm.network.Network;
+import com.powsybl.iidm.network.VariantManager;
 import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.sensitivity.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
 
 /**
  * @author Hugo Schindler {@literal <hugo.schindler at rte-france.com>}
@@ -29,84 +35,295 @@ public class SensitivityAnalyser extends AbstractSensitivityAnalyser {
     private final Network network;
     private final List<Branch<?>> functionList;
     private final Map<String, Integer> functionIndex;
+    private final int busCount;
     private final FlowDecompositionParameters parameters;
+    private final FlowDecompositionObserverList observers;
+    private final boolean flowSignConvention;
 
-    SensitivityAnalyser(LoadFlowParameters loadFlowParameters,
-                        FlowDecompositionParameters parameters,
-                        SensitivityAnalysis.Runner runner,
-                        Network network,
-                        List<Branch<?>> functionList,
-                        Map<String, Integer> functionIndex) {
+    SensitivityAnalyser(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner runner, Network network, NetworkMatrixIndexes networkMatrixIndexes) {
+        this(loadFlowParameters, parameters, runner, network, networkMatrixIndexes, new FlowDecompositionObserverList());
+    }
+
+    SensitivityAnalyser(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner runner, Network network, NetworkMatrixIndexes networkMatrixIndexes,
+                        FlowDecompositionObserverList observers) {
+        this(loadFlowParameters, parameters, runner, network, networkMatrixIndexes, observers, true);
+    }
+
+    /**
+     * @param flowSignConvention when false, sensitivities are kept as computed instead of following the sign of the
+     *                           reference flow of their XNEC, for example to be reused with other injections.
+     *                           {@link #getNegativeReferenceFlowRows} then gives the rows to negate.
+     */
+    SensitivityAnalyser(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner runner, Network network, NetworkMatrixIndexes networkMatrixIndexes,
+                        FlowDecompositionObserverList observers, boolean flowSignConvention) {
         super(loadFlowParameters, runner);
         this.parameters = parameters;
         this.network = network;
-        this.functionList = functionList;
-        this.functionIndex = functionIndex;
-    }
-
-    SensitivityAnalyser(LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner runner, Network network, NetworkMatrixIndexes networkMatrixIndexes) {
-        this(loadFlowParameters, parameters, runner, network, networkMatrixIndexes.getXnecList(), networkMatrixIndexes.getXnecIndex());
+        this.functionList = networkMatrixIndexes.getXnecList();
+        this.functionIndex = networkMatrixIndexes.getXnecIndex();
+        this.busCount = networkMatrixIndexes.getBusCount();
+        this.observers = Objects.requireNonNull(observers);
+        this.flowSignConvention = flowSignConvention;
     }
 
     SparseMatrixWithIndexesCSC getNodalPtdfMatrix(Map<String, Integer> injectionIdIndex) {
-        return run(List.copyOf(injectionIdIndex.keySet()),
-            injectionIdIndex,
-            SensitivityVariableType.INJECTION_ACTIVE_POWER).toCSCMatrix().removeZerosInplace(parameters.getSensitivityEpsilon());
+        return getTriplet(run(List.of(getNodalPtdfVariables(injectionIdIndex)))[0]).toCSCMatrix().removeZerosInplace(parameters.getSensitivityEpsilon());
     }
 
     SparseMatrixWithIndexesTriplet getPtdfMatrix(NetworkMatrixIndexes networkMatrixIndexes) {
-        return run(networkMatrixIndexes.getNodeIdList(),
-                networkMatrixIndexes.getNodeIndex(),
-                SensitivityVariableType.INJECTION_ACTIVE_POWER);
+        return getTriplet(run(List.of(getPtdfVariables(networkMatrixIndexes, false)))[0]);
     }
 
     SparseMatrixWithIndexesTriplet getPsdfMatrix(NetworkMatrixIndexes networkMatrixIndexes) {
-        return run(networkMatrixIndexes.getPstList(),
-                networkMatrixIndexes.getPstIndex(), SensitivityVariableType.TRANSFORMER_PHASE);
+        return getTriplet(run(List.of(getPsdfVariables(networkMatrixIndexes)))[0]);
     }
 
-    private SparseMatrixWithIndexesTriplet run(List<String> variableList,
-                                       Map<String, Integer> variableIndex,
-                                       SensitivityVariableType sensitivityVariableType) {
-        SparseMatrixWithIndexesTriplet sensiMatrixTriplet = initSensitivityMatrixTriplet(variableIndex);
-        for (int i = 0; i < variableList.size(); i += parameters.getSensitivityVariableBatchSize()) {
-            List<String> localVariableList = variableList.subList(i, Math.min(variableList.size(), i + parameters.getSensitivityVariableBatchSize()));
-            partialFillSensitivityMatrix(sensitivityVariableType, sensiMatrixTriplet, localVariableList);
-        }
-        return sensiMatrixTriplet;
+    /**
+     * Computes the node PTDF and the PSDF in a single sensitivity analysis, so that the DC system is only built and
+     * factorized once for both.
+     */
+    PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> getPtdfAndPsdfMatrices(NetworkMatrixIndexes networkMatrixIndexes) {
+        IndexedMatrixWriter[] matrices = run(List.of(getPtdfVariables(networkMatrixIndexes, false), getPsdfVariables(networkMatrixIndexes)));
+        return new PtdfPsdfMatrices<>(getTriplet(matrices[0]), getTriplet(matrices[1]));
+    }
+
+    /**
+     * Same as {@link #getPtdfAndPsdfMatrices}, the node PTDF being written directly in dense rows.
+     */
+    PtdfPsdfMatrices<DenseMatrixWithIndexes> getDensePtdfAndPsdfMatrices(NetworkMatrixIndexes networkMatrixIndexes) {
+        IndexedMatrixWriter[] matrices = run(List.of(getPtdfVariables(networkMatrixIndexes, true), getPsdfVariables(networkMatrixIndexes)));
+        return new PtdfPsdfMatrices<>((DenseMatrixWithIndexes) matrices[0], getTriplet(matrices[1]));
+    }
+
+    /**
+     * Computes the PTDF of the given injections and the PSDF in a single sensitivity analysis.
+     */
+    PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> getNodalPtdfAndPsdfMatrices(Map<String, Integer> injectionIdIndex, NetworkMatrixIndexes networkMatrixIndexes) {
+        IndexedMatrixWriter[] matrices = run(List.of(getNodalPtdfVariables(injectionIdIndex), getPsdfVariables(networkMatrixIndexes)));
+        return new PtdfPsdfMatrices<>(getTriplet(matrices[0]), getTriplet(matrices[1]));
+    }
+
+    private static SparseMatrixWithIndexesTriplet getTriplet(IndexedMatrixWriter matrix) {
+        return (SparseMatrixWithIndexesTriplet) matrix;
+    }
+
+    private static VariableGroup getNodalPtdfVariables(Map<String, Integer> injectionIdIndex) {
+        return new VariableGroup(List.copyOf(injectionIdIndex.keySet()), injectionIdIndex, SensitivityVariableType.INJECTION_ACTIVE_POWER, false);
     }
 
-    private SparseMatrixWithIndexesTriplet initSensitivityMatrixTriplet(Map<String, Integer> variableIndex) {
+    private static VariableGroup getPtdfVariables(NetworkMatrixIndexes networkMatrixIndexes, boolean dense) {
+        return new VariableGroup(networkMatrixIndexes.getNodeIdList(), networkMatrixIndexes.getNodeIndex(), SensitivityVariableType.INJECTION_ACTIVE_POWER, dense);
+    }
+
+    private static VariableGroup getPsdfVariables(NetworkMatrixIndexes networkMatrixIndexes) {
+        return new VariableGroup(networkMatrixIndexes.getPstList(), networkMatrixIndexes.getPstIndex(), SensitivityVariableType.TRANSFORMER_PHASE, false);
+    }
+
+    /**
+     * Variables of all the groups are batched together, each group filling its own matrix.
+     */
+    private IndexedMatrixWriter[] run(List<VariableGroup> variableGroups) {
         LOGGER.debug("Filtering Sensitivity values with epsilon = {}", parameters.getSensitivityEpsilon());
+        FactorIndexes factorIndexes = new FactorIndexes(functionList, functionIndex, variableGroups);
+        int variableCount = factorIndexes.variableIds.size();
+        SensitivityBatchPlan plan = planBatches(variableGroups);
+        IndexedMatrixWriter[] sensiMatrices = initSensitivityMatrices(factorIndexes, 0, variableCount, null);
+        String variantId = network.getVariantManager().getWorkingVariantId();
+        // Variants cannot be created while other threads access the network, for example contingency state workers
+        if (plan.parallelism() > 1 && !network.getVariantManager().isVariantMultiThreadAccessAllowed()) {
+            fillSensitivityMatrixInParallel(factorIndexes, variantId, plan, sensiMatrices);
+        } else {
+            for (int i = 0; i < variableCount; i += plan.batchSize()) {
+                int end = Math.min(variableCount, i + plan.batchSize());
+                fillSensitivityAnalysisResult(factorIndexes, i, end, variantId, sensiMatrices);
+            }
+        }
+        return sensiMatrices;
+    }
+
+    private SensitivityBatchPlan planBatches(List<VariableGroup> variableGroups) {
+        Map<SensitivityVariableType, Integer> variableCounts = new EnumMap<>(SensitivityVariableType.class);
+        variableGroups.forEach(group -> variableCounts.merge(group.type(), group.variableIds().size(), Integer::sum));
+        boolean memoryBudgetEnabled = parameters.getSensitivityMemoryBudget() > FlowDecompositionParameters.DISABLE_SENSITIVITY_MEMORY_BUDGET;
+        long availableMemory = memoryBudgetEnabled ? SensitivityBatchPlanner.getAvailableHeap() : Long.MAX_VALUE;
+        SensitivityBatchPlan plan = SensitivityBatchPlanner.plan(variableCounts, functionIndex.size(), busCount, parameters, availableMemory);
+        LOGGER.debug("Sensitivities to {} variables computed by {} batches of {} variables using {} workers, estimated memory {} bytes",
+            variableCounts, plan.batchCount(), plan.batchSize(), plan.parallelism(), plan.estimatedMemory());
+        observers.computedSensitivityBatchPlan(plan);
+        return plan;
+    }
+
+    /**
+     * Runs the variable batches on a pool of workers. The bus views of the network are lazily computed and cached per
+     * variant without synchronisation, so each worker runs its batches on its own copy of the variant of the calling
+     * thread, set as its working variant through multi-thread variant access. The copies are removed once all batches
+     * are done.
+     * Each batch fills its own triplet, appended to the result in batch order once computed, so that the result is
+     * identical to the sequential one. Dense matrices are filled directly by all batches, which write distinct columns.
+     */
+    private void fillSensitivityMatrixInParallel(FactorIndexes factorIndexes,
+                                                 String variantId,
+                                                 SensitivityBatchPlan plan,
+                                                 IndexedMatrixWriter[] sensiMatrices) {
+        int variableCount = plan.variableCount();
+        int batchSize = plan.batchSize();
+        VariantManager variantManager = network.getVariantManager();
+        List<String> workerVariantIds = IntStream.range(0, plan.parallelism())
+            .mapToObj(worker -> getWorkerVariantId(variantId, worker))
+            .toList();
+        variantManager.cloneVariant(variantId, workerVariantIds);
+        BlockingQueue<String> availableVariantIds = new ArrayBlockingQueue<>(workerVariantIds.size(), false, workerVariantIds);
+        boolean variantMultiThreadAccessAllowed = variantManager.isVariantMultiThreadAccessAllowed();
+        variantManager.allowVariantMultiThreadAccess(true);
+        ExecutorService executorService = Executors.newFixedThreadPool(plan.parallelism());
+        try {
+            List<Future<IndexedMatrixWriter[]>> futures = new ArrayList<>();
+            for (int i = 0; i < variableCount; i += batchSize) {
+                int start = i;
+                int end = Math.min(variableCount, i + batchSize);
+                futures.add(executorService.submit(() -> {
+                    String workerVariantId = availableVariantIds.take();
+                    try {
+                        variantManager.setWorkingVariant(workerVariantId);
+                        IndexedMatrixWriter[] batchMatrices = initSensitivityMatrices(factorIndexes, start, end, sensiMatrices);
+                        fillSensitivityAnalysisResult(factorIndexes, start, end, workerVariantId, batchMatrices);
+                        return batchMatrices;
+                    } finally {
+                        availableVariantIds.add(workerVariantId);
+                    }
+                }));
+            }
+            for (Future<IndexedMatrixWriter[]> future : futures) {
+                IndexedMatrixWriter[] batchMatrices = getFutureResult(future);
+                for (int group = 0; group < sensiMatrices.length; group++) {
+                    if (sensiMatrices[group] instanceof SparseMatrixWithIndexesTriplet triplet) {
+                        triplet.addAll(getTriplet(batchMatrices[group]));
+                    }
+                }
+            }
+        } finally {
+            // Workers still running after a failure must be done with their variant before it is removed
+            shutdownAndAwaitTermination(executorService);
+            variantManager.allowVariantMultiThreadAccess(variantMultiThreadAccessAllowed);
+            variantManager.setWorkingVariant(variantId);
+            workerVariantIds.forEach(variantManager::removeVariant);
+        }
+    }
+
+    private static String getWorkerVariantId(String variantId, int worker) {
+        return variantId + "_sensitivity_worker_" + worker;
+    }
+
+    private static void shutdownAndAwaitTermination(ExecutorService executorService) {
+        executorService.shutdownNow();
+        try {
+            while (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for sensitivity workers to terminate");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> T getFutureResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PowsyblException("Sensitivity analysis has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new PowsyblException("Sensitivity analysis failed", e.getCause());
+        }
+    }
+
+    /**
+     * @param sharedMatrices matrices of the whole run whose dense matrices are filled directly by the batch, null to
+     *                       create them.
+     * @return a matrix per variable group, triplets being sized for the variables of the group between variableStart
+     * and variableEnd.
+     */
+    private IndexedMatrixWriter[] initSensitivityMatrices(FactorIndexes factorIndexes, int variableStart, int variableEnd, IndexedMatrixWriter[] sharedMatrices) {
+        IndexedMatrixWriter[] matrices = new IndexedMatrixWriter[factorIndexes.variableIndexes.size()];
+        for (int group = 0; group < matrices.length; group++) {
+            if (factorIndexes.denseGroups[group]) {
+                matrices[group] = sharedMatrices != null
+                    ? sharedMatrices[group]
+                    : new DenseMatrixWithIndexes(functionIndex, factorIndexes.variableIndexes.get(group), parameters.getSensitivityEpsilon());
+            } else {
+                int groupStart = Math.max(variableStart, factorIndexes.groupStarts[group]);
+                int groupEnd = Math.min(variableEnd, factorIndexes.groupStarts[group + 1]);
+                matrices[group] = initSensitivityMatrixTriplet(factorIndexes.variableIndexes.get(group), factorIndexes.groupTypes[group], Math.max(0, groupEnd - groupStart));
+            }
+        }
+        return matrices;
+    }
+
+    private SparseMatrixWithIndexesTriplet initSensitivityMatrixTriplet(Map<String, Integer> variableIndex, SensitivityVariableType variableType, int variableCount) {
+        double density = SensitivityBatchPlanner.getExpectedDensity(variableType, parameters);
+        long expectedSensitivityCount = (long) Math.ceil(functionIndex.size() * (double) variableCount * density);
         return new SparseMatrixWithIndexesTriplet(functionIndex,
             variableIndex,
-            functionIndex.size() * variableIndex.size(),
+            (int) Math.min(Integer.MAX_VALUE - 8, expectedSensitivityCount),
             parameters.getSensitivityEpsilon());
     }
 
-    private void partialFillSensitivityMatrix(SensitivityVariableType sensitivityVariableType,
-                                              SparseMatrixWithIndexesTriplet sensitivityMatrixTriplet,
-                                              List<String> variableList) {
-        List<FunctionVariableFactor> factors = getFunctionVariableFactors(variableList, functionList);
-        fillSensitivityAnalysisResult(factors, sensitivityMatrixTriplet, sensitivityVariableType);
-    }
-
-    private void fillSensitivityAnalysisResult(List<FunctionVariableFactor> factors, SparseMatrixWithIndexesTriplet sensitivityMatrixTriplet, SensitivityVariableType sensitivityVariableType) {
-        SensitivityFactorReader factorReader = getSensitivityFactorReader(factors, sensitivityVariableType, SENSITIVITY_VARIABLE_SET);
-        SensitivityResultWriter valueWriter = getSensitivityResultWriter(factors, sensitivityMatrixTriplet);
-        runSensitivityAnalysis(network, factorReader, valueWriter, EMPTY_SENSITIVITY_VARIABLE_SETS);
+    private void fillSensitivityAnalysisResult(FactorIndexes factorIndexes, int variableStart, int variableEnd, String variantId,
+                                               IndexedMatrixWriter[] sensitivityMatrices) {
+        SensitivityFactorReader factorReader = getSensitivityFactorReader(factorIndexes, variableStart, variableEnd);
+        SensitivityResultWriter valueWriter = getSensitivityResultWriter(factorIndexes, variableStart, sensitivityMatrices);
+        runSensitivityAnalysis(network, variantId, factorReader, valueWriter, EMPTY_SENSITIVITY_VARIABLE_SETS, CONTINGENCIES);
     }
 
     public static double respectFlowSignConvention(double ptdfValue, double referenceFlow) {
         return referenceFlow < 0 ? -ptdfValue : ptdfValue;
     }
 
-    private static SensitivityResultWriter getSensitivityResultWriter(List<FunctionVariableFactor> factors, SparseMatrixWithIndexesTriplet sensitivityMatrixTriplet) {
+    /**
+     * Rows of the XNECs whose sensitivities are negated by the flow sign convention in the working variant. The DC load
+     * flow of the state has been run on it with the same DC parameters as the sensitivity analyses, so the sign of its
+     * flows is the sign of the sensitivity reference flows.
+     */
+    static boolean[] getNegativeReferenceFlowRows(NetworkMatrixIndexes networkMatrixIndexes) {
+        boolean[] negativeRows = new boolean[networkMatrixIndexes.getXnecIndex().size()];
+        for (Branch<?> xnec : networkMatrixIndexes.getXnecList()) {
+            negativeRows[networkMatrixIndexes.getXnecIndex().get(xnec.getId())] = xnec.getTerminal1().getP() < 0;
+        }
+        return negativeRows;
+    }
+
+    /**
+     * Factors of a batch are emitted variable first, then function, so that the factor index alone gives back the
+     * function and the variable.
+     */
+    private static SensitivityFactorReader getSensitivityFactorReader(FactorIndexes factorIndexes, int variableStart, int variableEnd) {
+        return handler -> {
+            for (int variable = variableStart; variable < variableEnd; variable++) {
+                String variableId = factorIndexes.variableIds.get(variable);
+                SensitivityVariableType sensitivityVariableType = factorIndexes.variableTypes[variable];
+                for (String functionId : factorIndexes.functionIds) {
+                    handler.onFactor(SENSITIVITY_FUNCTION_TYPE,
+                        functionId,
+                        sensitivityVariableType,
+                        variableId,
+                        SENSITIVITY_VARIABLE_SET,
+                        ContingencyContext.none());
+                }
+            }
+        };
+    }
+
+    private SensitivityResultWriter getSensitivityResultWriter(FactorIndexes factorIndexes, int variableStart, IndexedMatrixWriter[] sensitivityMatrices) {
+        int functionCount = factorIndexes.functionRows.length;
         return new SensitivityResultWriter() {
             @Override
             public void writeSensitivityValue(int factorIndex, int contingencyIndex, int operatorStrategyIndex, double value, double functionReference) {
-                FunctionVariableFactor factor = factors.get(factorIndex);
-                sensitivityMatrixTriplet.addItem(factor.functionId(), factor.variableId(), respectFlowSignConvention(value, functionReference));
+                int variable = variableStart + factorIndex / functionCount;
+                sensitivityMatrices[factorIndexes.variableGroups[variable]].addItem(factorIndexes.functionRows[factorIndex % functionCount],
+                    factorIndexes.variableColumns[variable],
+                    flowSignConvention ? respectFlowSignConvention(value, functionReference) : value);
             }
 
             @Override
@@ -115,4 +332,62 @@ public class SensitivityAnalyser extends AbstractSensitivityAnalyser {
             }
         };
     }
+
+    /**
+     * PTDF and PSDF matrices computed by a single sensitivity analysis.
+     */
+    record PtdfPsdfMatrices<T extends IndexedMatrixWriter>(T ptdfMatrix, SparseMatrixWithIndexesTriplet psdfMatrix) {
+    }
+
+    /**
+     * Variables of a single type, filling the columns of one sensitivity matrix, dense or sparse.
+     */
+    private record VariableGroup(List<String> variableIds, Map<String, Integer> variableIndex, SensitivityVariableType type, boolean dense) {
+    }
+
+    /**
+     * Ids of the functions and variables, with their row and column in the sensitivity matrices, resolved once for all batches.
+     * Variables of the groups are numbered one group after the other.
+     */
+    private static final class FactorIndexes {
+        private final String[] functionIds;
+        private final int[] functionRows;
+        private final List<String> variableIds = new ArrayList<>();
+        private final List<Map<String, Integer>> variableIndexes = new ArrayList<>();
+        private final int[] groupStarts;
+        private final SensitivityVariableType[] groupTypes;
+        private final boolean[] denseGroups;
+        private final int[] variableColumns;
+        private final int[] variableGroups;
+        private final SensitivityVariableType[] variableTypes;
+
+        private FactorIndexes(List<Branch<?>> functionList, Map<String, Integer> functionIndex, List<VariableGroup> groups) {
+            this.functionIds = new String[functionList.size()];
+            this.functionRows = new int[functionList.size()];
+            for (int function = 0; function < functionList.size(); function++) {
+                functionIds[function] = functionList.get(function).getId();
+                functionRows[function] = functionIndex.get(functionIds[function]);
+            }
+            this.groupStarts = new int[groups.size() + 1];
+            this.groupTypes = new SensitivityVariableType[groups.size()];
+            this.denseGroups = new boolean[groups.size()];
+            for (int group = 0; group < groups.size(); group++) {
+                variableIds.addAll(groups.get(group).variableIds());
+                variableIndexes.add(groups.get(group).variableIndex());
+                groupTypes[group] = groups.get(group).type();
+                denseGroups[group] = groups.get(group).dense();
+                groupStarts[group + 1] = variableIds.size();
+            }
+            this.variableColumns = new int[variableIds.size()];
+            this.variableGroups = new int[variableIds.size()];
+            this.variableTypes = new SensitivityVariableType[variableIds.size()];
+            for (int group = 0; group < groups.size(); group++) {
+                for (int variable = groupStarts[group]; variable < groupStarts[group + 1]; variable++) {
+                    variableColumns[variable] = groups.get(group).variableIndex().get(variableIds.get(variable));
+                    variableGroups[variable] = group;
+                    variableTypes[variable] = groups.get(group).type();
+                }
+            }
+        }
+    }
 }
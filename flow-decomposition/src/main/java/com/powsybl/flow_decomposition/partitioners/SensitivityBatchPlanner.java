@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.SensitivityBatchPlan;
+import com.powsybl.sensitivity.SensitivityVariableType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+import static com.powsybl.flow_decomposition.FlowDecompositionParameters.DISABLE_SENSITIVITY_MEMORY_BUDGET;
+
+/**
+ * Chooses the variable batches of the sensitivity analyses of a state.
+ * <p>
+ * Memory of a computation is estimated as the stored sensitivities of the result, plus for each variable of the batches
+ * computed concurrently its stored sensitivities and its column of DC state, one value per bus. Stored sensitivities
+ * take {@link #BYTES_PER_SENSITIVITY} each and are expected to be a given fraction of all function and variable pairs.
+ * A phase shift redistributes flows on the whole meshed grid, so sensitivities to phase tap changers are always
+ * expected dense. When variables of several types are batched together, each variable of a batch is counted with the
+ * memory of the heavier type, which the plan reports.
+ * With a memory budget, batches are as large as possible for that estimate to fit both the budget and the available heap.
+ * Otherwise, they have the configured size.
+ */
+final class SensitivityBatchPlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityBatchPlanner.class);
+    static final long BYTES_PER_SENSITIVITY = 2L * Integer.BYTES + Double.BYTES;
+    static final long BYTES_PER_STATE_VALUE = Double.BYTES;
+    static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private SensitivityBatchPlanner() {
+    }
+
+    static SensitivityBatchPlan plan(SensitivityVariableType variableType,
+                                     int functionCount,
+                                     int variableCount,
+                                     int busCount,
+                                     FlowDecompositionParameters parameters,
+                                     long availableMemory) {
+        return plan(Map.of(variableType, variableCount), functionCount, busCount, parameters, availableMemory);
+    }
+
+    static SensitivityBatchPlan plan(Map<SensitivityVariableType, Integer> variableCounts,
+                                     int functionCount,
+                                     int busCount,
+                                     FlowDecompositionParameters parameters,
+                                     long availableMemory) {
+        SensitivityVariableType variableType = null;
+        int variableCount = 0;
+        long resultMemory = 0;
+        long bytesPerVariable = 1;
+        for (Map.Entry<SensitivityVariableType, Integer> variableCountEntry : variableCounts.entrySet()) {
+            double density = getExpectedDensity(variableCountEntry.getKey(), parameters);
+            long typeBytesPerVariable = getSensitivitiesMemory(functionCount, 1, density) + busCount * BYTES_PER_STATE_VALUE;
+            if (variableType == null || typeBytesPerVariable > bytesPerVariable) {
+                variableType = variableCountEntry.getKey();
+                bytesPerVariable = Math.max(1, typeBytesPerVariable);
+            }
+            variableCount += variableCountEntry.getValue();
+            resultMemory += getSensitivitiesMemory(functionCount, variableCountEntry.getValue(), density);
+        }
+        if (parameters.getSensitivityMemoryBudget() <= DISABLE_SENSITIVITY_MEMORY_BUDGET) {
+            int batchSize = Math.max(1, parameters.getSensitivityVariableBatchSize());
+            int parallelism = Math.clamp(Math.ceilDiv(variableCount, batchSize), 1, Math.max(1, parameters.getSensitivityParallelism()));
+            long batchesMemory = (long) parallelism * Math.min(batchSize, variableCount) * bytesPerVariable;
+            return new SensitivityBatchPlan(variableType, functionCount, variableCount, batchSize, parallelism, resultMemory + batchesMemory, DISABLE_SENSITIVITY_MEMORY_BUDGET);
+        }
+
+        long memoryBudget = Math.min(parameters.getSensitivityMemoryBudget() * BYTES_PER_MB, availableMemory);
+        long batchesBudget = memoryBudget - resultMemory;
+        if (batchesBudget < bytesPerVariable) {
+            LOGGER.warn("Estimated memory of {} sensitivities ({} bytes) does not fit the memory budget of {} bytes, variables are computed one by one",
+                variableType, resultMemory + bytesPerVariable, memoryBudget);
+        }
+        int maxConcurrentVariables = (int) Math.clamp(batchesBudget / bytesPerVariable, 1, Math.max(1, variableCount));
+        int parallelism = Math.clamp(parameters.getSensitivityParallelism(), 1, maxConcurrentVariables);
+        int batchSize = Math.max(1, Math.min(maxConcurrentVariables / parallelism, Math.ceilDiv(variableCount, parallelism)));
+        parallelism = Math.clamp(Math.ceilDiv(variableCount, batchSize), 1, parallelism);
+        long batchesMemory = parallelism * (long) batchSize * bytesPerVariable;
+        return new SensitivityBatchPlan(variableType, functionCount, variableCount, batchSize, parallelism, resultMemory + batchesMemory, memoryBudget);
+    }
+
+    static double getExpectedDensity(SensitivityVariableType variableType, FlowDecompositionParameters parameters) {
+        return variableType == SensitivityVariableType.TRANSFORMER_PHASE ? 1. : parameters.getSensitivityExpectedDensity();
+    }
+
+    static long getSensitivitiesMemory(int functionCount, int variableCount, double density) {
+        return (long) Math.ceil(functionCount * (double) variableCount * density) * BYTES_PER_SENSITIVITY;
+    }
+
+    /**
+     * @return heap that can still be allocated by this JVM.
+     */
+    static long getAvailableHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.flow_decomposition.NetworkFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Least recently used cache of PTDF and PSDF matrices shared by the runs of a flow decomposition computer.
+ * Keys combine the sensitivity fingerprint of the network with the ordered row and column ids of the matrix, so that
+ * a cached matrix is only reused with the exact same indexes. Cached matrices must not be modified by their users.
+ * Sensitivities are cached as computed: the flow sign convention depends on the reference flows, and so on the
+ * injections, of each run, so it is applied by the users to their own copies.
+ *
+ * @see NetworkFingerprint#sensitivities
+ */
+public class SensitivityMatrixCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SensitivityMatrixCache.class);
+    private final int maximumSize;
+    private final Map<String, Object> matrices;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * @param maximumSize maximum number of matrices kept by the cache, 0 disabling the cache.
+     */
+    public SensitivityMatrixCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.matrices = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > SensitivityMatrixCache.this.maximumSize;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maximumSize > 0;
+    }
+
+    private static String getKey(String fingerprint, String matrixName, Map<String, Integer> rowIndex, Map<String, Integer> colIndex) {
+        return NetworkFingerprint.digest(Stream.of(
+                Stream.of(fingerprint, matrixName),
+                getOrderedIds(rowIndex),
+                Stream.of(""),
+                getOrderedIds(colIndex))
+            .flatMap(ids -> ids));
+    }
+
+    private static Stream<String> getOrderedIds(Map<String, Integer> index) {
+        return index.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey);
+    }
+
+    /**
+     * Returns the cached matrix of the given network state and indexes, or computes and caches it. The computation
+     * happens outside the lock, so concurrent misses on the same key may compute the matrix several times.
+     *
+     * @param fingerprint sensitivity fingerprint of the network, ignored when the cache is disabled.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String fingerprint, String matrixName, Map<String, Integer> rowIndex, Map<String, Integer> colIndex, Supplier<T> matrixSupplier) {
+        if (!isEnabled()) {
+            return matrixSupplier.get();
+        }
+        String key = getKey(fingerprint, matrixName, rowIndex, colIndex);
+        synchronized (this) {
+            Object matrix = matrices.get(key);
+            if (matrix != null) {
+                hitCount++;
+                LOGGER.debug("Sensitivity matrix cache hit ({} hits, {} misses)", hitCount, missCount);
+                return (T) matrix;
+            }
+            missCount++;
+        }
+        T matrix = matrixSupplier.get();
+        synchronized (this) {
+            matrices.put(key, matrix);
+        }
+        return matrix;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int size() {
+        return matrices.size();
+    }
+
+    public synchronized void clear() {
+        matrices.clear();
+    }
+}
@@ -6,13 +6,12 @@
  */
 package com.powsybl.flow_decomposition.partitioners;
 
+import com.powsybl.flow_decomposition.SparseMatrixView;
 import org.ejml.data.DMatrixSparse;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.sparse.csc.CommonOps_DSCC;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +30,10 @@ class SparseMatrixWithIndexesCSC extends AbstractSparseMatrixWithIndexes {
         this(rowIndex, colIndex, new DMatrixSparseCSC(rowIndex.size(), colIndex.size()));
     }
 
+    DMatrixSparseCSC getCscMatrix() {
+        return cscMatrix;
+    }
+
     static SparseMatrixWithIndexesCSC mult(SparseMatrixWithIndexesCSC matrix1, SparseMatrixWithIndexesCSC matrix2) {
         SparseMatrixWithIndexesCSC multiplicationResult = new SparseMatrixWithIndexesCSC(matrix1.rowIndex, matrix2.colIndex);
         CommonOps_DSCC.mult(matrix1.cscMatrix, matrix2.cscMatrix, multiplicationResult.cscMatrix);
@@ -66,6 +69,38 @@ class SparseMatrixWithIndexesCSC extends AbstractSparseMatrixWithIndexes {
         return this;
     }
 
+    /**
+     * Changes the sign of the stored values of the given rows.
+     */
+    SparseMatrixWithIndexesCSC negateRowsInplace(boolean[] negatedRows) {
+        for (int i = 0; i < cscMatrix.nz_length; i++) {
+            if (negatedRows[cscMatrix.nz_rows[i]]) {
+                cscMatrix.nz_values[i] = -cscMatrix.nz_values[i];
+            }
+        }
+        return this;
+    }
+
+    SparseMatrixWithIndexesCSC copy() {
+        return new SparseMatrixWithIndexesCSC(rowIndex, colIndex, cscMatrix.copy());
+    }
+
+    /**
+     * Calls the consumer on each stored value, column by column, without building any intermediate structure.
+     */
+    void forEachNonZero(CellConsumer consumer) {
+        for (int col = 0; col < cscMatrix.numCols; col++) {
+            for (int i = cscMatrix.col_idx[col]; i < cscMatrix.col_idx[col + 1]; i++) {
+                consumer.accept(cscMatrix.nz_rows[i], col, cscMatrix.nz_values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface CellConsumer {
+        void accept(int row, int col, double value);
+    }
+
     double[] getColumnAsArray(String colId) {
         int col = this.colIndex.get(colId);
         double[] out = new double[cscMatrix.numRows];
@@ -81,4 +116,99 @@ class SparseMatrixWithIndexesCSC extends AbstractSparseMatrixWithIndexes {
     public Double get(String rowId, String colId) {
         return cscMatrix.get(rowIndex.get(rowId), colIndex.get(colId));
     }
+
+    /**
+     * @return a read-only view backed by the CSC data of this matrix.
+     */
+    SparseMatrixView view() {
+        return new View();
+    }
+
+    private final class View implements SparseMatrixView {
+        private String[] rowIds;
+        private String[] colIds;
+        private DMatrixSparseCSC transposedMatrix;
+
+        private String[] getIds(Map<String, Integer> index) {
+            String[] ids = new String[index.size()];
+            index.forEach((id, position) -> ids[position] = id);
+            return ids;
+        }
+
+        private String getRowId(int row) {
+            if (rowIds == null) {
+                rowIds = getIds(rowIndex);
+            }
+            return rowIds[row];
+        }
+
+        private String getColId(int col) {
+            if (colIds == null) {
+                colIds = getIds(colIndex);
+            }
+            return colIds[col];
+        }
+
+        /**
+         * @return the transposed matrix, whose columns give the stored values of each row of this matrix.
+         */
+        private DMatrixSparseCSC getTransposedMatrix() {
+            if (transposedMatrix == null) {
+                transposedMatrix = CommonOps_DSCC.transpose(cscMatrix, null, null);
+            }
+            return transposedMatrix;
+        }
+
+        @Override
+        public Set<String> getRowIds() {
+            return Collections.unmodifiableSet(rowIndex.keySet());
+        }
+
+        @Override
+        public Set<String> getColumnIds() {
+            return Collections.unmodifiableSet(colIndex.keySet());
+        }
+
+        @Override
+        public double get(String rowId, String columnId) {
+            Integer row = rowIndex.get(rowId);
+            Integer col = colIndex.get(columnId);
+            return row == null || col == null ? 0. : cscMatrix.get(row, col);
+        }
+
+        @Override
+        public void forEach(CellConsumer consumer) {
+            forEachNonZero((row, col, value) -> consumer.accept(getRowId(row), getColId(col), value));
+        }
+
+        @Override
+        public Map<String, Double> getColumn(String columnId) {
+            Map<String, Double> column = new TreeMap<>();
+            Integer col = colIndex.get(columnId);
+            if (col != null) {
+                for (int i = cscMatrix.col_idx[col]; i < cscMatrix.col_idx[col + 1]; i++) {
+                    column.put(getRowId(cscMatrix.nz_rows[i]), cscMatrix.nz_values[i]);
+                }
+            }
+            return column;
+        }
+
+        @Override
+        public Map<String, Double> getRow(String rowId) {
+            Map<String, Double> rowValues = new TreeMap<>();
+            Integer row = rowIndex.get(rowId);
+            if (row != null) {
+                DMatrixSparseCSC transposed = getTransposedMatrix();
+                for (int i = transposed.col_idx[row]; i < transposed.col_idx[row + 1]; i++) {
+                    rowValues.put(getColId(transposed.nz_rows[i]), transposed.nz_values[i]);
+                }
+            }
+            return rowValues;
+        }
+
+        @Override
+        public Map<String, Map<String, Double>> toMap() {
+            return SparseMatrixWithIndexesCSC.this.toMap();
+        }
+    }
 }
@@ -6,17 +6,19 @@
  */
 package com.powsybl.flow_decomposition.partitioners;
 
+import org.ejml.data.DMatrixSparse;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.data.DMatrixSparseTriplet;
 import org.ejml.ops.DConvertMatrixStruct;
 
+import java.util.Iterator;
 import java.util.Map;
 
 /**
  * @author Sebastien Murgey {@literal <sebastien.murgey at rte-france.com>}
  * @author Hugo Schindler {@literal <hugo.schindler at rte-france.com>}
  */
-class SparseMatrixWithIndexesTriplet extends AbstractSparseMatrixWithIndexes {
+class SparseMatrixWithIndexesTriplet extends AbstractSparseMatrixWithIndexes implements IndexedMatrixWriter {
     private static final double NO_FILTERING_EPSILON = -1;
     private final DMatrixSparseTriplet tripletMatrix;
     private final double epsilon;
@@ -50,6 +52,43 @@ class SparseMatrixWithIndexesTriplet extends AbstractSparseMatrixWithIndexes {
         }
     }
 
+    /**
+     * Same as {@link #addItem(String, String, double)} with row and column positions already resolved.
+     */
+    @Override
+    public void addItem(int row, int col, double value) {
+        if (!Double.isNaN(value) && isNotZero(value)) {
+            tripletMatrix.addItem(row, col, value);
+        }
+    }
+
+    /**
+     * Appends the values of the given matrix, which must have the same indexes. Values are not filtered again.
+     */
+    void addAll(SparseMatrixWithIndexesTriplet other) {
+        for (Iterator<DMatrixSparse.CoordinateRealValue> iterator = other.tripletMatrix.createCoordinateIterator(); iterator.hasNext(); ) {
+            DMatrixSparse.CoordinateRealValue cell = iterator.next();
+            tripletMatrix.addItem(cell.row, cell.col, cell.value);
+        }
+    }
+
+    /**
+     * @return the share of stored values among all the cells of the matrix.
+     */
+    double getDensity() {
+        double cellCount = (double) tripletMatrix.numRows * tripletMatrix.numCols;
+        return cellCount == 0 ? 0 : tripletMatrix.nz_length / cellCount;
+    }
+
+    DenseMatrixWithIndexes toDenseMatrix() {
+        DenseMatrixWithIndexes denseMatrix = new DenseMatrixWithIndexes(rowIndex, colIndex);
+        for (Iterator<DMatrixSparse.CoordinateRealValue> iterator = tripletMatrix.createCoordinateIterator(); iterator.hasNext(); ) {
+            DMatrixSparse.CoordinateRealValue cell = iterator.next();
+            denseMatrix.addItem(cell.row, cell.col, cell.value);
+        }
+        return denseMatrix;
+    }
+
     SparseMatrixWithIndexesCSC toCSCMatrix() {
         DMatrixSparseCSC cscMatrix = DConvertMatrixStruct.convert(tripletMatrix, (DMatrixSparseCSC) null);
         return new SparseMatrixWithIndexesCSC(this.rowIndex, this.colIndex, cscMatrix);
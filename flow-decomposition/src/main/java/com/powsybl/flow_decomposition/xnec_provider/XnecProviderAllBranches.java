@@ -40,4 +40,9 @@ public class XnecProviderAllBranches implements XnecProvider {
     public List<Contingency> getContingencies(Network network) {
         return Collections.emptyList();
     }
+
+    @Override
+    public boolean dependsOnTopologyOnly() {
+        return true;
+    }
 }
@@ -137,4 +137,9 @@ public final class XnecProviderByIds implements XnecProvider {
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
+
+    @Override
+    public boolean dependsOnTopologyOnly() {
+        return true;
+    }
 }
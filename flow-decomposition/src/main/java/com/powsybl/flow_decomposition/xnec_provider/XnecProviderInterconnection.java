@@ -51,4 +51,9 @@ public class XnecProviderInterconnection implements XnecProvider {
     public List<Contingency> getContingencies(Network network) {
         return Collections.emptyList();
     }
+
+    @Override
+    public boolean dependsOnTopologyOnly() {
+        return true;
+    }
 }
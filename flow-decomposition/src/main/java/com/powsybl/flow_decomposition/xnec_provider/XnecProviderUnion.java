@@ -116,4 +116,9 @@ public class XnecProviderUnion implements XnecProvider {
         initializeContingencyConsistencyCache(network);
         return contingencyConsistencyCache.getContingencies();
     }
+
+    @Override
+    public boolean dependsOnTopologyOnly() {
+        return xnecProviders.stream().allMatch(XnecProvider::dependsOnTopologyOnly);
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Country;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarDecomposedFlowStoreTests {
+    private static final double EPSILON = 1e-9;
+    private static final String NETWORK_FILE_NAME = "19700101_0000_FO4_UX1.uct";
+    private static final String BRANCH_ID_1 = "DB000011 DF000011 1";
+    private static final String BRANCH_ID_2 = "FB000011 FD000011 1";
+    private static final String CONTINGENCY_ID = "DD000011 DF000011 1";
+
+    private static XnecProvider getXnecProvider() {
+        return XnecProviderByIds.builder()
+            .addContingencies(Map.of(CONTINGENCY_ID, Set.of(CONTINGENCY_ID)))
+            .addNetworkElementsAfterContingencies(Set.of(BRANCH_ID_1, BRANCH_ID_2), Set.of(CONTINGENCY_ID))
+            .addNetworkElementsOnBasecase(Set.of(BRANCH_ID_1, BRANCH_ID_2))
+            .build();
+    }
+
+    private static FlowDecompositionComputer getComputer() {
+        return new FlowDecompositionComputer(new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE));
+    }
+
+    @Test
+    void testStoreRowsMatchDecomposedFlows() {
+        ColumnarDecomposedFlowStore store = new ColumnarDecomposedFlowStore();
+        getComputer().run(getXnecProvider(), new AutoGlskProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME), store);
+        Map<String, DecomposedFlow> expectedDecomposedFlows = getComputer().run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME)).getDecomposedFlowMap();
+
+        assertEquals(4, store.size());
+        assertEquals(Set.of(BRANCH_ID_1, BRANCH_ID_2), Set.copyOf(store.getBranchIds()));
+        assertEquals(List.of("", CONTINGENCY_ID), store.getContingencyIds());
+        ColumnarDecomposedFlowStore.Row row = store.row();
+        for (int i = 0; i < store.size(); i++) {
+            row.moveTo(i);
+            DecomposedFlow expected = expectedDecomposedFlows.get(row.getId());
+            assertEquals(expected.getCountry1(), row.getCountry1());
+            assertEquals(expected.getCountry2(), row.getCountry2());
+            assertEquals(expected.getAcTerminal1ReferenceFlow(), row.getAcTerminal1ReferenceFlow(), EPSILON);
+            assertEquals(expected.getDcReferenceFlow(), row.getDcReferenceFlow(), EPSILON);
+            assertEquals(expected.getAllocatedFlow(), row.getAllocatedFlow(), EPSILON);
+            assertEquals(expected.getPstFlow(), row.getPstFlow(), EPSILON);
+            assertEquals(expected.getInternalFlow(), row.getInternalFlow(), EPSILON);
+            assertEquals(expected.getTotalFlow(), row.getTotalFlow(), EPSILON);
+            expected.getLoopFlows().forEach((country, loopFlow) -> assertEquals(loopFlow, row.getLoopFlow(country), EPSILON));
+        }
+        assertEquals(expectedDecomposedFlows.keySet(), store.toDecomposedFlowMap().keySet());
+    }
+
+    @Test
+    void testAggregations() {
+        ColumnarDecomposedFlowStore store = new ColumnarDecomposedFlowStore();
+        store.accept(Map.of("a", getDecomposedFlow("a", 1.)));
+        store.accept(Map.of("b", getDecomposedFlow("b", -5.)));
+        store.accept(Map.of("c", getDecomposedFlow("c", 3.)));
+
+        assertEquals(-1., store.getLoopFlowSum(Country.FR), EPSILON);
+        assertEquals(0., store.getLoopFlowSum(Country.DE), EPSILON);
+
+        int[] rows = new int[2];
+        assertEquals(2, store.getTopLoopFlowRows(Country.FR, rows));
+        assertArrayEquals(new int[] {1, 2}, rows);
+        assertEquals(0, store.getTopLoopFlowRows(Country.DE, rows));
+        int[] allRows = new int[5];
+        assertEquals(3, store.getTopLoopFlowRows(Country.FR, allRows));
+        assertArrayEquals(new int[] {1, 2, 0, 0, 0}, allRows);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.row().moveTo(3));
+    }
+
+    private static DecomposedFlow getDecomposedFlow(String branchId, double loopFlow) {
+        return new DecomposedFlowBuilder()
+            .withBranchId(branchId)
+            .withContingencyId("")
+            .withCountry1(Country.FR)
+            .withCountry2(Country.BE)
+            .withFlowPartition(new FlowPartition(0., 0., Map.of(Country.FR, loopFlow), 0., 0.))
+            .build();
+    }
+}
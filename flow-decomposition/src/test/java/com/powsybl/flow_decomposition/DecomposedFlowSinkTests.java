@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Network;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecomposedFlowSinkTests {
+    private static final double EPSILON = 1e-3;
+    private static final String NETWORK_FILE_NAME = "19700101_0000_FO4_UX1.uct";
+    private static final String BRANCH_ID = "DB000011 DF000011 1";
+    private static final String CONTINGENCY_ID_1 = "DD000011 DF000011 1";
+    private static final String CONTINGENCY_ID_2 = "FB000011 FD000011 1";
+
+    private static XnecProvider getXnecProvider() {
+        return XnecProviderByIds.builder()
+            .addContingencies(Map.of(CONTINGENCY_ID_1, Set.of(CONTINGENCY_ID_1), CONTINGENCY_ID_2, Set.of(CONTINGENCY_ID_2)))
+            .addNetworkElementsAfterContingencies(Set.of(BRANCH_ID), Set.of(CONTINGENCY_ID_1, CONTINGENCY_ID_2))
+            .addNetworkElementsOnBasecase(Set.of(BRANCH_ID))
+            .build();
+    }
+
+    private static FlowDecompositionComputer getComputer() {
+        return new FlowDecompositionComputer(new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE));
+    }
+
+    @Test
+    void testStatesArePushedOneByOneAndNotKeptInResults() {
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        List<Map<String, DecomposedFlow>> states = new ArrayList<>();
+        FlowDecompositionResults results = getComputer().run(getXnecProvider(), new AutoGlskProvider(), network, states::add);
+
+        assertTrue(results.getDecomposedFlowMap().isEmpty());
+        assertEquals(3, states.size());
+        assertEquals(Set.of(BRANCH_ID), states.get(0).keySet());
+        states.forEach(state -> assertEquals(1, state.size()));
+    }
+
+    @Test
+    void testBinarySinkRoundTrip(@TempDir Path tempDir) {
+        Path path = tempDir.resolve("decomposed-flows.bin");
+        try (BinaryDecomposedFlowSink sink = new BinaryDecomposedFlowSink(path)) {
+            getComputer().run(getXnecProvider(), new AutoGlskProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME), sink);
+        }
+        Map<String, DecomposedFlow> readDecomposedFlows = new HashMap<>();
+        BinaryDecomposedFlowSink.read(path, readDecomposedFlows::putAll);
+
+        Map<String, DecomposedFlow> expectedDecomposedFlows = getComputer().run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME)).getDecomposedFlowMap();
+        assertEquals(expectedDecomposedFlows.keySet(), readDecomposedFlows.keySet());
+        expectedDecomposedFlows.forEach((xnecId, expected) -> {
+            DecomposedFlow actual = readDecomposedFlows.get(xnecId);
+            assertEquals(expected.getBranchId(), actual.getBranchId());
+            assertEquals(expected.getContingencyId(), actual.getContingencyId());
+            assertEquals(expected.getCountry1(), actual.getCountry1());
+            assertEquals(expected.getCountry2(), actual.getCountry2());
+            assertEquals(expected.getAcTerminal1ReferenceFlow(), actual.getAcTerminal1ReferenceFlow(), EPSILON);
+            assertEquals(expected.getDcReferenceFlow(), actual.getDcReferenceFlow(), EPSILON);
+            assertEquals(expected.getAllocatedFlow(), actual.getAllocatedFlow(), EPSILON);
+            assertEquals(expected.getPstFlow(), actual.getPstFlow(), EPSILON);
+            assertEquals(expected.getLoopFlows(), actual.getLoopFlows());
+        });
+    }
+
+    @Test
+    void testCsvSinkWritesOneRowPerXnec(@TempDir Path tempDir) throws IOException {
+        Path path = tempDir.resolve("decomposed-flows.csv");
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        try (CsvDecomposedFlowSink sink = new CsvDecomposedFlowSink(path, network.getCountries())) {
+            getComputer().run(getXnecProvider(), new AutoGlskProvider(), network, sink);
+        }
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).endsWith(",Allocated Flow,Internal Flow,PST Flow,Loop Flow from BE,Loop Flow from DE,Loop Flow from FR,Reference AC Flow 1,Reference AC Flow 2,Reference DC Flow"));
+        assertTrue(lines.get(1).startsWith(BRANCH_ID + ","));
+    }
+
+    @Test
+    void testBinaryReaderRejectsOtherFiles(@TempDir Path tempDir) throws IOException {
+        Path path = tempDir.resolve("other.bin");
+        Files.write(path, new byte[] {0, 0, 0, 0, 0, 0, 0, 1});
+        DecomposedFlowSink sink = state -> fail();
+        assertThrows(PowsyblException.class, () -> BinaryDecomposedFlowSink.read(path, sink));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowDecompositionAsyncTests {
+    private static final String NETWORK_FILE_NAME = "19700101_0000_FO4_UX1.uct";
+    private static final String BRANCH_ID = "DB000011 DF000011 1";
+    private static final String CONTINGENCY_ID_1 = "DD000011 DF000011 1";
+    private static final String CONTINGENCY_ID_2 = "FB000011 FD000011 1";
+
+    private static XnecProvider getXnecProvider() {
+        return XnecProviderByIds.builder()
+            .addContingencies(Map.of(CONTINGENCY_ID_1, Set.of(CONTINGENCY_ID_1), CONTINGENCY_ID_2, Set.of(CONTINGENCY_ID_2)))
+            .addNetworkElementsAfterContingencies(Set.of(BRANCH_ID), Set.of(CONTINGENCY_ID_1, CONTINGENCY_ID_2))
+            .addNetworkElementsOnBasecase(Set.of(BRANCH_ID))
+            .build();
+    }
+
+    private static FlowDecompositionComputer getComputer() {
+        return new FlowDecompositionComputer(new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE));
+    }
+
+    @Test
+    void testRunAsyncGivesSameResultsAndReportsProgress() throws Exception {
+        FlowDecompositionComputer computer = getComputer();
+        ProgressObserver observer = new ProgressObserver(null);
+        computer.addObserver(observer);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            FlowDecompositionResults results = computer.runAsync(getXnecProvider(), new AutoGlskProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME), executorService)
+                .get(1, TimeUnit.MINUTES);
+            Map<String, DecomposedFlow> expected = getComputer().run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME)).getDecomposedFlowMap();
+            assertEquals(expected.keySet(), results.getDecomposedFlowMap().keySet());
+            expected.forEach((xnecId, decomposedFlow) ->
+                assertEquals(decomposedFlow.getAllocatedFlow(), results.getDecomposedFlowMap().get(xnecId).getAllocatedFlow(), 1e-6));
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals(List.of("1/3", "2/3", "3/3"), observer.progress);
+    }
+
+    @Test
+    void testCancellationStopsBetweenStatesAndRemovesVariants() {
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        String initialVariantId = network.getVariantManager().getWorkingVariantId();
+        FlowDecompositionComputer computer = getComputer();
+        CompletableFuture<?>[] future = new CompletableFuture<?>[1];
+        ProgressObserver observer = new ProgressObserver(() -> future[0].cancel(false));
+        computer.addObserver(observer);
+        List<Runnable> tasks = new ArrayList<>();
+
+        future[0] = computer.runAsync(getXnecProvider(), new AutoGlskProvider(), network, tasks::add);
+        assertFalse(future[0].isDone());
+        tasks.forEach(Runnable::run);
+
+        assertTrue(future[0].isCancelled());
+        assertEquals(List.of("1/3"), observer.progress);
+        assertEquals(List.of(initialVariantId), List.copyOf(network.getVariantManager().getVariantIds()));
+        assertEquals(initialVariantId, network.getVariantManager().getWorkingVariantId());
+    }
+
+    @Test
+    void testRejectedRunCompletesExceptionally() {
+        CompletableFuture<FlowDecompositionResults> future = getComputer().runAsync(getXnecProvider(), new AutoGlskProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME),
+            task -> {
+                throw new RejectedExecutionException("Queue is full");
+            });
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+    }
+
+    @Test
+    void testErrorCompletesExceptionallyAndIsRethrown() {
+        NoClassDefFoundError error = new NoClassDefFoundError("Missing class");
+        FlowDecompositionComputer computer = getComputer();
+        computer.addObserver(new ProgressObserver(() -> {
+            throw error;
+        }));
+        List<Runnable> tasks = new ArrayList<>();
+
+        CompletableFuture<FlowDecompositionResults> future = computer.runAsync(getXnecProvider(), new AutoGlskProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME), tasks::add);
+        Runnable task = tasks.get(0);
+        assertSame(error, assertThrows(NoClassDefFoundError.class, task::run));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertSame(error, exception.getCause());
+    }
+
+    private static final class ProgressObserver implements FlowDecompositionObserver {
+        private final List<String> progress = new ArrayList<>();
+        private final Runnable onFirstState;
+
+        private ProgressObserver(Runnable onFirstState) {
+            this.onFirstState = onFirstState;
+        }
+
+        @Override
+        public void computedState(int computedStateCount, int stateCount) {
+            progress.add(computedStateCount + "/" + stateCount);
+            if (computedStateCount == 1 && onFirstState != null) {
+                onFirstState.run();
+            }
+        }
+
+        @Override
+        public void runStart() {
+            // Not used
+        }
+
+        @Override
+        public void runDone() {
+            // Not used
+        }
+
+        @Override
+        public void computingBaseCase() {
+            // Not used
+        }
+
+        @Override
+        public void computingContingency(String contingencyId) {
+            // Not used
+        }
+
+        @Override
+        public void computedGlsk(Map<Country, Map<String, Double>> glsks) {
+            // Not used
+        }
+
+        @Override
+        public void computedNetPositions(Map<Country, Double> netPositions) {
+            // Not used
+        }
+
+        @Override
+        public void computedNodalInjectionsMatrix(Map<String, Map<String, Double>> nodalInjections) {
+            // Not used
+        }
+
+        @Override
+        public void computedPtdfMatrix(Map<String, Map<String, Double>> ptdfMatrix) {
+            // Not used
+        }
+
+        @Override
+        public void computedPsdfMatrix(Map<String, Map<String, Double>> psdfMatrix) {
+            // Not used
+        }
+
+        @Override
+        public void computedAcLoadFlowResults(Network network, LoadFlowResult loadFlowResult, boolean fallbackHasBeenActivated) {
+            // Not used
+        }
+
+        @Override
+        public void computedPreRescalingDecomposedFlows(DecomposedFlow decomposedFlow) {
+            // Not used
+        }
+
+        @Override
+        public void computedDcLoadFlowResults(Network network, LoadFlowResult loadFlowResult) {
+            // Not used
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.contingency.Contingency;
+import com.powsybl.flow_decomposition.metrics.FlowDecompositionPhase;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Branch;
+import com.powsybl.iidm.network.Country;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowDecompositionBatchTests {
+    private static final double EPSILON = 1e-3;
+    private static final String NETWORK_FILE_NAME = "19700101_0000_FO4_UX1.uct";
+    private static final String BRANCH_ID = "DB000011 DF000011 1";
+    private static final String CONTINGENCY_ID = "DD000011 DF000011 1";
+
+    private static XnecProvider getXnecProvider() {
+        return XnecProviderByIds.builder()
+            .addContingency(CONTINGENCY_ID, Set.of(CONTINGENCY_ID))
+            .addNetworkElementsAfterContingencies(Set.of(BRANCH_ID), Set.of(CONTINGENCY_ID))
+            .addNetworkElementsOnBasecase(Set.of(BRANCH_ID))
+            .build();
+    }
+
+    private static FlowDecompositionParameters getParameters() {
+        return new FlowDecompositionParameters()
+            .setEnableLossesCompensation(FlowDecompositionParameters.ENABLE_LOSSES_COMPENSATION)
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE)
+            .setBatchParallelism(2);
+    }
+
+    private static void assertSameResults(FlowDecompositionResults expected, FlowDecompositionResults actual) {
+        assertEquals(expected.getDecomposedFlowMap().keySet(), actual.getDecomposedFlowMap().keySet());
+        expected.getDecomposedFlowMap().forEach((xnecId, decomposedFlow) -> {
+            DecomposedFlow actualDecomposedFlow = actual.getDecomposedFlowMap().get(xnecId);
+            assertEquals(decomposedFlow.getAcTerminal1ReferenceFlow(), actualDecomposedFlow.getAcTerminal1ReferenceFlow(), EPSILON);
+            assertEquals(decomposedFlow.getDcReferenceFlow(), actualDecomposedFlow.getDcReferenceFlow(), EPSILON);
+            assertEquals(decomposedFlow.getAllocatedFlow(), actualDecomposedFlow.getAllocatedFlow(), EPSILON);
+            assertEquals(decomposedFlow.getPstFlow(), actualDecomposedFlow.getPstFlow(), EPSILON);
+            assertEquals(decomposedFlow.getInternalFlow(), actualDecomposedFlow.getInternalFlow(), EPSILON);
+            decomposedFlow.getLoopFlows().forEach((country, loopFlow) -> assertEquals(loopFlow, actualDecomposedFlow.getLoopFlow(country), EPSILON));
+        });
+    }
+
+    @Test
+    void testBatchOnNetworksGivesSameResultsAsSingleRuns() {
+        Network network1 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        Network network2 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        ZonedDateTime timestamp2 = network1.getCaseDate().plusHours(1);
+        network2.setCaseDate(timestamp2);
+        network2.getLoad("FD000011_load").setP0(network2.getLoad("FD000011_load").getP0() + 10.);
+
+        FlowDecompositionComputer flowDecompositionComputer = new FlowDecompositionComputer(getParameters());
+        Map<ZonedDateTime, FlowDecompositionResults> resultsPerTimestamp = flowDecompositionComputer.runBatch(getXnecProvider(), List.of(network2, network1));
+        assertEquals(List.of(network1.getCaseDate(), timestamp2), List.copyOf(resultsPerTimestamp.keySet()));
+
+        assertSameResults(new FlowDecompositionComputer(getParameters()).run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME)),
+            resultsPerTimestamp.get(network1.getCaseDate()));
+        assertEquals(2, resultsPerTimestamp.get(timestamp2).getDecomposedFlowMap().size());
+        TestUtils.assertCoherenceTotalFlow(FlowDecompositionParameters.RescaleMode.NONE, resultsPerTimestamp.get(timestamp2));
+    }
+
+    @Test
+    void testBatchWithObserverNotifiesRunsOneAfterTheOtherAndMergesMetrics() {
+        Network network1 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        Network network2 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        network2.setCaseDate(network1.getCaseDate().plusHours(1));
+
+        FlowDecompositionComputer flowDecompositionComputer = new FlowDecompositionComputer(getParameters());
+        RunObserver observer = new RunObserver();
+        flowDecompositionComputer.addObserver(observer);
+        flowDecompositionComputer.runBatch(getXnecProvider(), List.of(network1, network2));
+
+        assertEquals(List.of("start", "done", "start", "done"), observer.events);
+        // Two states per snapshot
+        assertEquals(4, flowDecompositionComputer.getMetrics().getStatistics().get(FlowDecompositionPhase.AC_LOAD_FLOW).getCount());
+    }
+
+    @Test
+    void testBatchResolvesXnecsOncePerTopologyOnlyForProvidersDependingOnTopologyOnly() {
+        Network network1 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        Network network2 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        network2.setCaseDate(network1.getCaseDate().plusHours(1));
+        List<Network> networks = List.of(network1, network2);
+
+        CountingXnecProvider topologyXnecProvider = new CountingXnecProvider(true);
+        new FlowDecompositionComputer(getParameters()).runBatch(topologyXnecProvider, networks);
+        assertEquals(1, topologyXnecProvider.count);
+
+        CountingXnecProvider injectionXnecProvider = new CountingXnecProvider(false);
+        new FlowDecompositionComputer(getParameters()).runBatch(injectionXnecProvider, networks);
+        assertEquals(2, injectionXnecProvider.count);
+    }
+
+    @Test
+    void testBatchFailsOnDuplicatedCaseDates() {
+        Network network1 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        Network network2 = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        FlowDecompositionComputer flowDecompositionComputer = new FlowDecompositionComputer(getParameters());
+        XnecProvider xnecProvider = getXnecProvider();
+        List<Network> networks = List.of(network1, network2);
+        assertThrows(PowsyblException.class, () -> flowDecompositionComputer.runBatch(xnecProvider, networks));
+    }
+
+    private static final class CountingXnecProvider implements XnecProvider {
+        private final XnecProvider xnecProvider = getXnecProvider();
+        private final boolean dependsOnTopologyOnly;
+        private int count = 0;
+
+        private CountingXnecProvider(boolean dependsOnTopologyOnly) {
+            this.dependsOnTopologyOnly = dependsOnTopologyOnly;
+        }
+
+        @Override
+        public Set<Branch<?>> getNetworkElements(Network network) {
+            count++;
+            return xnecProvider.getNetworkElements(network);
+        }
+
+        @Override
+        public Set<Branch<?>> getNetworkElements(String contingencyId, Network network) {
+            return xnecProvider.getNetworkElements(contingencyId, network);
+        }
+
+        @Override
+        public Map<String, Set<Branch<?>>> getNetworkElementsPerContingency(Network network) {
+            return xnecProvider.getNetworkElementsPerContingency(network);
+        }
+
+        @Override
+        public List<Contingency> getContingencies(Network network) {
+            return xnecProvider.getContingencies(network);
+        }
+
+        @Override
+        public boolean dependsOnTopologyOnly() {
+            return dependsOnTopologyOnly;
+        }
+    }
+
+    private static final class RunObserver implements FlowDecompositionObserver {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void runStart() {
+            events.add("start");
+        }
+
+        @Override
+        public void runDone() {
+            events.add("done");
+        }
+
+        @Override
+        public void computingBaseCase() {
+            // Not used
+        }
+
+        @Override
+        public void computingContingency(String contingencyId) {
+            // Not used
+        }
+
+        @Override
+        public void computedGlsk(Map<Country, Map<String, Double>> glsks) {
+            // Not used
+        }
+
+        @Override
+        public void computedNetPositions(Map<Country, Double> netPositions) {
+            // Not used
+        }
+
+        @Override
+        public void computedNodalInjectionsMatrix(Map<String, Map<String, Double>> nodalInjections) {
+            // Not used
+        }
+
+        @Override
+        public void computedPtdfMatrix(Map<String, Map<String, Double>> ptdfMatrix) {
+            // Not used
+        }
+
+        @Override
+        public void computedPsdfMatrix(Map<String, Map<String, Double>> psdfMatrix) {
+            // Not used
+        }
+
+        @Override
+        public void computedAcLoadFlowResults(Network network, LoadFlowResult loadFlowResult, boolean fallbackHasBeenActivated) {
+            // Not used
+        }
+
+        @Override
+        public void computedPreRescalingDecomposedFlows(DecomposedFlow decomposedFlow) {
+            // Not used
+        }
+
+        @Override
+        public void computedDcLoadFlowResults(Network network, LoadFlowResult loadFlowResult) {
+            // Not used
+        }
+    }
+}
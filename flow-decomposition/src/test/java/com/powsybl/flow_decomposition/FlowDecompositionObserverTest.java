@@ -380,6 +380,49 @@ class FlowDecompositionObserverTest {
         validateObserverReportDecomposedFlows(report, List.of(contingencyId1), decomposedFlowBranches);
     }
 
+    @Test
+    void testObserversGetSameEventsWithContingencyParallelismAsSequentialOnes() {
+        String networkFileName = "19700101_0000_FO4_UX1.uct";
+        String branchId = "DB000011 DF000011 1";
+        String contingencyElementId1 = "FB000011 FD000011 1";
+        String contingencyElementId2 = "FB000021 FD000021 1";
+        String contingencyId1 = "DD000011 DF000011 1";
+        String contingencyId2 = "FB000011 FD000011 1_FB000021 FD000021 1";
+        String contingencyId3 = "FB000021 FB000022 1";
+        List<String> contingencyIds = List.of(contingencyId1, contingencyId2, contingencyId3);
+        XnecProvider xnecProvider = XnecProviderByIds.builder()
+            .addContingencies(Map.of(contingencyId1, Set.of(contingencyId1), contingencyId2, Set.of(contingencyElementId1, contingencyElementId2), contingencyId3, Set.of(contingencyId3)))
+            .addNetworkElementsAfterContingencies(Set.of(branchId), Set.copyOf(contingencyIds))
+            .addNetworkElementsOnBasecase(Set.of(branchId))
+            .build();
+
+        var sequentialReport = new ObserverReport();
+        FlowDecompositionComputer sequentialComputer = new FlowDecompositionComputer(FlowDecompositionParameters.load());
+        sequentialComputer.addObserver(sequentialReport);
+        sequentialComputer.run(xnecProvider, TestUtils.importNetwork(networkFileName));
+
+        var parallelReport = new ObserverReport();
+        FlowDecompositionComputer parallelComputer = new FlowDecompositionComputer(FlowDecompositionParameters.load().setContingencyParallelism(3));
+        parallelComputer.addObserver(parallelReport);
+        parallelComputer.run(xnecProvider, TestUtils.importNetwork(networkFileName));
+
+        // Contingency states are decomposed one after the other when observers are registered
+        assertEquals(sequentialReport.allEvents(), parallelReport.allEvents());
+        for (String contingencyId : contingencyIds) {
+            assertEquals(sequentialReport.eventsForContingency(contingencyId), parallelReport.eventsForContingency(contingencyId));
+            assertEquals(sequentialReport.ptdfs.forContingency(contingencyId), parallelReport.ptdfs.forContingency(contingencyId));
+            assertEquals(sequentialReport.nodalInjections.forContingency(contingencyId), parallelReport.nodalInjections.forContingency(contingencyId));
+            assertSameValues(sequentialReport.acFlowsTerminal1.forContingency(contingencyId), parallelReport.acFlowsTerminal1.forContingency(contingencyId));
+            assertSameValues(sequentialReport.dcFlows.forContingency(contingencyId), parallelReport.dcFlows.forContingency(contingencyId));
+        }
+        assertEquals(Event.RUN_DONE, parallelReport.allEvents().get(parallelReport.allEvents().size() - 1));
+    }
+
+    private static void assertSameValues(Map<String, Double> expected, Map<String, Double> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((id, value) -> assertEquals(value, actual.get(id), 1e-9, id));
+    }
+
     private static void validateObserverReportLoadFlowResult(ObserverReport report, List<String> contingencyIds) {
         for (var contingencyId : contingencyIds) {
             LoadFlowResult contingencyAcLoadFlowResult = report.acLoadFlowResult.forContingency(contingencyId);
@@ -19,6 +19,7 @@ import java.nio.file.FileSystem;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -55,6 +56,15 @@ class FlowDecompositionParametersTests {
         assertTrue(parameters.isDcFallbackEnabledAfterAcDivergence());
         assertEquals(15000, parameters.getSensitivityVariableBatchSize());
         assertEquals(FlowDecompositionParameters.FlowPartitionMode.MATRIX_BASED, parameters.getFlowPartitioner());
+        assertEquals(1, parameters.getContingencyParallelism());
+        assertFalse(parameters.isContingencySensitivityAnalysisEnabled());
+        assertEquals(1, parameters.getBatchParallelism());
+        assertEquals(0, parameters.getSensitivityCacheSize());
+        assertEquals(1, parameters.getSensitivityParallelism());
+        assertEquals(0, parameters.getSensitivityMemoryBudget());
+        assertEquals(1., parameters.getSensitivityExpectedDensity(), EPSILON);
+        assertEquals(0.5, parameters.getDensePtdfDensityThreshold(), EPSILON);
+        assertFalse(parameters.isBusAggregationEnabled());
     }
 
     @Test
@@ -68,6 +78,15 @@ class FlowDecompositionParametersTests {
         mapModuleConfig.setStringProperty("dc-fallback-enabled-after-ac-divergence", Boolean.toString(false));
         mapModuleConfig.setStringProperty("sensitivity-variable-batch-size", Integer.toString(1234));
         mapModuleConfig.setStringProperty("flow-partitioner", FlowDecompositionParameters.FlowPartitionMode.DIRECT_SENSITIVITY_BASED.name());
+        mapModuleConfig.setStringProperty("contingency-parallelism", Integer.toString(8));
+        mapModuleConfig.setStringProperty("enable-contingency-sensitivity-analysis", Boolean.toString(true));
+        mapModuleConfig.setStringProperty("batch-parallelism", Integer.toString(4));
+        mapModuleConfig.setStringProperty("sensitivity-cache-size", Integer.toString(8));
+        mapModuleConfig.setStringProperty("sensitivity-parallelism", Integer.toString(6));
+        mapModuleConfig.setStringProperty("sensitivity-memory-budget", Integer.toString(2048));
+        mapModuleConfig.setStringProperty("sensitivity-expected-density", Double.toString(0.25));
+        mapModuleConfig.setStringProperty("dense-ptdf-density-threshold", Double.toString(0.8));
+        mapModuleConfig.setStringProperty("enable-bus-aggregation", "true");
 
         FlowDecompositionParameters parameters = FlowDecompositionParameters.load(platformConfig);
         assertTrue(parameters.isLossesCompensationEnabled());
@@ -78,6 +97,15 @@ class FlowDecompositionParametersTests {
         assertFalse(parameters.isDcFallbackEnabledAfterAcDivergence());
         assertEquals(1234, parameters.getSensitivityVariableBatchSize());
         assertEquals(FlowDecompositionParameters.FlowPartitionMode.DIRECT_SENSITIVITY_BASED, parameters.getFlowPartitioner());
+        assertEquals(8, parameters.getContingencyParallelism());
+        assertTrue(parameters.isContingencySensitivityAnalysisEnabled());
+        assertEquals(4, parameters.getBatchParallelism());
+        assertEquals(8, parameters.getSensitivityCacheSize());
+        assertEquals(6, parameters.getSensitivityParallelism());
+        assertEquals(2048, parameters.getSensitivityMemoryBudget());
+        assertEquals(0.25, parameters.getSensitivityExpectedDensity(), EPSILON);
+        assertEquals(0.8, parameters.getDensePtdfDensityThreshold(), EPSILON);
+        assertTrue(parameters.isBusAggregationEnabled());
     }
 
     @Test
@@ -94,4 +122,27 @@ class FlowDecompositionParametersTests {
         assertTrue(parameters.isDcFallbackEnabledAfterAcDivergence());
         assertEquals(FlowDecompositionParameters.FlowPartitionMode.MATRIX_BASED, parameters.getFlowPartitioner());
     }
+
+    @Test
+    void checkInvalidParametersAreRejected() {
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters();
+        assertThrows(IllegalArgumentException.class, () -> parameters.setContingencyParallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> parameters.setSensitivityParallelism(-1));
+        assertThrows(IllegalArgumentException.class, () -> parameters.setSensitivityMemoryBudget(-1));
+        assertThrows(IllegalArgumentException.class, () -> parameters.setSensitivityExpectedDensity(0));
+        assertThrows(IllegalArgumentException.class, () -> parameters.setSensitivityExpectedDensity(1.5));
+        assertThrows(IllegalArgumentException.class, () -> parameters.setSensitivityExpectedDensity(Double.NaN));
+        assertEquals(FlowDecompositionParameters.DISABLE_SENSITIVITY_MEMORY_BUDGET,
+            parameters.setSensitivityMemoryBudget(FlowDecompositionParameters.DISABLE_SENSITIVITY_MEMORY_BUDGET).getSensitivityMemoryBudget());
+        assertEquals(1., parameters.setSensitivityExpectedDensity(1.).getSensitivityExpectedDensity(), EPSILON);
+    }
+
+    @Test
+    void checkInvalidConfigurationOfParametersIsRejected() {
+        MapModuleConfig mapModuleConfig = platformConfig.createModuleConfig("flow-decomposition-default-parameters");
+        mapModuleConfig.setStringProperty("sensitivity-parallelism", Integer.toString(0));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> FlowDecompositionParameters.load(platformConfig));
+        assertEquals("Sensitivity parallelism must be strictly positive, got 0", exception.getMessage());
+    }
 }
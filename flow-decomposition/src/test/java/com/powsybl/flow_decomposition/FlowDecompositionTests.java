@@ -446,6 +446,79 @@ class FlowDecompositionTests {
         }
     }
 
+    @Test
+    void testBusAggregationGivesSameDecomposition() {
+        String networkFileName = "19700101_0000_FO4_UX1.uct";
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE);
+        Map<String, DecomposedFlow> expected = new FlowDecompositionComputer(parameters)
+            .run(new XnecProviderAllBranches(), TestUtils.importNetwork(networkFileName)).getDecomposedFlowMap();
+        Map<String, DecomposedFlow> aggregated = new FlowDecompositionComputer(parameters.setEnableBusAggregation(FlowDecompositionParameters.ENABLE_BUS_AGGREGATION))
+            .run(new XnecProviderAllBranches(), TestUtils.importNetwork(networkFileName)).getDecomposedFlowMap();
+
+        assertEquals(expected.keySet(), aggregated.keySet());
+        expected.forEach((xnecId, decomposedFlow) -> {
+            DecomposedFlow aggregatedFlow = aggregated.get(xnecId);
+            assertEquals(decomposedFlow.getAllocatedFlow(), aggregatedFlow.getAllocatedFlow(), 1e-6);
+            assertEquals(decomposedFlow.getInternalFlow(), aggregatedFlow.getInternalFlow(), 1e-6);
+            assertEquals(decomposedFlow.getPstFlow(), aggregatedFlow.getPstFlow(), 1e-6);
+            assertEquals(decomposedFlow.getXNodeFlow(), aggregatedFlow.getXNodeFlow(), 1e-6);
+            decomposedFlow.getLoopFlows().forEach((country, loopFlow) ->
+                assertEquals(loopFlow, aggregatedFlow.getLoopFlow(country), 1e-6));
+        });
+    }
+
+    @Test
+    void testFastFullLineDecompositionGivesSameDecompositionAsFullLineDecomposition() {
+        // This network has X-nodes, a PST out of its neutral tap and several countries
+        String networkFileName = "19700101_0000_FO4_UX1.uct";
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE)
+            .setSensitivityEpsilon(FlowDecompositionParameters.DISABLE_SENSITIVITY_EPSILON);
+        Map<String, DecomposedFlow> expected = new FlowDecompositionComputer(parameters.setFlowPartitioner(FlowDecompositionParameters.FlowPartitionMode.FULL_LINE_DECOMPOSITION))
+            .run(new XnecProviderAllBranches(), TestUtils.importNetwork(networkFileName)).getDecomposedFlowMap();
+        Map<String, DecomposedFlow> fast = new FlowDecompositionComputer(parameters.setFlowPartitioner(FlowDecompositionParameters.FlowPartitionMode.FAST_FULL_LINE_DECOMPOSITION))
+            .run(new XnecProviderAllBranches(), TestUtils.importNetwork(networkFileName)).getDecomposedFlowMap();
+
+        assertEquals(expected.keySet(), fast.keySet());
+        expected.forEach((xnecId, decomposedFlow) -> {
+            DecomposedFlow fastFlow = fast.get(xnecId);
+            assertEquals(decomposedFlow.getAllocatedFlow(), fastFlow.getAllocatedFlow(), 1e-6);
+            assertEquals(decomposedFlow.getXNodeFlow(), fastFlow.getXNodeFlow(), 1e-6);
+            assertEquals(decomposedFlow.getPstFlow(), fastFlow.getPstFlow(), 1e-6);
+            assertEquals(decomposedFlow.getInternalFlow(), fastFlow.getInternalFlow(), 1e-6);
+            Set.of(Country.BE, Country.DE, Country.FR).forEach(country ->
+                assertEquals(decomposedFlow.getLoopFlow(country), fastFlow.getLoopFlow(country), 1e-6));
+        });
+        assertTrue(expected.values().stream().anyMatch(decomposedFlow -> Math.abs(decomposedFlow.getAllocatedFlow()) > 1e-3));
+        assertTrue(expected.values().stream().anyMatch(decomposedFlow -> Math.abs(decomposedFlow.getXNodeFlow()) > 1e-3));
+        assertTrue(expected.values().stream().anyMatch(decomposedFlow -> Math.abs(decomposedFlow.getPstFlow()) > 1e-3));
+        assertTrue(expected.values().stream().anyMatch(decomposedFlow -> decomposedFlow.getLoopFlows().values().stream().anyMatch(loopFlow -> Math.abs(loopFlow) > 1e-3)));
+    }
+
+    @Test
+    void testDensePtdfMultiplicationGivesSameDecomposition() {
+        String networkFileName = "19700101_0000_FO4_UX1.uct";
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE);
+        // The expected density of the sensitivities is above the default threshold, so the PTDF is written in dense rows
+        Map<String, DecomposedFlow> dense = new FlowDecompositionComputer(parameters)
+            .run(new XnecProviderAllBranches(), TestUtils.importNetwork(networkFileName)).getDecomposedFlowMap();
+        Map<String, DecomposedFlow> expected = new FlowDecompositionComputer(parameters.setDensePtdfDensityThreshold(FlowDecompositionParameters.DISABLE_DENSE_PTDF_MULTIPLICATION))
+            .run(new XnecProviderAllBranches(), TestUtils.importNetwork(networkFileName)).getDecomposedFlowMap();
+
+        assertEquals(expected.keySet(), dense.keySet());
+        expected.forEach((xnecId, decomposedFlow) -> {
+            DecomposedFlow denseFlow = dense.get(xnecId);
+            assertEquals(decomposedFlow.getAllocatedFlow(), denseFlow.getAllocatedFlow(), 1e-9);
+            assertEquals(decomposedFlow.getInternalFlow(), denseFlow.getInternalFlow(), 1e-9);
+            assertEquals(decomposedFlow.getXNodeFlow(), denseFlow.getXNodeFlow(), 1e-9);
+            assertEquals(decomposedFlow.getLoopFlows().keySet(), denseFlow.getLoopFlows().keySet());
+            decomposedFlow.getLoopFlows().forEach((country, loopFlow) ->
+                assertEquals(loopFlow, denseFlow.getLoopFlow(country), 1e-9));
+        });
+    }
+
     @Test
     void testComponentModeChangesFromAllToMain() {
         LoadFlowParameters loadFlowParameters = LoadFlowParameters.load().setComponentMode(LoadFlowParameters.ComponentMode.ALL_CONNECTED);
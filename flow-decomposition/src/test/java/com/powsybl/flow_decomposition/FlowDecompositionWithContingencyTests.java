@@ -17,6 +17,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /**
  * @author Hugo Schindler {@literal <hugo.schindler at rte-france.com>}
@@ -227,6 +228,93 @@ class FlowDecompositionWithContingencyTests {
         validateFlowDecompositionOnXnec(xnecId3, branchId, contingencyId3, decomposedFlowMap.get(xnecId3), -406.204, 48.362);
     }
 
+    @Test
+    void testParallelContingencyStatesGiveSameResultsAsSequentialOnes() {
+        String networkFileName = "19700101_0000_FO4_UX1.uct";
+        String branchId = "DB000011 DF000011 1";
+        String contingencyElementId1 = "FB000011 FD000011 1";
+        String contingencyElementId2 = "FB000021 FD000021 1";
+        String contingencyId2 = "DD000011 DF000011 1";
+        String contingencyId3 = "FB000011 FD000011 1_FB000021 FD000021 1";
+        String contingencyId4 = "FB000021 FB000022 1";
+
+        XnecProvider xnecProvider = XnecProviderByIds.builder()
+            .addContingencies(Map.of(contingencyId2, Set.of(contingencyId2), contingencyId3, Set.of(contingencyElementId1, contingencyElementId2), contingencyId4, Set.of(contingencyId4)))
+            .addNetworkElementsAfterContingencies(Set.of(branchId), Set.of(contingencyId2, contingencyId3, contingencyId4))
+            .addNetworkElementsOnBasecase(Set.of(branchId))
+            .build();
+        FlowDecompositionParameters flowDecompositionParameters = FlowDecompositionParameters.load()
+            .setEnableLossesCompensation(FlowDecompositionParameters.ENABLE_LOSSES_COMPENSATION)
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE);
+        Map<String, DecomposedFlow> sequentialDecomposedFlowMap = new FlowDecompositionComputer(flowDecompositionParameters)
+            .run(xnecProvider, TestUtils.importNetwork(networkFileName))
+            .getDecomposedFlowMap();
+
+        Network network = TestUtils.importNetwork(networkFileName);
+        flowDecompositionParameters.setContingencyParallelism(3);
+        FlowDecompositionResults flowDecompositionResults = new FlowDecompositionComputer(flowDecompositionParameters).run(xnecProvider, network);
+        TestUtils.assertCoherenceTotalFlow(flowDecompositionParameters.getRescaleMode(), flowDecompositionResults);
+
+        Map<String, DecomposedFlow> parallelDecomposedFlowMap = flowDecompositionResults.getDecomposedFlowMap();
+        assertEquals(sequentialDecomposedFlowMap.keySet(), parallelDecomposedFlowMap.keySet());
+        sequentialDecomposedFlowMap.forEach((xnecId, decomposedFlow) -> {
+            DecomposedFlow parallelDecomposedFlow = parallelDecomposedFlowMap.get(xnecId);
+            assertEquals(decomposedFlow.getDcReferenceFlow(), parallelDecomposedFlow.getDcReferenceFlow(), EPSILON);
+            assertEquals(decomposedFlow.getAllocatedFlow(), parallelDecomposedFlow.getAllocatedFlow(), EPSILON);
+            assertEquals(decomposedFlow.getInternalFlow(), parallelDecomposedFlow.getInternalFlow(), EPSILON);
+            assertEquals(decomposedFlow.getPstFlow(), parallelDecomposedFlow.getPstFlow(), EPSILON);
+            assertEquals(decomposedFlow.getLoopFlows().keySet(), parallelDecomposedFlow.getLoopFlows().keySet());
+            decomposedFlow.getLoopFlows().forEach((country, loopFlow) -> assertEquals(loopFlow, parallelDecomposedFlow.getLoopFlow(country), EPSILON));
+        });
+        assertFalse(network.getVariantManager().isVariantMultiThreadAccessAllowed());
+        assertEquals(1, network.getVariantManager().getVariantIds().size());
+    }
+
+    @Test
+    void testContingencySensitivityAnalysisGivesSameResultsAsVariantBasedOne() {
+        String networkFileName = "19700101_0000_FO4_UX1.uct";
+        String branchId = "DB000011 DF000011 1";
+        String contingencyElementId1 = "FB000011 FD000011 1";
+        String contingencyElementId2 = "FB000021 FD000021 1";
+        String contingencyId1 = "";
+        String contingencyId2 = "DD000011 DF000011 1";
+        String contingencyId3 = "FB000011 FD000011 1_FB000021 FD000021 1";
+        String xnecId1 = "DB000011 DF000011 1";
+        String xnecId2 = "DB000011 DF000011 1_DD000011 DF000011 1";
+        String xnecId3 = "DB000011 DF000011 1_FB000011 FD000011 1_FB000021 FD000021 1";
+
+        Network network = TestUtils.importNetwork(networkFileName);
+        XnecProvider xnecProvider = XnecProviderByIds.builder()
+            .addContingencies(Map.of(contingencyId2, Set.of(contingencyId2), contingencyId3, Set.of(contingencyElementId1, contingencyElementId2)))
+            .addNetworkElementsAfterContingencies(Set.of(branchId), Set.of(contingencyId2, contingencyId3))
+            .addNetworkElementsOnBasecase(Set.of(branchId))
+            .build();
+        FlowDecompositionParameters flowDecompositionParameters = FlowDecompositionParameters.load()
+            .setEnableLossesCompensation(FlowDecompositionParameters.ENABLE_LOSSES_COMPENSATION)
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE)
+            .setEnableContingencySensitivityAnalysis(FlowDecompositionParameters.ENABLE_CONTINGENCY_SENSITIVITY_ANALYSIS);
+        FlowDecompositionComputer flowComputer = new FlowDecompositionComputer(flowDecompositionParameters);
+        FlowDecompositionResults flowDecompositionResults = flowComputer.run(xnecProvider, network);
+        TestUtils.assertCoherenceTotalFlow(flowDecompositionParameters.getRescaleMode(), flowDecompositionResults);
+
+        Map<String, DecomposedFlow> decomposedFlowMap = flowDecompositionResults.getDecomposedFlowMap();
+        validateFlowDecompositionOnXnec(xnecId1, branchId, contingencyId1, decomposedFlowMap.get(xnecId1), -300.420, 22.472);
+        validateFlowDecompositionOnXnec(xnecId2, branchId, contingencyId2, decomposedFlowMap.get(xnecId2), -1269.932, 31.943);
+        validateFlowDecompositionOnXnec(xnecId3, branchId, contingencyId3, decomposedFlowMap.get(xnecId3), -406.204, 48.362);
+
+        // Small batches hold injections and PSTs in the same sensitivity analysis
+        flowDecompositionParameters.setSensitivityVariableBatchSize(7);
+        Map<String, DecomposedFlow> smallBatchDecomposedFlowMap = new FlowDecompositionComputer(flowDecompositionParameters)
+            .run(xnecProvider, TestUtils.importNetwork(networkFileName))
+            .getDecomposedFlowMap();
+        decomposedFlowMap.forEach((xnecId, decomposedFlow) -> {
+            DecomposedFlow smallBatchDecomposedFlow = smallBatchDecomposedFlowMap.get(xnecId);
+            assertEquals(decomposedFlow.getAllocatedFlow(), smallBatchDecomposedFlow.getAllocatedFlow(), EPSILON);
+            assertEquals(decomposedFlow.getPstFlow(), smallBatchDecomposedFlow.getPstFlow(), EPSILON);
+            assertEquals(decomposedFlow.getLoopFlow(Country.FR), smallBatchDecomposedFlow.getLoopFlow(Country.FR), EPSILON);
+        });
+    }
+
     private static void validateFlowDecompositionOnXnec(String xnecId,
                                                         String branchId,
                                                         String contingencyId,
@@ -8,11 +8,13 @@ package com.powsybl.flow_decomposition;
 
 import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
 import com.powsybl.iidm.network.*;
+import com.powsybl.iidm.network.test.FourSubstationsNodeBreakerFactory;
 import com.powsybl.loadflow.LoadFlow;
 import com.powsybl.loadflow.LoadFlowParameters;
 import com.powsybl.openloadflow.OpenLoadFlowParameters;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -292,6 +294,93 @@ class LossesCompensationTests {
         });
     }
 
+    @Test
+    void testLossCompensationCanAlternateBetweenNetworks() {
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        loadFlowParameters.setDc(AC_LOAD_FLOW);
+
+        LossesCompensator lossesCompensator = new LossesCompensator(FlowDecompositionParameters.DISABLE_LOSSES_COMPENSATION_EPSILON);
+
+        Network network1 = importNetwork("NETWORK_SINGLE_LOAD_TWO_GENERATORS_WITH_COUNTRIES.uct");
+        Network network2 = importNetwork("NETWORK_SINGLE_LOAD_TWO_GENERATORS_WITH_COUNTRIES_INVERTED.uct");
+        network1.getVariantManager().cloneVariant("InitialState", "NewState");
+        LoadFlow.run(network1, loadFlowParameters);
+        LoadFlow.run(network2, loadFlowParameters);
+
+        lossesCompensator.run(network1);
+        lossesCompensator.run(network2);
+        long loadCount1 = network1.getLoadStream().count();
+
+        network1.getVariantManager().setWorkingVariant("NewState");
+        LoadFlow.run(network1, loadFlowParameters);
+        Map<Bus, Double> busToLossMap = network1.getBusBreakerView().getBusStream()
+            .collect(Collectors.toMap(Function.identity(), bus -> getLossOnBus(network1, bus)
+            ));
+
+        // Losses loads are found again instead of being added twice
+        lossesCompensator.run(network1);
+        assertEquals(loadCount1, network1.getLoadStream().count());
+        busToLossMap.forEach((bus, losses) -> {
+            Load load = network1.getLoad(LossesCompensator.getLossesId(bus.getId()));
+            assertNotNull(load);
+            assertEquals(losses, load.getP0());
+        });
+    }
+
+    @Test
+    void testLossCompensationDoesNotChangeNetworkStructureOfOtherVariants() {
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        loadFlowParameters.setDc(AC_LOAD_FLOW);
+        LossesCompensator lossesCompensator = new LossesCompensator(FlowDecompositionParameters.DISABLE_LOSSES_COMPENSATION_EPSILON);
+
+        Network network = FourSubstationsNodeBreakerFactory.create();
+        network.getVariantManager().cloneVariant(VariantManagerConstants.INITIAL_VARIANT_ID, "SplitState");
+        LoadFlow.run(network, loadFlowParameters);
+        lossesCompensator.run(network);
+        long lossesLoadCount = getLossesLoadCount(network);
+
+        // Opening the coupler splits the buses of its voltage level in the bus breaker view of this variant only
+        network.getVariantManager().setWorkingVariant("SplitState");
+        network.getSwitch("S1VL2_COUPLER").setOpen(true);
+        LoadFlow.run(network, loadFlowParameters);
+        lossesCompensator.run(network);
+        assertEquals(lossesLoadCount, getLossesLoadCount(network));
+        assertEquals(getBranchLosses(network), network.getLoadStream()
+            .filter(load -> load.getId().startsWith(LossesCompensator.LOSSES_ID_PREFIX))
+            .mapToDouble(Load::getP0)
+            .sum(), EPSILON);
+
+        network.getVariantManager().setWorkingVariant(VariantManagerConstants.INITIAL_VARIANT_ID);
+        assertLossesOnConnectedBuses(network);
+    }
+
+    private static long getLossesLoadCount(Network network) {
+        return network.getLoadStream().filter(load -> load.getId().startsWith(LossesCompensator.LOSSES_ID_PREFIX)).count();
+    }
+
+    private static double getBranchLosses(Network network) {
+        return network.getBranchStream()
+            .mapToDouble(branch -> branch.getTerminal1().getP() + branch.getTerminal2().getP())
+            .filter(losses -> losses > FlowDecompositionParameters.DISABLE_LOSSES_COMPENSATION_EPSILON)
+            .sum();
+    }
+
+    private static void assertLossesOnConnectedBuses(Network network) {
+        Map<String, Double> expectedLossesByBusId = new HashMap<>();
+        network.getBranchStream().forEach(branch -> {
+            Terminal terminal1 = branch.getTerminal1();
+            Terminal terminal2 = branch.getTerminal2();
+            double losses = terminal1.getP() + terminal2.getP();
+            if (losses > FlowDecompositionParameters.DISABLE_LOSSES_COMPENSATION_EPSILON) {
+                Terminal sendingTerminal = !terminal2.isConnected() || terminal1.isConnected() && terminal1.getP() >= terminal2.getP() ? terminal1 : terminal2;
+                expectedLossesByBusId.merge(sendingTerminal.getBusBreakerView().getBus().getId(), losses, Double::sum);
+            }
+        });
+        network.getLoadStream()
+            .filter(load -> load.getId().startsWith(LossesCompensator.LOSSES_ID_PREFIX))
+            .forEach(load -> assertEquals(expectedLossesByBusId.getOrDefault(load.getId().substring(LossesCompensator.LOSSES_ID_PREFIX.length()), 0.), load.getP0(), EPSILON));
+    }
+
     /*
         Test flow decomposition with losses compensation in a simple network
           FR : bus1
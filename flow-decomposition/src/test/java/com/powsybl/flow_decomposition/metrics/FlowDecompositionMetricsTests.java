@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.metrics;
+
+import com.powsybl.flow_decomposition.FlowDecompositionComputer;
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.TestUtils;
+import com.powsybl.flow_decomposition.XnecProvider;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowDecompositionMetricsTests {
+    private static final String NETWORK_FILE_NAME = "19700101_0000_FO4_UX1.uct";
+    private static final String BRANCH_ID = "DB000011 DF000011 1";
+    private static final String CONTINGENCY_ID = "DD000011 DF000011 1";
+    private static final String PHASE_EVENT_NAME = "com.powsybl.flow_decomposition.Phase";
+
+    private static XnecProvider getXnecProvider() {
+        return XnecProviderByIds.builder()
+            .addContingency(CONTINGENCY_ID, Set.of(CONTINGENCY_ID))
+            .addNetworkElementsAfterContingencies(Set.of(BRANCH_ID), Set.of(CONTINGENCY_ID))
+            .addNetworkElementsOnBasecase(Set.of(BRANCH_ID))
+            .build();
+    }
+
+    private static FlowDecompositionComputer getComputer(FlowDecompositionParameters.FlowPartitionMode flowPartitionMode) {
+        return new FlowDecompositionComputer(new FlowDecompositionParameters()
+            .setEnableLossesCompensation(FlowDecompositionParameters.ENABLE_LOSSES_COMPENSATION)
+            .setFlowPartitioner(flowPartitionMode));
+    }
+
+    @Test
+    void testMatrixBasedPhasesAreMeasuredForEachState() {
+        FlowDecompositionComputer computer = getComputer(FlowDecompositionParameters.FlowPartitionMode.MATRIX_BASED);
+        computer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+
+        Map<FlowDecompositionPhase, PhaseStatistics> statistics = computer.getMetrics().getStatistics();
+        assertEquals(2, statistics.get(FlowDecompositionPhase.AC_LOAD_FLOW).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.LOSSES_COMPENSATION).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.DC_LOAD_FLOW).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.NODAL_INJECTIONS).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.PTDF).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.PSDF).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.MATRIX_MULTIPLICATION).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.RESCALING).getCount());
+        assertFalse(statistics.containsKey(FlowDecompositionPhase.PEX_GRAPH));
+
+        PhaseStatistics ptdfStatistics = statistics.get(FlowDecompositionPhase.PTDF);
+        assertTrue(ptdfStatistics.getTotalWallTimeNanos() > 0);
+        assertTrue(ptdfStatistics.getMaxWallTimeNanos() <= ptdfStatistics.getTotalWallTimeNanos());
+        assertEquals(2, sum(ptdfStatistics.getWallTimeHistogram()));
+
+        computer.getMetrics().reset();
+        assertTrue(computer.getMetrics().getStatistics().isEmpty());
+    }
+
+    @Test
+    void testFullLineDecompositionPhasesAreMeasured() {
+        FlowDecompositionComputer computer = getComputer(FlowDecompositionParameters.FlowPartitionMode.FULL_LINE_DECOMPOSITION);
+        computer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+
+        Map<FlowDecompositionPhase, PhaseStatistics> statistics = computer.getMetrics().getStatistics();
+        assertEquals(2, statistics.get(FlowDecompositionPhase.PEX_GRAPH).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.PEX_MATRIX).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.PTDF).getCount());
+        assertEquals(2, statistics.get(FlowDecompositionPhase.MATRIX_MULTIPLICATION).getCount());
+        assertFalse(statistics.containsKey(FlowDecompositionPhase.NODAL_INJECTIONS));
+    }
+
+    @Test
+    void testPhaseEventsCarryTheirState(@TempDir Path tempDir) throws IOException {
+        FlowDecompositionMetrics metrics = new FlowDecompositionMetrics();
+        Path recordingPath = tempDir.resolve("metrics.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PHASE_EVENT_NAME);
+            recording.start();
+            metrics.record(FlowDecompositionPhase.AC_LOAD_FLOW, () -> { });
+            assertEquals("value", metrics.recordState(CONTINGENCY_ID, () -> metrics.record(FlowDecompositionPhase.PTDF, () -> "value")));
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath).stream()
+            .filter(event -> event.getEventType().getName().equals(PHASE_EVENT_NAME))
+            .toList();
+        assertEquals(2, events.size());
+        assertEquals(FlowDecompositionPhase.AC_LOAD_FLOW.name(), events.get(0).getString("phase"));
+        assertEquals("", events.get(0).getString("stateId"));
+        assertEquals(FlowDecompositionPhase.PTDF.name(), events.get(1).getString("phase"));
+        assertEquals(CONTINGENCY_ID, events.get(1).getString("stateId"));
+    }
+
+    @Test
+    void testHistogramBuckets() {
+        assertEquals(0, PhaseStatistics.getBucket(0));
+        assertEquals(0, PhaseStatistics.getBucket(1_999));
+        assertEquals(1, PhaseStatistics.getBucket(2_000));
+        assertEquals(10, PhaseStatistics.getBucket(1_024_000));
+        assertEquals(PhaseStatistics.HISTOGRAM_BUCKET_COUNT - 1, PhaseStatistics.getBucket(Long.MAX_VALUE));
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.contingency.ContingencyContext;
+import com.powsybl.flow_decomposition.NetPositionComputer;
+import com.powsybl.flow_decomposition.NetworkUtil;
+import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
+import com.powsybl.iidm.network.*;
+import com.powsybl.loadflow.LoadFlow;
+import com.powsybl.loadflow.LoadFlowParameters;
+import com.powsybl.sensitivity.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.powsybl.flow_decomposition.AbstractSensitivityAnalyser.CONTINGENCIES;
+import static com.powsybl.flow_decomposition.AbstractSensitivityAnalyser.SENSITIVITY_FUNCTION_TYPE;
+import static com.powsybl.flow_decomposition.DecomposedFlow.*;
+import static com.powsybl.flow_decomposition.TestUtils.importNetwork;
+import static com.powsybl.flow_decomposition.partitioners.SensitivityAnalyser.EMPTY_SENSITIVITY_VARIABLE_SETS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastModeSensitivityAnalyserTests {
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    void testFastModeGivesSameFlowPartsAsMapBasedConstructionFromElementarySensitivities() {
+        // This network has X-nodes, a PST out of its neutral tap and several countries
+        Network network = importNetwork("19700101_0000_FO4_UX1.uct");
+        LoadFlow.run(network, LoadFlowParameters.load());
+        List<Branch<?>> xnecList = network.getBranchStream().map(branch -> (Branch<?>) branch).toList();
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecList);
+        SparseMatrixWithIndexesTriplet nodalInjectionsMatrix = new NodalInjectionComputer(networkMatrixIndexes)
+            .run(network, new AutoGlskProvider().getGlsk(network), NetPositionComputer.computeNetPositions(network));
+        SensitivityAnalysis.Runner runner = SensitivityAnalysis.find("OpenLoadFlow");
+
+        Map<String, Map<String, Double>> actual = new FastModeSensitivityAnalyser(LoadFlowParameters.load(), runner, network,
+            new LinkedHashSet<>(xnecList), nodalInjectionsMatrix.toCSCMatrix()).run();
+        Map<String, Map<String, Double>> expected = getMapBasedFlowParts(network, runner, networkMatrixIndexes, nodalInjectionsMatrix.toMap());
+
+        Set<String> flowParts = new HashSet<>(nodalInjectionsMatrix.colIndex.keySet());
+        flowParts.add(PST_COLUMN_NAME);
+        assertTrue(flowParts.contains(ALLOCATED_COLUMN_NAME));
+        assertTrue(flowParts.contains(XNODE_COLUMN_NAME));
+        assertTrue(flowParts.contains(NetworkUtil.getLoopFlowIdFromCountry(Country.BE)));
+        assertTrue(flowParts.contains(NetworkUtil.getLoopFlowIdFromCountry(Country.DE)));
+        assertTrue(flowParts.contains(NetworkUtil.getLoopFlowIdFromCountry(Country.FR)));
+        for (String xnecId : expected.keySet()) {
+            for (String flowPart : flowParts) {
+                assertEquals(expected.get(xnecId).getOrDefault(flowPart, 0.), actual.getOrDefault(xnecId, Map.of()).getOrDefault(flowPart, 0.), EPSILON,
+                    () -> "Mismatch for " + flowPart + " of " + xnecId);
+            }
+        }
+        for (String flowPart : List.of(ALLOCATED_COLUMN_NAME, XNODE_COLUMN_NAME, PST_COLUMN_NAME)) {
+            assertTrue(expected.values().stream().anyMatch(flows -> Math.abs(flows.getOrDefault(flowPart, 0.)) > 1e-3), flowPart);
+        }
+    }
+
+    /**
+     * Flow parts of each XNEC as the sum over injections of their PTDF times their nodal injection of the flow part,
+     * and the PSDF of each PST times its tap shift from neutral.
+     */
+    private static Map<String, Map<String, Double>> getMapBasedFlowParts(Network network, SensitivityAnalysis.Runner runner,
+                                                                         NetworkMatrixIndexes networkMatrixIndexes,
+                                                                         Map<String, Map<String, Double>> nodalInjections) {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        for (Branch<?> xnec : networkMatrixIndexes.getXnecList()) {
+            nodalInjections.keySet().forEach(injectionId -> factors.add(new SensitivityFactor(SENSITIVITY_FUNCTION_TYPE, xnec.getId(),
+                SensitivityVariableType.INJECTION_ACTIVE_POWER, injectionId, false, ContingencyContext.none())));
+            networkMatrixIndexes.getPstList().forEach(pstId -> factors.add(new SensitivityFactor(SENSITIVITY_FUNCTION_TYPE, xnec.getId(),
+                SensitivityVariableType.TRANSFORMER_PHASE, pstId, false, ContingencyContext.none())));
+        }
+        SensitivityAnalysisRunParameters runParameters = new SensitivityAnalysisRunParameters()
+            .setContingencies(CONTINGENCIES)
+            .setVariableSets(EMPTY_SENSITIVITY_VARIABLE_SETS)
+            .setParameters(SensitivityAnalysisParameters.load().setLoadFlowParameters(LoadFlowParameters.load().setDc(true)));
+        SensitivityAnalysisResult result = runner.run(network, factors, runParameters);
+
+        Map<String, Map<String, Double>> flowParts = new HashMap<>();
+        for (Branch<?> xnec : networkMatrixIndexes.getXnecList()) {
+            double sign = result.getFunctionReferenceValue(xnec.getId(), SENSITIVITY_FUNCTION_TYPE) < 0 ? -1 : 1;
+            Map<String, Double> xnecFlowParts = flowParts.computeIfAbsent(xnec.getId(), id -> new HashMap<>());
+            nodalInjections.forEach((injectionId, injectionFlowParts) -> {
+                double ptdf = result.getSensitivityValue(injectionId, xnec.getId(), SENSITIVITY_FUNCTION_TYPE, SensitivityVariableType.INJECTION_ACTIVE_POWER);
+                injectionFlowParts.forEach((flowPart, injection) -> xnecFlowParts.merge(flowPart, sign * ptdf * injection, Double::sum));
+            });
+            networkMatrixIndexes.getPstList().forEach(pstId -> {
+                double psdf = result.getSensitivityValue(pstId, xnec.getId(), SENSITIVITY_FUNCTION_TYPE, SensitivityVariableType.TRANSFORMER_PHASE);
+                xnecFlowParts.merge(PST_COLUMN_NAME, sign * psdf * getDeltaTap(network, pstId), Double::sum);
+            });
+        }
+        return flowParts;
+    }
+
+    private static double getDeltaTap(Network network, String pstId) {
+        PhaseTapChanger phaseTapChanger = network.getTwoWindingsTransformer(pstId).getPhaseTapChanger();
+        return phaseTapChanger.getNeutralStep()
+            .map(neutralStep -> phaseTapChanger.getCurrentStep().getAlpha() - neutralStep.getAlpha())
+            .orElse(0.);
+    }
+}
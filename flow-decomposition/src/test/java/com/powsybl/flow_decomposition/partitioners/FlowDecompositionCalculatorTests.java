@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.commons.PowsyblException;
+import com.powsybl.flow_decomposition.FlowPartition;
+import com.powsybl.flow_decomposition.NetworkUtil;
+import com.powsybl.iidm.network.*;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.ops.DConvertMatrixStruct;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowDecompositionCalculatorTests {
+    private static final double EPSILON = 1e-9;
+    private static final String XNODE = "XNODE";
+
+    private Network network;
+    private List<Bus> buses;
+    private Map<String, Integer> vertexIdMapping;
+    private Map<String, Integer> xnecIndex;
+
+    private void createNetwork() {
+        network = Network.create("test", "test");
+        addBus("FR1", Country.FR);
+        addBus("FR2", Country.FR);
+        addBus("BE1", Country.BE);
+        addBus("NC1", null);
+        addLine("L_FR", "FR1", "FR2");
+        addLine("L_FRBE", "FR2", "BE1");
+        addLine("L_BENC", "BE1", "NC1");
+        buses = NetworkUtil.getBusesInMainSynchronousComponent(network);
+        vertexIdMapping = new HashMap<>();
+        buses.forEach(bus -> vertexIdMapping.put(bus.getId(), vertexIdMapping.size()));
+        vertexIdMapping.put(XNODE, vertexIdMapping.size());
+        xnecIndex = Map.of("L_FR", 0, "L_FRBE", 1);
+    }
+
+    private void addBus(String id, Country country) {
+        SubstationAdder substationAdder = network.newSubstation().setId("S_" + id);
+        if (country != null) {
+            substationAdder.setCountry(country);
+        }
+        VoltageLevel voltageLevel = substationAdder.add().newVoltageLevel()
+            .setId("VL_" + id)
+            .setNominalV(400)
+            .setTopologyKind(TopologyKind.BUS_BREAKER)
+            .add();
+        voltageLevel.getBusBreakerView().newBus().setId(id).add();
+    }
+
+    private void addLine(String id, String bus1, String bus2) {
+        network.newLine()
+            .setId(id)
+            .setVoltageLevel1("VL_" + bus1)
+            .setBus1(bus1)
+            .setConnectableBus1(bus1)
+            .setVoltageLevel2("VL_" + bus2)
+            .setBus2(bus2)
+            .setConnectableBus2(bus2)
+            .setR(1.)
+            .setX(10.)
+            .setG1(0.)
+            .setB1(0.)
+            .setG2(0.)
+            .setB2(0.)
+            .add();
+    }
+
+    private int vertex(String busId) {
+        if (XNODE.equals(busId)) {
+            return vertexIdMapping.get(XNODE);
+        }
+        return vertexIdMapping.get(network.getVoltageLevel("VL_" + busId).getBusView().getBuses().iterator().next().getId());
+    }
+
+    private DMatrixSparseCSC getPexMatrix(double countryLessExchange) {
+        DMatrixSparseTriplet pex = new DMatrixSparseTriplet(vertexIdMapping.size(), vertexIdMapping.size(), 5);
+        pex.addItem(vertex("FR1"), vertex("FR2"), 100.);
+        pex.addItem(vertex("FR2"), vertex("BE1"), 50.);
+        pex.addItem(vertex("BE1"), vertex(XNODE), 20.);
+        pex.addItem(vertex("FR1"), vertex("BE1"), 1e-12);
+        pex.addItem(vertex("BE1"), vertex("NC1"), countryLessExchange);
+        return DConvertMatrixStruct.convert(pex, (DMatrixSparseCSC) null);
+    }
+
+    private SparseMatrixWithIndexesCSC getPtdfMatrix(double countryLessPtdf) {
+        SparseMatrixWithIndexesTriplet ptdf = new SparseMatrixWithIndexesTriplet(xnecIndex, vertexIdMapping, 10);
+        ptdf.addItem(0, vertex("FR1"), 0.6);
+        ptdf.addItem(0, vertex("FR2"), -0.2);
+        ptdf.addItem(0, vertex("BE1"), -0.3);
+        ptdf.addItem(0, vertex("NC1"), -0.3);
+        ptdf.addItem(1, vertex("FR1"), 0.4);
+        ptdf.addItem(1, vertex("FR2"), 0.7);
+        ptdf.addItem(1, vertex("BE1"), -0.1);
+        ptdf.addItem(1, vertex("NC1"), countryLessPtdf);
+        ptdf.addItem(1, vertex(XNODE), 0.05);
+        return ptdf.toCSCMatrix();
+    }
+
+    private Set<Branch<?>> getXnecs() {
+        return Set.of(network.getLine("L_FR"), network.getLine("L_FRBE"));
+    }
+
+    private Map<String, FlowPartition> compute(DMatrixSparseCSC pexMatrix, SparseMatrixWithIndexesCSC ptdfMatrix) {
+        SparseMatrixWithIndexesCSC pstFlowMatrix = new SparseMatrixWithIndexesCSC(xnecIndex, Map.of());
+        return new FlowDecompositionCalculator(getXnecs(), pexMatrix, ptdfMatrix, pstFlowMatrix, buses, vertexIdMapping).computeDecomposition();
+    }
+
+    /**
+     * Reference decomposition processing the exchanges one by one, dropping negligible ones.
+     */
+    private Map<String, FlowPartition> computeExchangeByExchange(DMatrixSparseCSC pexMatrix, SparseMatrixWithIndexesCSC ptdfMatrix) {
+        Country[] countries = new Country[vertexIdMapping.size()];
+        boolean[] isBus = new boolean[vertexIdMapping.size()];
+        buses.forEach(bus -> {
+            isBus[vertexIdMapping.get(bus.getId())] = true;
+            countries[vertexIdMapping.get(bus.getId())] = bus.getVoltageLevel().getSubstation().orElseThrow().getCountry().orElse(null);
+        });
+        Map<String, FlowPartition> results = new HashMap<>();
+        for (Branch<?> xnec : getXnecs()) {
+            Country country1 = NetworkUtil.getBranchSideCountry(xnec, TwoSides.ONE);
+            Country country2 = NetworkUtil.getBranchSideCountry(xnec, TwoSides.TWO);
+            int row = xnecIndex.get(xnec.getId());
+            double internalFlow = 0;
+            double allocatedFlow = 0;
+            double xNodeFlow = 0;
+            Map<Country, Double> loopFlows = new EnumMap<>(Country.class);
+            for (int sink = 0; sink < pexMatrix.numCols; sink++) {
+                for (int p = pexMatrix.col_idx[sink]; p < pexMatrix.col_idx[sink + 1]; p++) {
+                    int source = pexMatrix.nz_rows[p];
+                    double increase = (ptdfMatrix.getCscMatrix().get(row, source) - ptdfMatrix.getCscMatrix().get(row, sink)) * pexMatrix.nz_values[p];
+                    if (Math.abs(increase) < FlowDecompositionCalculator.EPSILON) {
+                        continue;
+                    }
+                    if (!isBus[source] || !isBus[sink]) {
+                        xNodeFlow += increase;
+                    } else if (countries[source] == null || countries[sink] == null) {
+                        throw new PowsyblException("Invalid country");
+                    } else if (countries[source] != countries[sink]) {
+                        allocatedFlow += increase;
+                    } else if (countries[source] == country1 && countries[source] == country2) {
+                        internalFlow += increase;
+                    } else {
+                        loopFlows.merge(countries[source], increase, Double::sum);
+                    }
+                }
+            }
+            results.put(xnec.getId(), new FlowPartition(internalFlow, allocatedFlow, loopFlows, 0., xNodeFlow));
+        }
+        return results;
+    }
+
+    private static void assertSameFlowPartitions(Map<String, FlowPartition> expected, Map<String, FlowPartition> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((xnecId, expectedPartition) -> {
+            FlowPartition actualPartition = actual.get(xnecId);
+            assertEquals(expectedPartition.internalFlow(), actualPartition.internalFlow(), EPSILON);
+            assertEquals(expectedPartition.allocatedFlow(), actualPartition.allocatedFlow(), EPSILON);
+            assertEquals(expectedPartition.xNodeFlow(), actualPartition.xNodeFlow(), EPSILON);
+            assertEquals(expectedPartition.pstFlow(), actualPartition.pstFlow(), EPSILON);
+            assertEquals(expectedPartition.loopFlowPerCountry().keySet(), actualPartition.loopFlowPerCountry().keySet());
+            expectedPartition.loopFlowPerCountry().forEach((country, loopFlow) ->
+                assertEquals(loopFlow, actualPartition.loopFlowPerCountry().get(country), EPSILON));
+        });
+    }
+
+    @Test
+    void testAggregatedExchangesGiveSameDecompositionAsExchangeByExchange() {
+        createNetwork();
+        // The exchange with the bus without country has no flow on the XNECs, as PTDF are equal at both of its ends
+        DMatrixSparseCSC pexMatrix = getPexMatrix(5.);
+        SparseMatrixWithIndexesCSC ptdfMatrix = getPtdfMatrix(-0.1);
+
+        Map<String, FlowPartition> expected = computeExchangeByExchange(pexMatrix, ptdfMatrix);
+        Map<String, FlowPartition> actual = compute(pexMatrix, ptdfMatrix);
+
+        assertSameFlowPartitions(expected, actual);
+        assertEquals(80., actual.get("L_FR").internalFlow(), EPSILON);
+        assertEquals(Set.of(Country.FR), actual.get("L_FRBE").loopFlowPerCountry().keySet());
+    }
+
+    @Test
+    void testExchangeWithBusWithoutCountryFailsWhenItsFlowIsNotNegligible() {
+        createNetwork();
+        DMatrixSparseCSC pexMatrix = getPexMatrix(5.);
+        SparseMatrixWithIndexesCSC ptdfMatrix = getPtdfMatrix(0.2);
+
+        assertThrows(PowsyblException.class, () -> computeExchangeByExchange(pexMatrix, ptdfMatrix));
+        PowsyblException exception = assertThrows(PowsyblException.class, () -> compute(pexMatrix, ptdfMatrix));
+        assertTrue(exception.getMessage().startsWith("Cannot compute loop flow for bus"));
+        assertTrue(exception.getMessage().endsWith("because of invalid country"));
+    }
+}
@@ -263,4 +263,28 @@ class PexGraphTest {
             .findAny().get();
         assertEquals(100, pexGraphEdgeXNode.getAssociatedFlow(), 0.1);
     }
+
+    @Test
+    void testCompactGraphMatchesGraph() {
+        Network testNetwork = TestUtils.importNetwork("TestCaseDangling.xiidm");
+        LoadFlow.run(testNetwork, LoadFlowParameters.load().setDc(true));
+        List<Bus> busesInMainSynchronousComponent = NetworkUtil.getBusesInMainSynchronousComponent(testNetwork);
+        List<Branch<?>> branchesConnectedInMainSynchronousComponent = NetworkUtil.getAllValidBranches(testNetwork);
+        for (PexGraph.InjectionStrategy injectionStrategy : PexGraph.InjectionStrategy.values()) {
+            CompactPexGraph expected = CompactPexGraph.of(new PexGraph(busesInMainSynchronousComponent, branchesConnectedInMainSynchronousComponent, injectionStrategy));
+            CompactPexGraph compactPexGraph = CompactPexGraph.build(busesInMainSynchronousComponent, branchesConnectedInMainSynchronousComponent, injectionStrategy);
+
+            assertEquals(expected.getVertexIds(), compactPexGraph.getVertexIds());
+            for (int vertex = 0; vertex < expected.getVertexCount(); vertex++) {
+                assertEquals(expected.getGeneration(vertex), compactPexGraph.getGeneration(vertex), 1e-9);
+                assertEquals(expected.getLoad(vertex), compactPexGraph.getLoad(vertex), 1e-9);
+            }
+            assertEquals(expected.getEdgeCount(), compactPexGraph.getEdgeCount());
+            for (int edge = 0; edge < expected.getEdgeCount(); edge++) {
+                assertEquals(expected.getEdgeSource(edge), compactPexGraph.getEdgeSource(edge));
+                assertEquals(expected.getEdgeTarget(edge), compactPexGraph.getEdgeTarget(edge));
+                assertEquals(expected.getEdgeFlow(edge), compactPexGraph.getEdgeFlow(edge), 1e-9);
+            }
+        }
+    }
 }
@@ -85,4 +85,19 @@ class PexMatrixCalculatorTest {
         DMatrix pexMatrix = calculator.computePexMatrix();
         checkMatrixOk(pexMatrix);
     }
+
+    @Test
+    void computePexMatrixGivesNeumannSeriesLimit() {
+        Network testNetwork = TestUtils.importNetwork("TestCaseDangling.xiidm");
+        LoadFlow.run(testNetwork, LoadFlowParameters.load().setDc(true));
+        pexGraph = new PexGraph(NetworkUtil.getBusesInMainSynchronousComponent(testNetwork), NetworkUtil.getAllValidBranches(testNetwork));
+        PexMatrixCalculator calculator = new PexMatrixCalculator(pexGraph);
+        DMatrixSparseCSC pexMatrix = calculator.computePexMatrix();
+        DMatrixSparseCSC neumannPexMatrix = calculator.computePexMatrixWithNeumann();
+        for (int row = 0; row < pexMatrix.numRows; row++) {
+            for (int col = 0; col < pexMatrix.numCols; col++) {
+                assertEquals(neumannPexMatrix.get(row, col), pexMatrix.get(row, col), 1e-6);
+            }
+        }
+    }
 }
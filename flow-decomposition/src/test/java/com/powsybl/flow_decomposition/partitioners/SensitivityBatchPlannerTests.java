@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.flow_decomposition.FlowDecompositionParameters;
+import com.powsybl.flow_decomposition.SensitivityBatchPlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.powsybl.flow_decomposition.partitioners.SensitivityBatchPlanner.BYTES_PER_MB;
+import static com.powsybl.sensitivity.SensitivityVariableType.INJECTION_ACTIVE_POWER;
+import static com.powsybl.sensitivity.SensitivityVariableType.TRANSFORMER_PHASE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SensitivityBatchPlannerTests {
+    private static final int FUNCTION_COUNT = 1000;
+    private static final int VARIABLE_COUNT = 20000;
+    private static final int BUS_COUNT = 10000;
+
+    @Test
+    void testFixedBatchSizeWithoutMemoryBudget() {
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setSensitivityVariableBatchSize(6000)
+            .setSensitivityParallelism(8);
+        SensitivityBatchPlan plan = SensitivityBatchPlanner.plan(INJECTION_ACTIVE_POWER, FUNCTION_COUNT, VARIABLE_COUNT, BUS_COUNT, parameters, Long.MAX_VALUE);
+        assertEquals(6000, plan.batchSize());
+        assertEquals(4, plan.batchCount());
+        assertEquals(4, plan.parallelism());
+        assertEquals(0, plan.memoryBudget());
+    }
+
+    @Test
+    void testBatchesFitMemoryBudget() {
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setSensitivityMemoryBudget(512)
+            .setSensitivityExpectedDensity(0.1)
+            .setSensitivityParallelism(4);
+        SensitivityBatchPlan plan = SensitivityBatchPlanner.plan(INJECTION_ACTIVE_POWER, FUNCTION_COUNT, VARIABLE_COUNT, BUS_COUNT, parameters, Long.MAX_VALUE);
+        assertEquals(512 * BYTES_PER_MB, plan.memoryBudget());
+        assertEquals(4, plan.parallelism());
+        assertTrue(plan.estimatedMemory() <= plan.memoryBudget());
+        assertTrue(plan.batchSize() > 1000);
+    }
+
+    @Test
+    void testAvailableHeapLimitsMemoryBudget() {
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setSensitivityMemoryBudget(512)
+            .setSensitivityParallelism(4);
+        long availableMemory = 64 * BYTES_PER_MB;
+        SensitivityBatchPlan plan = SensitivityBatchPlanner.plan(INJECTION_ACTIVE_POWER, 100, VARIABLE_COUNT, BUS_COUNT, parameters, availableMemory);
+        assertEquals(availableMemory, plan.memoryBudget());
+        assertTrue(plan.estimatedMemory() <= availableMemory);
+    }
+
+    @Test
+    void testParallelismIsReducedWhenBudgetIsTooSmall() {
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setSensitivityMemoryBudget(1)
+            .setSensitivityParallelism(8);
+        SensitivityBatchPlan plan = SensitivityBatchPlanner.plan(INJECTION_ACTIVE_POWER, FUNCTION_COUNT, VARIABLE_COUNT, BUS_COUNT, parameters, Long.MAX_VALUE);
+        assertEquals(1, plan.batchSize());
+        assertEquals(1, plan.parallelism());
+        assertEquals(VARIABLE_COUNT, plan.batchCount());
+    }
+
+    @Test
+    void testMixedVariablesArePlannedWithHeavierType() {
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+            .setSensitivityMemoryBudget(512)
+            .setSensitivityExpectedDensity(0.1)
+            .setSensitivityParallelism(4);
+        SensitivityBatchPlan injectionPlan = SensitivityBatchPlanner.plan(INJECTION_ACTIVE_POWER, FUNCTION_COUNT, VARIABLE_COUNT, BUS_COUNT, parameters, Long.MAX_VALUE);
+        SensitivityBatchPlan plan = SensitivityBatchPlanner.plan(Map.of(INJECTION_ACTIVE_POWER, VARIABLE_COUNT - 100, TRANSFORMER_PHASE, 100),
+            FUNCTION_COUNT, BUS_COUNT, parameters, Long.MAX_VALUE);
+        assertEquals(TRANSFORMER_PHASE, plan.variableType());
+        assertEquals(VARIABLE_COUNT, plan.variableCount());
+        assertTrue(plan.estimatedMemory() <= plan.memoryBudget());
+        assertTrue(plan.batchSize() < injectionPlan.batchSize());
+    }
+}
@@ -6,6 +6,7 @@
  */
 package com.powsybl.flow_decomposition.partitioners;
 
+import com.powsybl.contingency.ContingencyContext;
 import com.powsybl.flow_decomposition.FlowDecompositionParameters;
 import com.powsybl.flow_decomposition.ZonalSensitivityAnalyser;
 import com.powsybl.flow_decomposition.glsk_provider.AutoGlskProvider;
@@ -13,17 +14,22 @@ import com.powsybl.iidm.network.Branch;
 import com.powsybl.iidm.network.Country;
 import com.powsybl.iidm.network.Network;
 import com.powsybl.loadflow.LoadFlowParameters;
-import com.powsybl.sensitivity.SensitivityAnalysis;
-import com.powsybl.sensitivity.SensitivityVariableType;
+import com.powsybl.sensitivity.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static com.powsybl.flow_decomposition.AbstractSensitivityAnalyser.CONTINGENCIES;
+import static com.powsybl.flow_decomposition.AbstractSensitivityAnalyser.SENSITIVITY_FUNCTION_TYPE;
 import static com.powsybl.flow_decomposition.TestUtils.importNetwork;
+import static com.powsybl.flow_decomposition.partitioners.SensitivityAnalyser.EMPTY_SENSITIVITY_VARIABLE_SETS;
 import static com.powsybl.flow_decomposition.partitioners.SensitivityAnalyser.respectFlowSignConvention;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /**
  * @author Hugo Schindler {@literal <hugo.schindler at rte-france.com>}
@@ -121,6 +127,126 @@ class SensitivityComputerTests {
         assertEquals(420.042573, psdf.get(x2).get(pst), EPSILON);
     }
 
+    @Test
+    void testThatParallelBatchesGiveSamePtdfAsSequentialRun() {
+        Network network = importNetwork("NETWORK_SINGLE_LOAD_TWO_GENERATORS_WITH_COUNTRIES.uct");
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        SensitivityAnalysis.Runner sensitivityAnalysisRunner = SensitivityAnalysis.find();
+        List<Branch<?>> xnecList = network.getBranchStream().map(branch -> (Branch<?>) branch).collect(Collectors.toList());
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecList);
+        FlowDecompositionParameters sequentialParameters = new FlowDecompositionParameters().setSensitivityVariableBatchSize(1);
+        FlowDecompositionParameters parallelParameters = new FlowDecompositionParameters().setSensitivityVariableBatchSize(1).setSensitivityParallelism(2);
+        Map<String, Map<String, Double>> sequentialPtdfs = new SensitivityAnalyser(loadFlowParameters, sequentialParameters, sensitivityAnalysisRunner, network, networkMatrixIndexes)
+            .getPtdfMatrix(networkMatrixIndexes).toMap();
+        String variantId = network.getVariantManager().getWorkingVariantId();
+        Map<String, Map<String, Double>> parallelPtdfs = new SensitivityAnalyser(loadFlowParameters, parallelParameters, sensitivityAnalysisRunner, network, networkMatrixIndexes)
+            .getPtdfMatrix(networkMatrixIndexes).toMap();
+        assertEquals(sequentialPtdfs, parallelPtdfs);
+        // Variants of the workers are removed and the variant access is restored
+        assertEquals(List.of(variantId), List.copyOf(network.getVariantManager().getVariantIds()));
+        assertEquals(variantId, network.getVariantManager().getWorkingVariantId());
+        assertFalse(network.getVariantManager().isVariantMultiThreadAccessAllowed());
+    }
+
+    @Test
+    void testThatConcurrentBatchesOnNetworkWithColdTopologyGiveSameMatricesAsSequentialRun() {
+        String networkFileName = "NETWORK_PST_FLOW_WITH_COUNTRIES.uct";
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        SensitivityAnalysis.Runner sensitivityAnalysisRunner = SensitivityAnalysis.find();
+        FlowDecompositionParameters sequentialParameters = new FlowDecompositionParameters().setSensitivityVariableBatchSize(1);
+        FlowDecompositionParameters parallelParameters = new FlowDecompositionParameters().setSensitivityVariableBatchSize(1).setSensitivityParallelism(3);
+        SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> sequentialMatrices = computePtdfAndPsdfMatrices(importNetwork(networkFileName), loadFlowParameters, sequentialParameters, sensitivityAnalysisRunner);
+        // Several runs on fresh networks, as concurrent accesses to lazily computed topologies fail only occasionally
+        for (int run = 0; run < 5; run++) {
+            SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> parallelMatrices = computePtdfAndPsdfMatrices(importNetwork(networkFileName), loadFlowParameters, parallelParameters, sensitivityAnalysisRunner);
+            assertEquals(sequentialMatrices.ptdfMatrix().toMap(), parallelMatrices.ptdfMatrix().toMap());
+            assertEquals(sequentialMatrices.psdfMatrix().toMap(), parallelMatrices.psdfMatrix().toMap());
+        }
+    }
+
+    private static SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> computePtdfAndPsdfMatrices(Network network, LoadFlowParameters loadFlowParameters, FlowDecompositionParameters parameters, SensitivityAnalysis.Runner sensitivityAnalysisRunner) {
+        List<Branch<?>> xnecList = network.getBranchStream().map(branch -> (Branch<?>) branch).collect(Collectors.toList());
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecList);
+        return new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes)
+            .getPtdfAndPsdfMatrices(networkMatrixIndexes);
+    }
+
+    @Test
+    void testThatSingleRunGivesSamePtdfAndPsdfAsSeparateRuns() {
+        Network network = importNetwork("NETWORK_PST_FLOW_WITH_COUNTRIES.uct");
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        SensitivityAnalysis.Runner sensitivityAnalysisRunner = SensitivityAnalysis.find();
+        List<Branch<?>> xnecList = network.getBranchStream().map(branch -> (Branch<?>) branch).collect(Collectors.toList());
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecList);
+        // Batches of one variable mix PTDF and PSDF variables in the last batches
+        for (FlowDecompositionParameters parameters : List.of(new FlowDecompositionParameters(), new FlowDecompositionParameters().setSensitivityVariableBatchSize(1))) {
+            SensitivityAnalyser sensitivityAnalyser = new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes);
+            SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> ptdfPsdfMatrices = sensitivityAnalyser.getPtdfAndPsdfMatrices(networkMatrixIndexes);
+            assertEquals(sensitivityAnalyser.getPtdfMatrix(networkMatrixIndexes).toMap(), ptdfPsdfMatrices.ptdfMatrix().toMap());
+            assertEquals(sensitivityAnalyser.getPsdfMatrix(networkMatrixIndexes).toMap(), ptdfPsdfMatrices.psdfMatrix().toMap());
+        }
+    }
+
+    @Test
+    void testThatDensePtdfWrittenByConcurrentBatchesGivesSameValuesAsSparsePtdf() {
+        Network network = importNetwork("NETWORK_PST_FLOW_WITH_COUNTRIES.uct");
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        SensitivityAnalysis.Runner sensitivityAnalysisRunner = SensitivityAnalysis.find();
+        List<Branch<?>> xnecList = network.getBranchStream().map(branch -> (Branch<?>) branch).collect(Collectors.toList());
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecList);
+        FlowDecompositionParameters parameters = new FlowDecompositionParameters().setSensitivityVariableBatchSize(1).setSensitivityParallelism(3);
+        SensitivityAnalyser sensitivityAnalyser = new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes);
+        SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> sparseMatrices = sensitivityAnalyser.getPtdfAndPsdfMatrices(networkMatrixIndexes);
+        SensitivityAnalyser.PtdfPsdfMatrices<DenseMatrixWithIndexes> denseMatrices = sensitivityAnalyser.getDensePtdfAndPsdfMatrices(networkMatrixIndexes);
+        assertEquals(sparseMatrices.ptdfMatrix().toMap(), denseMatrices.ptdfMatrix().toCSCMatrix().toMap());
+        assertEquals(sparseMatrices.psdfMatrix().toMap(), denseMatrices.psdfMatrix().toMap());
+    }
+
+    @Test
+    void testThatBatchedFactorsAreWrittenToTheirXnecAndVariable() {
+        Network network = importNetwork("NETWORK_PST_FLOW_WITH_COUNTRIES.uct");
+        LoadFlowParameters loadFlowParameters = LoadFlowParameters.load();
+        SensitivityAnalysis.Runner sensitivityAnalysisRunner = SensitivityAnalysis.find();
+        List<Branch<?>> xnecList = network.getBranchStream().map(branch -> (Branch<?>) branch).collect(Collectors.toList());
+        NetworkMatrixIndexes networkMatrixIndexes = new NetworkMatrixIndexes(network, xnecList);
+        Map<String, Map<String, Double>> expectedPtdfs = getElementarySensitivities(network, sensitivityAnalysisRunner, xnecList, networkMatrixIndexes.getNodeIdList(), SensitivityVariableType.INJECTION_ACTIVE_POWER);
+        Map<String, Map<String, Double>> expectedPsdfs = getElementarySensitivities(network, sensitivityAnalysisRunner, xnecList, networkMatrixIndexes.getPstList(), SensitivityVariableType.TRANSFORMER_PHASE);
+        // Each factor index gives back one of the XNECs and one of the variables, batches starting anywhere in the variables of both groups
+        for (int batchSize = 1; batchSize <= networkMatrixIndexes.getNodeIdList().size() + 1; batchSize++) {
+            FlowDecompositionParameters parameters = new FlowDecompositionParameters()
+                .setSensitivityEpsilon(FlowDecompositionParameters.DISABLE_SENSITIVITY_EPSILON)
+                .setSensitivityVariableBatchSize(batchSize);
+            SensitivityAnalyser.PtdfPsdfMatrices<SparseMatrixWithIndexesTriplet> matrices = new SensitivityAnalyser(loadFlowParameters, parameters, sensitivityAnalysisRunner, network, networkMatrixIndexes)
+                .getPtdfAndPsdfMatrices(networkMatrixIndexes);
+            assertSameSensitivities(expectedPtdfs, matrices.ptdfMatrix().toMap());
+            assertSameSensitivities(expectedPsdfs, matrices.psdfMatrix().toMap());
+        }
+    }
+
+    private static Map<String, Map<String, Double>> getElementarySensitivities(Network network, SensitivityAnalysis.Runner sensitivityAnalysisRunner, List<Branch<?>> xnecList,
+                                                                               List<String> variableIds, SensitivityVariableType variableType) {
+        List<SensitivityFactor> factors = new ArrayList<>();
+        xnecList.forEach(xnec -> variableIds.forEach(variableId ->
+            factors.add(new SensitivityFactor(SENSITIVITY_FUNCTION_TYPE, xnec.getId(), variableType, variableId, false, ContingencyContext.none()))));
+        SensitivityAnalysisRunParameters runParameters = new SensitivityAnalysisRunParameters()
+            .setContingencies(CONTINGENCIES)
+            .setVariableSets(EMPTY_SENSITIVITY_VARIABLE_SETS)
+            .setParameters(SensitivityAnalysisParameters.load().setLoadFlowParameters(LoadFlowParameters.load().setDc(true)));
+        SensitivityAnalysisResult result = sensitivityAnalysisRunner.run(network, factors, runParameters);
+        Map<String, Map<String, Double>> sensitivities = new HashMap<>();
+        xnecList.forEach(xnec -> {
+            double referenceFlow = result.getFunctionReferenceValue(xnec.getId(), SENSITIVITY_FUNCTION_TYPE);
+            variableIds.forEach(variableId -> sensitivities.computeIfAbsent(xnec.getId(), id -> new HashMap<>())
+                .put(variableId, respectFlowSignConvention(result.getSensitivityValue(variableId, xnec.getId(), SENSITIVITY_FUNCTION_TYPE, variableType), referenceFlow)));
+        });
+        return sensitivities;
+    }
+
+    private static void assertSameSensitivities(Map<String, Map<String, Double>> expected, Map<String, Map<String, Double>> actual) {
+        expected.forEach((xnecId, sensitivities) -> sensitivities.forEach((variableId, sensitivity) ->
+            assertEquals(sensitivity, actual.getOrDefault(xnecId, Map.of()).getOrDefault(variableId, 0.), 1e-6, () -> xnecId + " / " + variableId)));
+    }
+
     @Test
     void testRespectFlowSignConventionIsAnInvolution() {
         assertEquals(0.5, applyRespectFlowSignConventionTwice(0.5, 1.0));
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.flow_decomposition.*;
+import com.powsybl.flow_decomposition.xnec_provider.XnecProviderByIds;
+import com.powsybl.iidm.network.Network;
+import com.powsybl.loadflow.LoadFlowParameters;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensitivityMatrixCacheTests {
+    private static final double EPSILON = 1e-3;
+    private static final String NETWORK_FILE_NAME = "19700101_0000_FO4_UX1.uct";
+    private static final String BRANCH_ID = "DB000011 DF000011 1";
+    private static final String OTHER_BRANCH_ID = "DD000011 DF000011 1";
+    private static final String LOAD_ID = "FD000011_load";
+    private static final String GENERATOR_ID = "DB000011_generator";
+    private static final String OTHER_LOAD_ID = "DD000011_load";
+
+    private static XnecProvider getXnecProvider() {
+        return XnecProviderByIds.builder()
+            .addNetworkElementsOnBasecase(Set.of(BRANCH_ID))
+            .build();
+    }
+
+    private static FlowDecompositionParameters getParameters(int sensitivityCacheSize) {
+        return new FlowDecompositionParameters()
+            .setRescaleMode(FlowDecompositionParameters.RescaleMode.NONE)
+            .setSensitivityCacheSize(sensitivityCacheSize);
+    }
+
+    /**
+     * Moves 2000 MW from the load of DD000011 to the generator of DB000011, which reverses the flow of the XNEC.
+     */
+    private static Network importNetworkWithReversedFlow() {
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        network.getGenerator(GENERATOR_ID).setTargetP(network.getGenerator(GENERATOR_ID).getTargetP() + 2000.);
+        network.getLoad(OTHER_LOAD_ID).setP0(network.getLoad(OTHER_LOAD_ID).getP0() - 2000.);
+        return network;
+    }
+
+    private static void assertSameDecomposedFlow(FlowDecompositionResults expected, FlowDecompositionResults actual) {
+        DecomposedFlow expectedFlow = expected.getDecomposedFlowMap().get(BRANCH_ID);
+        DecomposedFlow actualFlow = actual.getDecomposedFlowMap().get(BRANCH_ID);
+        assertEquals(expectedFlow.getAllocatedFlow(), actualFlow.getAllocatedFlow(), EPSILON);
+        assertEquals(expectedFlow.getPstFlow(), actualFlow.getPstFlow(), EPSILON);
+        assertEquals(expectedFlow.getInternalFlow(), actualFlow.getInternalFlow(), EPSILON);
+        expectedFlow.getLoopFlows().forEach((country, loopFlow) -> assertEquals(loopFlow, actualFlow.getLoopFlow(country), EPSILON));
+    }
+
+    @Test
+    void testSensitivitiesAreReusedWhenOnlyInjectionsChange() {
+        FlowDecompositionComputer cachedComputer = new FlowDecompositionComputer(getParameters(4));
+        cachedComputer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+        assertEquals(0, cachedComputer.getSensitivityMatrixCache().getHitCount());
+        assertEquals(2, cachedComputer.getSensitivityMatrixCache().getMissCount());
+
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        network.getLoad(LOAD_ID).setP0(network.getLoad(LOAD_ID).getP0() + 10.);
+        FlowDecompositionResults cachedResults = cachedComputer.run(getXnecProvider(), network);
+        assertEquals(2, cachedComputer.getSensitivityMatrixCache().getHitCount());
+        assertEquals(2, cachedComputer.getSensitivityMatrixCache().getMissCount());
+
+        Network expectedNetwork = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        expectedNetwork.getLoad(LOAD_ID).setP0(expectedNetwork.getLoad(LOAD_ID).getP0() + 10.);
+        FlowDecompositionResults expectedResults = new FlowDecompositionComputer(getParameters(0)).run(getXnecProvider(), expectedNetwork);
+        assertSameDecomposedFlow(expectedResults, cachedResults);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = FlowDecompositionParameters.FlowPartitionMode.class, names = {"MATRIX_BASED", "FULL_LINE_DECOMPOSITION"})
+    void testCachedSensitivitiesFollowTheSignOfTheFlowOfEachRun(FlowDecompositionParameters.FlowPartitionMode flowPartitionMode) {
+        FlowDecompositionComputer cachedComputer = new FlowDecompositionComputer(getParameters(4).setFlowPartitioner(flowPartitionMode));
+        FlowDecompositionResults firstResults = cachedComputer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+        FlowDecompositionResults cachedResults = cachedComputer.run(getXnecProvider(), importNetworkWithReversedFlow());
+        assertEquals(2, cachedComputer.getSensitivityMatrixCache().getHitCount());
+        assertEquals(2, cachedComputer.getSensitivityMatrixCache().getMissCount());
+        double firstFlow = firstResults.getDecomposedFlowMap().get(BRANCH_ID).getDcReferenceFlow();
+        double reversedFlow = cachedResults.getDecomposedFlowMap().get(BRANCH_ID).getDcReferenceFlow();
+        assertTrue(firstFlow * reversedFlow < 0, () -> "Flow is not reversed: " + firstFlow + " then " + reversedFlow);
+
+        FlowDecompositionResults expectedResults = new FlowDecompositionComputer(getParameters(0).setFlowPartitioner(flowPartitionMode))
+            .run(getXnecProvider(), importNetworkWithReversedFlow());
+        assertSameDecomposedFlow(expectedResults, cachedResults);
+        assertEquals(Math.abs(reversedFlow), cachedResults.getDecomposedFlowMap().get(BRANCH_ID).getTotalFlow(), EPSILON);
+    }
+
+    @Test
+    void testSensitivitiesAreRecomputedWhenTopologyChanges() {
+        FlowDecompositionComputer cachedComputer = new FlowDecompositionComputer(getParameters(4));
+        cachedComputer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        network.getBranch(OTHER_BRANCH_ID).disconnect();
+        cachedComputer.run(getXnecProvider(), network);
+        assertEquals(0, cachedComputer.getSensitivityMatrixCache().getHitCount());
+        assertEquals(4, cachedComputer.getSensitivityMatrixCache().getMissCount());
+        assertEquals(4, cachedComputer.getSensitivityMatrixCache().size());
+    }
+
+    @Test
+    void testDisabledCacheKeepsNothing() {
+        FlowDecompositionComputer computer = new FlowDecompositionComputer(getParameters(0));
+        computer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+        computer.run(getXnecProvider(), TestUtils.importNetwork(NETWORK_FILE_NAME));
+        assertFalse(computer.getSensitivityMatrixCache().isEnabled());
+        assertEquals(0, computer.getSensitivityMatrixCache().getHitCount());
+        assertEquals(0, computer.getSensitivityMatrixCache().size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedMatrixIsEvicted() {
+        SensitivityMatrixCache cache = new SensitivityMatrixCache(2);
+        Map<String, Integer> rowIndex = Map.of("row", 0);
+        Map<String, Integer> colIndex = Map.of("col", 0);
+        assertEquals("first", cache.get("fingerprint1", "PTDF", rowIndex, colIndex, () -> "first"));
+        assertEquals("second", cache.get("fingerprint2", "PTDF", rowIndex, colIndex, () -> "second"));
+        assertEquals("first", cache.get("fingerprint1", "PTDF", rowIndex, colIndex, () -> "recomputed"));
+        assertEquals("third", cache.get("fingerprint3", "PTDF", rowIndex, colIndex, () -> "third"));
+        assertEquals("recomputed", cache.get("fingerprint2", "PTDF", rowIndex, colIndex, () -> "recomputed"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testFingerprintDependsOnImpedanceButNotOnDispatch() {
+        LoadFlowParameters loadFlowParameters = new LoadFlowParameters()
+            .setBalanceType(LoadFlowParameters.BalanceType.PROPORTIONAL_TO_GENERATION_P_MAX);
+        Network network = TestUtils.importNetwork(NETWORK_FILE_NAME);
+        String fingerprint = NetworkFingerprint.sensitivities(network, loadFlowParameters);
+
+        network.getLoad(LOAD_ID).setP0(network.getLoad(LOAD_ID).getP0() + 10.);
+        assertEquals(fingerprint, NetworkFingerprint.sensitivities(network, loadFlowParameters));
+
+        network.getLine(OTHER_BRANCH_ID).setX(network.getLine(OTHER_BRANCH_ID).getX() * 2);
+        assertNotEquals(fingerprint, NetworkFingerprint.sensitivities(network, loadFlowParameters));
+    }
+}
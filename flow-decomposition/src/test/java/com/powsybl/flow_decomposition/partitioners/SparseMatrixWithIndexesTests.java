@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, RTE (http://www.rte-france.com)
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ * SPDX-License-Identifier: MPL-2.0
+ */
+package com.powsybl.flow_decomposition.partitioners;
+
+import com.powsybl.flow_decomposition.SparseMatrixView;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SparseMatrixWithIndexesTests {
+
+    @Test
+    void testForEachNonZeroVisitsStoredValuesColumnByColumn() {
+        SparseMatrixWithIndexesTriplet triplet = new SparseMatrixWithIndexesTriplet(Map.of("r0", 0, "r1", 1, "r2", 2), Map.of("c0", 0, "c1", 1), 4);
+        triplet.addItem("r0", "c0", 2.);
+        triplet.addItem("r2", "c0", 3.);
+        triplet.addItem("r1", "c1", 1.);
+        triplet.addItem("r2", "c1", Double.NaN);
+        List<String> cells = new ArrayList<>();
+        triplet.toCSCMatrix().forEachNonZero((row, col, value) -> cells.add(row + "," + col + "=" + value));
+        assertEquals(List.of("0,0=2.0", "2,0=3.0", "1,1=1.0"), cells);
+    }
+
+    @Test
+    void testViewReadsCscData() {
+        SparseMatrixWithIndexesTriplet triplet = new SparseMatrixWithIndexesTriplet(Map.of("r0", 0, "r1", 1), Map.of("c0", 0, "c1", 1), 3);
+        triplet.addItem("r0", "c0", 2.);
+        triplet.addItem("r1", "c0", 3.);
+        triplet.addItem("r1", "c1", 4.);
+        SparseMatrixView view = triplet.toCSCMatrix().view();
+
+        assertEquals(Set.of("r0", "r1"), view.getRowIds());
+        assertEquals(Set.of("c0", "c1"), view.getColumnIds());
+        assertEquals(3., view.get("r1", "c0"));
+        assertEquals(0., view.get("r0", "c1"));
+        assertEquals(0., view.get("unknown", "c1"));
+        assertEquals(Map.of("r0", 2., "r1", 3.), view.getColumn("c0"));
+        assertEquals(Map.of("c0", 3., "c1", 4.), view.getRow("r1"));
+        // Next rows are read from the row index built by the first call
+        assertEquals(Map.of("c0", 2.), view.getRow("r0"));
+        assertEquals(Map.of(), view.getRow("unknown"));
+        assertEquals(Map.of("r0", Map.of("c0", 2.), "r1", Map.of("c0", 3., "c1", 4.)), view.toMap());
+        Map<String, Map<String, Double>> cells = new TreeMap<>();
+        view.forEach((rowId, columnId, value) -> cells.computeIfAbsent(rowId, id -> new TreeMap<>()).put(columnId, value));
+        assertEquals(view.toMap(), cells);
+    }
+
+    @Test
+    void testDenseMultiplicationGivesSparseProduct() {
+        Map<String, Integer> rowIndex = new HashMap<>();
+        Map<String, Integer> innerIndex = new HashMap<>();
+        for (int i = 0; i < 150; i++) {
+            rowIndex.put("r" + i, i);
+        }
+        for (int j = 0; j < 40; j++) {
+            innerIndex.put("n" + j, j);
+        }
+        SparseMatrixWithIndexesTriplet left = new SparseMatrixWithIndexesTriplet(rowIndex, innerIndex, 150 * 40);
+        for (int i = 0; i < 150; i++) {
+            for (int j = 0; j < 40; j++) {
+                if ((i + j) % 7 != 0 && i != 3) {
+                    left.addItem(i, j, Math.sin(i * 40. + j));
+                }
+            }
+        }
+        SparseMatrixWithIndexesTriplet right = new SparseMatrixWithIndexesTriplet(innerIndex, Map.of("c0", 0, "c1", 1, "c2", 2), 40);
+        for (int j = 0; j < 40; j += 3) {
+            right.addItem(j, j % 2, Math.cos(j));
+        }
+
+        assertEquals(0.85, left.getDensity(), 0.01);
+        Map<String, Map<String, Double>> expected = SparseMatrixWithIndexesCSC.mult(left.toCSCMatrix(), right.toCSCMatrix()).toMap();
+        Map<String, Map<String, Double>> actual = DenseMatrixWithIndexes.mult(left.toDenseMatrix(), right.toCSCMatrix()).toMap();
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((rowId, row) -> {
+            assertEquals(row.keySet(), actual.get(rowId).keySet());
+            row.forEach((colId, value) -> assertEquals(value, actual.get(rowId).get(colId), 1e-12));
+        });
+    }
+}